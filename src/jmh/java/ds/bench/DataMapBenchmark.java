@@ -0,0 +1,55 @@
+package ds.bench;
+
+import ds.model.Types.DataItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Node data store access at different store sizes
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataMapBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Map<Integer, DataItem> data;
+    private DataItem item;
+
+    @Setup
+    public void setUp() {
+        data = new HashMap<>();
+        for (int key = 0; key < size; key++) {
+            data.put(key, new DataItem("value" + key, 1L, 10));
+        }
+        item = new DataItem("updated", 2L, 20);
+    }
+
+    @Benchmark
+    public DataItem get() {
+        return data.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public DataItem put() {
+        return data.put(ThreadLocalRandom.current().nextInt(size), item);
+    }
+}
@@ -0,0 +1,75 @@
+package ds.bench;
+
+import ds.model.Delayer;
+import ds.model.GaussianNetworkModel;
+import ds.model.LinkNetworkModel;
+import ds.model.Types.ReadDataRequest;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of handing one message to the simulated network, as paid by every send
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class DelayerBenchmark {
+
+    // Drops everything it receives
+    public static class Sink extends AbstractActor {
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().matchAny(msg -> {}).build();
+        }
+    }
+
+    @Param({"gaussian", "link"})
+    public String network;
+
+    private ActorSystem system;
+    private Delayer delayer;
+    private ActorRef sink;
+    private final ReadDataRequest message = new ReadDataRequest(42, 7L);
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("DelayerBenchmark");
+        delayer = new Delayer(system, network.equals("link") ? new LinkNetworkModel() : new GaussianNetworkModel());
+        sink = system.actorOf(Props.create(Sink.class), "node10");
+    }
+
+    @TearDown
+    public void tearDown() {
+        system.terminate();
+    }
+
+    @Benchmark
+    public void delayedMsg() {
+        delayer.delayedMsg(sink, message, sink);
+    }
+
+    @Benchmark
+    public long networkDelay() {
+        return delayer.getNetwork().delayMs(sink, sink, message);
+    }
+}
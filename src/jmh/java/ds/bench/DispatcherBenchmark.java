@@ -0,0 +1,123 @@
+package ds.bench;
+
+import ds.config.ActorDispatchers;
+import ds.config.ActorDispatchers.Role;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Message throughput of the node dispatcher for different executors, thread counts and
+// throughput settings: PAIRS ping-pong pairs exchange ROUND_TRIPS messages each
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+
+    private static final int PAIRS = 32;
+    private static final int ROUND_TRIPS = 1000;
+
+    public record Start(ActorRef partner, int roundTrips, CountDownLatch done) {}
+    public record Ping() {}
+
+    // Bounces pings with its partner until its round trips are used up
+    public static class Player extends AbstractActor {
+        private ActorRef partner;
+        private int remaining;
+        private CountDownLatch done;
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                .match(Start.class, msg -> {
+                    partner = msg.partner();
+                    remaining = msg.roundTrips();
+                    done = msg.done();
+                    partner.tell(new Ping(), getSelf());
+                })
+                .match(Ping.class, msg -> {
+                    if (done == null) {
+                        getSender().tell(msg, getSelf());
+                    } else if (--remaining == 0) {
+                        done.countDown();
+                    } else {
+                        partner.tell(msg, getSelf());
+                    }
+                })
+                .build();
+        }
+    }
+
+    @Param({"fork-join-executor", "thread-pool-executor", "virtual"})
+    public String executor;
+
+    @Param({"2", "8"})
+    public int threads;
+
+    @Param({"1", "5", "100"})
+    public int throughput;
+
+    private ActorSystem system;
+    private final List<ActorRef> initiators = new ArrayList<>();
+    private final List<ActorRef> responders = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        String executorConfig = switch (executor) {
+            case "fork-join-executor" -> "executor = \"fork-join-executor\"\n" +
+                "fork-join-executor { parallelism-min = " + threads + ", parallelism-max = " + threads + " }";
+            case "thread-pool-executor" -> "executor = \"thread-pool-executor\"\n" +
+                "thread-pool-executor { fixed-pool-size = " + threads + " }";
+            default -> "executor = \"ds.config.VirtualThreadExecutorConfigurator\"";
+        };
+        Config config = ConfigFactory.parseString(
+            "ds.node-dispatcher {\n" + executorConfig + "\nthroughput = " + throughput + "\n}")
+            .withFallback(ConfigFactory.load());
+        system = ActorSystem.create("DispatcherBenchmark", config);
+
+        String dispatcher = ActorDispatchers.of(system, Role.NODE);
+        for (int i = 0; i < PAIRS; i++) {
+            initiators.add(system.actorOf(Props.create(Player.class).withDispatcher(dispatcher)));
+            responders.add(system.actorOf(Props.create(Player.class).withDispatcher(dispatcher)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        system.terminate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS * ROUND_TRIPS)
+    public void pingPong() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            initiators.get(i).tell(new Start(responders.get(i), ROUND_TRIPS, done), ActorRef.noSender());
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,50 @@
+package ds.bench;
+
+import ds.actors.Handler;
+import ds.model.Types.DataItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Handler quorum resolution: pick the latest (version, nodeId) among the replies
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuorumBenchmark {
+
+    @Param({"2", "3", "5"})
+    public int replies;
+
+    private List<DataItem> quorum;
+
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        quorum = new ArrayList<>();
+        for (int i = 0; i < replies; i++) {
+            quorum.add(new DataItem("value" + i, rnd.nextInt(10), (i + 1) * 10));
+        }
+    }
+
+    @Benchmark
+    public DataItem latestOf() {
+        return Handler.latestOf(quorum);
+    }
+}
@@ -0,0 +1,59 @@
+package ds.bench;
+
+import ds.model.Ring;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Replica placement and neighbour lookup, run by every coordinator on every request
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int nodes;
+
+    @Param({"3"})
+    public int replicationFactor;
+
+    private List<Integer> nodeIds;
+    private int selfId;
+
+    @Setup
+    public void setUp() {
+        nodeIds = new ArrayList<>();
+        for (int i = 1; i <= nodes; i++) {
+            nodeIds.add(i * 10);
+        }
+        selfId = nodeIds.get(nodes / 2);
+    }
+
+    @Benchmark
+    public List<Integer> findReplicaNodesIds() {
+        int key = ThreadLocalRandom.current().nextInt(nodes * 10 + 10);
+        return Ring.findReplicaNodesIds(key, nodeIds, replicationFactor);
+    }
+
+    @Benchmark
+    public List<Integer> clockwiseNeighbors() {
+        return Ring.clockwiseNeighborIds(selfId, nodeIds, replicationFactor);
+    }
+}
@@ -0,0 +1,126 @@
+package ds.bench;
+
+import ds.model.Types.DataItem;
+import ds.model.Types.RangeItems;
+import ds.model.Types.Result;
+import ds.model.Types.WriteDataRequest;
+import ds.model.TypesSerializer;
+
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Binary TypesSerializer against Java serialization: ns/op for each direction,
+// and the encoded size reported as the "bytes" secondary metric
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    // Encoded size of the message, constant per parameter set
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Param({"result", "write", "rangeItems1000"})
+    public String message;
+
+    private ActorSystem system;
+    private TypesSerializer serializer;
+    private Object payload;
+    private String manifest;
+    private byte[] binary;
+    private byte[] java;
+
+    @Setup
+    public void setUp() throws IOException {
+        system = ActorSystem.create("SerializationBenchmark");
+        serializer = new TypesSerializer((ExtendedActorSystem) system);
+        DataItem item = new DataItem("value-42", 17, 20);
+        payload = switch (message) {
+            case "result" -> new Result(7, item, (2L << 32) | 1234, 3);
+            case "write" -> new WriteDataRequest(42, item);
+            default -> {
+                Map<Integer, DataItem> items = new HashMap<>();
+                for (int key = 0; key < 1000; key++) {
+                    items.put(key, new DataItem("value" + key, key, 20));
+                }
+                yield new RangeItems(0, 999, items, 1, 0, true);
+            }
+        };
+        manifest = serializer.manifest(payload);
+        binary = serializer.toBinary(payload);
+        java = javaSerialize(payload);
+    }
+
+    @TearDown
+    public void tearDown() {
+        system.terminate();
+    }
+
+    private static byte[] javaSerialize(Object o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] binarySerialize(Size size) {
+        byte[] bytes = serializer.toBinary(payload);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() throws Exception {
+        return serializer.fromBinary(binary, manifest);
+    }
+
+    @Benchmark
+    public byte[] javaSerialize(Size size) throws IOException {
+        byte[] bytes = javaSerialize(payload);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object javaDeserialize() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(java))) {
+            return in.readObject();
+        }
+    }
+}
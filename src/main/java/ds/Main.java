@@ -1,7 +1,10 @@
 package ds;
 
 import ds.actors.Client;
+import ds.config.Remoting;
 import ds.config.Settings;
+import ds.model.KeyGenerator;
+import ds.model.Workload;
 import akka.actor.ActorRef;
 import java.util.Scanner;
 
@@ -12,7 +15,14 @@ public class Main {
         Scanner scanner = new Scanner(System.in);
         Settings.configure(scanner);
         
-        ManagementService service = new ManagementService();
+        // --remote [seedPort]: run every node in its own JVM over Akka remoting
+        ManagementService service;
+        if (args.length > 0 && args[0].equals("--remote")) {
+            int seedPort = args.length > 1 ? Integer.parseInt(args[1]) : Remoting.DEFAULT_SEED_PORT;
+            service = ManagementService.remote(seedPort);
+        } else {
+            service = new ManagementService();
+        }
         scanner = new Scanner(System.in);
         
         System.out.println("=== Starting Execution ===\n");
@@ -50,6 +60,9 @@ public class Main {
                         leaveNetwork(scanner, service);
                         break;
                     case "8":
+                        runLoadTest(scanner, service);
+                        break;
+                    case "9":
                         running = false;
                         System.out.println("\nShutting down...");
                         break;
@@ -77,7 +90,8 @@ public class Main {
         System.out.println("5. Crash Node");
         System.out.println("6. Recover Node");
         System.out.println("7. Remove Node");
-        System.out.println("8. Exit");
+        System.out.println("8. Run Load Test");
+        System.out.println("9. Exit");
         System.out.println("=".repeat(50));
         System.out.print("> ");
         System.out.flush();
@@ -91,78 +105,62 @@ public class Main {
     }
     
     private static void updateValue(Scanner scanner, ManagementService service) {
-        if (!service.startOperation()) {
+        System.out.print("Enter client ID: ");
+        int clientId = Integer.parseInt(scanner.nextLine().trim());
+        
+        ActorRef client = service.getClient(clientId);
+        if (client == null) {
+            System.out.println("✗ ERROR: Client " + clientId + " not found.");
             return;
         }
         
-        try {
-            System.out.print("Enter client ID: ");
-            int clientId = Integer.parseInt(scanner.nextLine().trim());
-            
-            ActorRef client = service.getClient(clientId);
-            if (client == null) {
-                System.out.println("✗ ERROR: Client " + clientId + " not found.");
-                return;
-            }
-            
-            System.out.print("Enter target node ID: ");
-            int nodeId = Integer.parseInt(scanner.nextLine().trim());
-            
-            if (!service.nodeExists(nodeId)) {
-                System.out.println("✗ ERROR: Node " + nodeId + " is not present in the system.");
-                return;
-            }
-            
-            System.out.print("Enter key: ");
-            int key = Integer.parseInt(scanner.nextLine().trim());
-            
-            System.out.print("Enter value: ");
-            String value = scanner.nextLine().trim();
-            
-            client.tell(new Client.UpdateRequest(nodeId, key, value), ActorRef.noSender());
-            System.out.println("✓ UPDATE request sent.");
-            
-            // Wait for operation to complete
-            service.waitForProcessing(300);
-        } finally {
-            service.finishOperation();
+        System.out.print("Enter target node ID: ");
+        int nodeId = Integer.parseInt(scanner.nextLine().trim());
+        
+        if (!service.nodeExists(nodeId)) {
+            System.out.println("✗ ERROR: Node " + nodeId + " is not present in the system.");
+            return;
         }
+        
+        System.out.print("Enter key: ");
+        int key = Integer.parseInt(scanner.nextLine().trim());
+        
+        System.out.print("Enter value: ");
+        String value = scanner.nextLine().trim();
+        
+        client.tell(new Client.UpdateRequest(nodeId, key, value), ActorRef.noSender());
+        System.out.println("✓ UPDATE request sent.");
+        
+        // Wait for operation to complete
+        service.waitForProcessing(300);
     }
     
     private static void getValue(Scanner scanner, ManagementService service) {
-        if (!service.startOperation()) {
+        System.out.print("Enter client ID (1 or 2): ");
+        int clientId = Integer.parseInt(scanner.nextLine().trim());
+        
+        ActorRef client = service.getClient(clientId);
+        if (client == null) {
+            System.out.println("✗ ERROR: Client " + clientId + " not found.");
             return;
         }
         
-        try {
-            System.out.print("Enter client ID (1 or 2): ");
-            int clientId = Integer.parseInt(scanner.nextLine().trim());
-            
-            ActorRef client = service.getClient(clientId);
-            if (client == null) {
-                System.out.println("✗ ERROR: Client " + clientId + " not found.");
-                return;
-            }
-            
-            System.out.print("Enter target node ID: ");
-            int nodeId = Integer.parseInt(scanner.nextLine().trim());
-            
-            if (!service.nodeExists(nodeId)) {
-                System.out.println("✗ ERROR: Node " + nodeId + " is not present in the system.");
-                return;
-            }
-            
-            System.out.print("Enter key: ");
-            int key = Integer.parseInt(scanner.nextLine().trim());
-            
-            client.tell(new Client.GetRequest(nodeId, key), ActorRef.noSender());
-            System.out.println("✓ GET request sent.");
-            
-            // Wait for operation to complete
-            service.waitForProcessing(300);
-        } finally {
-            service.finishOperation();
+        System.out.print("Enter target node ID: ");
+        int nodeId = Integer.parseInt(scanner.nextLine().trim());
+        
+        if (!service.nodeExists(nodeId)) {
+            System.out.println("✗ ERROR: Node " + nodeId + " is not present in the system.");
+            return;
         }
+        
+        System.out.print("Enter key: ");
+        int key = Integer.parseInt(scanner.nextLine().trim());
+        
+        client.tell(new Client.GetRequest(nodeId, key), ActorRef.noSender());
+        System.out.println("✓ GET request sent.");
+        
+        // Wait for operation to complete
+        service.waitForProcessing(300);
     }
     
     private static void crashNode(Scanner scanner, ManagementService service) {
@@ -211,6 +209,36 @@ public class Main {
         service.waitForProcessing(1000);
     }
 
+    private static void runLoadTest(Scanner scanner, ManagementService service) {
+        System.out.print("Mode (open/closed) [closed]: ");
+        String mode = scanner.nextLine().trim().toLowerCase();
+        boolean openLoop = mode.equals("open");
+
+        System.out.print(openLoop ? "Target rate in ops/s [200]: " : "Concurrency [16]: ");
+        String input = scanner.nextLine().trim();
+        int intensity = input.isEmpty() ? (openLoop ? 200 : 16) : Integer.parseInt(input);
+
+        System.out.print("Duration in milliseconds [5000]: ");
+        input = scanner.nextLine().trim();
+        long duration = input.isEmpty() ? 5000 : Long.parseLong(input);
+
+        System.out.print("Key distribution (uniform/zipfian/hotspot) [uniform]: ");
+        input = scanner.nextLine().trim();
+        KeyGenerator.Distribution distribution = input.isEmpty()
+            ? KeyGenerator.Distribution.UNIFORM
+            : KeyGenerator.Distribution.valueOf(input.toUpperCase());
+
+        System.out.print("Read ratio [0.9]: ");
+        input = scanner.nextLine().trim();
+        double readRatio = input.isEmpty() ? 0.9 : Double.parseDouble(input);
+
+        Workload workload = openLoop
+            ? Workload.openLoop(intensity, duration, 100, distribution, readRatio)
+            : Workload.closedLoop(intensity, duration, 100, distribution, readRatio);
+        System.out.println("Running load test...");
+        service.runLoadTest(workload);
+    }
+
     private static void printAllNodes(ManagementService service) {
         service.printNetworkStatus();
         service.waitForProcessing(1000);
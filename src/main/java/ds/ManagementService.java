@@ -2,16 +2,36 @@ package ds;
 
 import ds.actors.Node;
 import ds.actors.Client;
+import ds.actors.LoadGenerator;
+import ds.actors.LoadGenerator.LoadReport;
+import ds.config.ActorDispatchers;
+import ds.config.Remoting;
+import ds.config.Settings;
 import ds.model.Types;
 import ds.model.Types.*;
 import ds.model.Delayer;
+import ds.model.GaussianNetworkModel;
+import ds.model.NetworkModel;
+import ds.model.Workload;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
+import akka.pattern.Patterns;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 // Management service for handling all Akka actor operations
 public class ManagementService {
@@ -22,34 +42,68 @@ public class ManagementService {
     private final Map<Integer, ActorRef> clients;
     private final Map<Integer, ActorRef> crashedNodes;
     private final ActorRef managementActor;
-    
-    // Mutual exclusion for operations
-    private boolean topologyChangeInProgress = false;
-    private int ongoingOperations = 0;
+    private final String nodeDispatcher;
+    // Completed by NodeReady events; a node only bootstraps others once it is ready
+    private final Map<Integer, CompletableFuture<Void>> readiness;
+    // Multi-process mode: every node runs in its own JVM, registered through the seed port
+    private final boolean remote;
+    private final Map<Integer, Process> processes;
+
+    private static final long BOOTSTRAP_TIMEOUT_MS = 10_000;
 
     // =============== Constructor ====================
     public ManagementService() {
-        this.system = ActorSystem.create("MainSystem");
-        this.delayer = new Delayer(system);
-        this.nodes = new TreeMap<>();
-        this.clients = new TreeMap<>();
-        this.crashedNodes = new TreeMap<>();
+        this(new GaussianNetworkModel());
+    }
+
+    // Run the cluster over a custom network (per-link latency, loss, partitions)
+    public ManagementService(NetworkModel network) {
+        this(ActorSystem.create(Remoting.SYSTEM_NAME), network, false);
+    }
+
+    // Run every node as a separate process that connects back to seedPort (0 = any free port)
+    public static ManagementService remote(int seedPort) {
+        return new ManagementService(Remoting.createSystem(seedPort), new GaussianNetworkModel(), true);
+    }
+
+    private ManagementService(ActorSystem system, NetworkModel network, boolean remote) {
+        this.system = system;
+        this.remote = remote;
+        this.processes = new ConcurrentHashMap<>();
+        this.delayer = new Delayer(system, network);
+        // Shared with client actors and the management actor: concurrent, sorted by id
+        this.nodes = new ConcurrentSkipListMap<>();
+        this.clients = new ConcurrentSkipListMap<>();
+        this.crashedNodes = new ConcurrentSkipListMap<>();
+        this.readiness = new ConcurrentHashMap<>();
+        this.nodeDispatcher = ActorDispatchers.of(system, ActorDispatchers.Role.NODE);
         
         this.managementActor = system.actorOf(Props.create(akka.actor.AbstractActor.class, () -> 
             new akka.actor.AbstractActor() {
                 @Override
                 public Receive createReceive() {
                     return receiveBuilder()
-                        .match(Types.LeaveComplete.class, msg -> {
-                            synchronized(ManagementService.this) {
-                                nodes.remove(msg.nodeId());
-                                System.out.println("✓ Node[" + msg.nodeId() + "] successfully removed from active nodes after leave");
+                        .match(Types.NodeReady.class, msg -> {
+                            if (remote) {
+                                // Remote nodes are only known once they report in
+                                nodes.putIfAbsent(msg.nodeId(), getSender());
                             }
+                            readinessOf(msg.nodeId()).complete(null);
+                        })
+                        .match(Types.NodeProcessStarted.class, msg -> {
+                            readinessOf(msg.nodeId());
+                            getSender().tell(new JoinCluster(Settings.N, Settings.R, Settings.W, Settings.T, pickReadyBootstrapper()), getSelf());
+                        })
+                        .match(Types.LeaveComplete.class, msg -> {
+                            nodes.remove(msg.nodeId());
+                            readiness.remove(msg.nodeId());
+                            processes.remove(msg.nodeId());
+                            System.out.println("✓ Node[" + msg.nodeId() + "] successfully removed from active nodes after leave");
                         })
                         .build();
                 }
             }
-        ), "managementActor");
+        ).withDispatcher(ActorDispatchers.of(system, ActorDispatchers.Role.MANAGEMENT)), "managementActor");
     }
 
     // ================ Utility Functions ====================
@@ -67,50 +121,34 @@ public class ManagementService {
         return null;
     }
     
-    // ================ Operation Tracking ====================
-    private synchronized boolean canStartTopologyChange() {
-        if (topologyChangeInProgress) {
-            System.out.println("✗ ERROR: Another topology change is in progress. Please wait.");
-            return false;
-        }
-        if (ongoingOperations > 0) {
-            System.out.println("✗ ERROR: Cannot perform topology change - " + ongoingOperations + " operation(s) in progress. Please wait.");
-            return false;
-        }
-        topologyChangeInProgress = true;
-        return true;
-    }
-    
-    private synchronized void finishTopologyChange() {
-        topologyChangeInProgress = false;
+    private CompletableFuture<Void> readinessOf(int nodeId) {
+        return readiness.computeIfAbsent(nodeId, id -> new CompletableFuture<>());
     }
-    
-    private synchronized boolean canStartOperation() {
-        if (topologyChangeInProgress) {
-            System.out.println("✗ ERROR: Topology change in progress. Please wait before starting operations.");
-            return false;
+
+    // Joining nodes must contact a node that already serves requests
+    private ActorRef pickReadyBootstrapper() {
+        Map<Integer, ActorRef> ready = new TreeMap<>();
+        for (Map.Entry<Integer, ActorRef> entry : nodes.entrySet()) {
+            CompletableFuture<Void> state = readiness.get(entry.getKey());
+            if (state != null && state.isDone()) {
+                ready.put(entry.getKey(), entry.getValue());
+            }
         }
-        ongoingOperations++;
-        return true;
+        return pickRandom(ready.isEmpty() ? nodes : ready);
     }
-    
-    public synchronized void finishOperation() {
-        if (ongoingOperations > 0) {
-            ongoingOperations--;
+
+    // Block until the node has announced it is ready, false on timeout
+    public boolean awaitReady(int nodeId, long timeoutMs) {
+        try {
+            readinessOf(nodeId).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
         }
     }
-    
-    public synchronized int getOngoingOperations() {
-        return ongoingOperations;
-    }
-    
-    public synchronized boolean isTopologyChangeInProgress() {
-        return topologyChangeInProgress;
-    }
-    
-    public boolean startOperation() {
-        return canStartOperation();
-    }
 
     // ================ System Initialization ====================
     
@@ -118,48 +156,120 @@ public class ManagementService {
     public void initialize() {
 
         // Create initial nodes
-        addNode(10);
-        waitForProcessing(500);
-        addNode(20);
-        waitForProcessing(500);
-        addNode(30);
-        waitForProcessing(500);
-        addNode(40);
-        waitForProcessing(500);
-        addNode(50);
-        waitForProcessing(500);
+        if (remote) {
+            for (int nodeId : List.of(10, 20, 30, 40, 50)) {
+                launchNodeProcess(nodeId);
+            }
+        } else {
+            bootstrap(List.of(10, 20, 30, 40, 50));
+        }
 
         // Create client actor
         clients.put(1, system.actorOf(Props.create(Client.class, () -> new Client(1, nodes, delayer))));
         clients.put(2, system.actorOf(Props.create(Client.class, () -> new Client(2, nodes, delayer))));
         
-        // Add some initial data values
-        ActorRef client1 = clients.get(1);
-        client1.tell(new Client.UpdateRequest(10, 5, "cat"), ActorRef.noSender());
-        waitForProcessing(500);
-        client1.tell(new Client.UpdateRequest(20, 25, "dog"), ActorRef.noSender());
-        waitForProcessing(500);
-        client1.tell(new Client.UpdateRequest(30, 45, "frog"), ActorRef.noSender());
-        waitForProcessing(500);
+        // Add some initial data values, waiting for each write to be acknowledged
+        StoreClient client1 = getStoreClient(1);
+        seed(client1, 5, "cat");
+        seed(client1, 25, "dog");
+        seed(client1, 45, "frog");
+    }
+
+    private void seed(StoreClient client, int key, String value) {
+        try {
+            DataItem item = client.update(key, value).toCompletableFuture().get(BOOTSTRAP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            System.out.println("✓ Seeded key " + key + " = '" + value + "' (version: " + item.version() + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.out.println("✗ ERROR: Could not seed key " + key + ": " + e.getMessage());
+        }
+    }
+
+    // Start an initial cluster in parallel from a precomputed ring: every node is created
+    // at once and handed the full peer map, so there are no join round trips.
+    // Returns once all nodes announced they are ready.
+    public void bootstrap(List<Integer> nodeIds) {
+        Map<Integer, ActorRef> ring = new TreeMap<>();
+        for (Integer nodeId : nodeIds) {
+            if (nodes.containsKey(nodeId) || ring.containsKey(nodeId)) {
+                System.out.println("✗ ERROR: Node " + nodeId + " already exists");
+                continue;
+            }
+            readinessOf(nodeId);
+            ring.put(nodeId, system.actorOf(Props.create(Node.class, () -> Node.forBootstrap(nodeId, delayer, managementActor)).withDispatcher(nodeDispatcher), "node" + nodeId));
+        }
+        for (ActorRef node : ring.values()) {
+            node.tell(new SetPeers(ring), ActorRef.noSender());
+        }
+        nodes.putAll(ring);
+
+        List<CompletableFuture<Void>> ready = new ArrayList<>();
+        for (Integer nodeId : ring.keySet()) {
+            ready.add(readinessOf(nodeId));
+        }
+        try {
+            CompletableFuture.allOf(ready.toArray(new CompletableFuture[0])).get(BOOTSTRAP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            System.out.println("✓ Bootstrapped nodes " + ring.keySet() + ". Active nodes: " + nodes.keySet());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.out.println("✗ ERROR: Bootstrap did not complete: " + e.getMessage());
+        }
     }
 
     // Add a new node to the system
+    // Topology changes no longer wait for operations: nodes hand ranges over under versioned epochs
     public void addNode(int nodeId) {
-        if (!canStartTopologyChange()) {
+        if (remote) {
+            launchNodeProcess(nodeId);
             return;
         }
-        
+        if (!nodes.containsKey(nodeId)) {
+            ActorRef bootstrapper = pickReadyBootstrapper();
+            readinessOf(nodeId);
+            nodes.put(nodeId, system.actorOf(Props.create(Node.class, () -> new Node(nodeId, bootstrapper, delayer, managementActor)).withDispatcher(nodeDispatcher), "node" + nodeId));
+            System.out.println("✓ Node " + nodeId + " added. Active nodes: " + nodes.keySet());
+        } else {
+            System.out.println("✗ ERROR: Node " + nodeId + " already exists");
+        }
+    }
+
+    // Start a node in a new JVM and wait until it has joined. Processes are launched one
+    // at a time so each one joins through a node that is already ready.
+    public boolean launchNodeProcess(int nodeId) {
+        if (!remote) {
+            System.out.println("✗ ERROR: Node processes require the service to run in remote mode");
+            return false;
+        }
+        if (nodes.containsKey(nodeId) || processes.containsKey(nodeId)) {
+            System.out.println("✗ ERROR: Node " + nodeId + " already exists");
+            return false;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        int seedPort = Remoting.addressOf(system).getPort().get();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            NodeProcess.class.getName(), String.valueOf(nodeId), String.valueOf(seedPort), Remoting.HOST);
+        builder.inheritIO();
         try {
-            if (!nodes.containsKey(nodeId)) {
-                ActorRef bootstrapper = pickRandom(nodes);
-                nodes.put(nodeId, system.actorOf(Props.create(Node.class, () -> new Node(nodeId, bootstrapper, delayer, managementActor)), "node" + nodeId));
-                System.out.println("✓ Node " + nodeId + " added. Active nodes: " + nodes.keySet());
-            } else {
-                System.out.println("✗ ERROR: Node " + nodeId + " already exists");
-            }
-        } finally {
-            finishTopologyChange();
+            readinessOf(nodeId);
+            processes.put(nodeId, builder.start());
+        } catch (IOException e) {
+            readiness.remove(nodeId);
+            System.out.println("✗ ERROR: Could not start process for node " + nodeId + ": " + e.getMessage());
+            return false;
+        }
+        // JVM startup dominates, allow for it on top of the join itself
+        if (!awaitReady(nodeId, 3 * BOOTSTRAP_TIMEOUT_MS)) {
+            System.out.println("✗ ERROR: Node " + nodeId + " process did not become ready");
+            return false;
         }
+        System.out.println("✓ Node " + nodeId + " process joined. Active nodes: " + nodes.keySet());
+        return true;
+    }
+
+    public boolean isRemote() {
+        return remote;
     }
 
     // ================ Diagnostic and Query Methods ====================
@@ -201,6 +311,19 @@ public class ManagementService {
         return clients.get(clientId);
     }
 
+    // Programmatic API on top of an existing client, null if the client does not exist
+    public StoreClient getStoreClient(int clientId) {
+        ActorRef client = clients.get(clientId);
+        return client != null ? new StoreClient(client) : null;
+    }
+
+    // Create a client for programmatic use with its own in-flight limit
+    public StoreClient createStoreClient(int clientId, int maxInFlight) {
+        ActorRef client = system.actorOf(Props.create(Client.class, () -> new Client(clientId, nodes, delayer, maxInFlight)));
+        clients.put(clientId, client);
+        return new StoreClient(client);
+    }
+
     // Get node actor reference by ID
     public ActorRef getNode(int nodeId) {
         return nodes.get(nodeId);
@@ -224,60 +347,44 @@ public class ManagementService {
     
     // Crash a node
     public void crashNode(int nodeId) {
-        if (!canStartTopologyChange()) {
-            return;
-        }
-        
-        try {
-            ActorRef node = nodes.get(nodeId);
-            if (node != null) {
-                // Check if crashing this node would leave no active nodes
-                if (nodes.size() <= 1) {
-                    System.out.println("✗ ERROR: Cannot crash node " + nodeId + " - it is the last active node. At least one node must remain active.");
-                    return;
-                }
-                
-                delayer.delayedMsg(ActorRef.noSender(), new Crash(), node);
-                // Move node from active to crashed list
-                nodes.remove(nodeId);
-                crashedNodes.put(nodeId, node);
-                System.out.println("Crash signal sent to node " + nodeId);
-            } else {
-                System.out.println("✗ ERROR: Node " + nodeId + " not found");
+        ActorRef node = nodes.get(nodeId);
+        if (node != null) {
+            // Check if crashing this node would leave no active nodes
+            if (nodes.size() <= 1) {
+                System.out.println("✗ ERROR: Cannot crash node " + nodeId + " - it is the last active node. At least one node must remain active.");
+                return;
             }
-        } finally {
-            finishTopologyChange();
+            
+            delayer.delayedMsg(ActorRef.noSender(), new Crash(), node);
+            // Move node from active to crashed list
+            nodes.remove(nodeId);
+            crashedNodes.put(nodeId, node);
+            System.out.println("Crash signal sent to node " + nodeId);
+        } else {
+            System.out.println("✗ ERROR: Node " + nodeId + " not found");
         }
     }
 
     // Recover a crashed node
     public void recoverNode(int nodeId, int peerNodeId) {
-        if (!canStartTopologyChange()) {
+        ActorRef node = crashedNodes.get(nodeId);
+        ActorRef peerNode = nodes.get(peerNodeId);
+        
+        if (node == null) {
+            System.out.println("✗ ERROR: Node " + nodeId + " not found in crashed nodes");
             return;
         }
         
-        try {
-            ActorRef node = crashedNodes.get(nodeId);
-            ActorRef peerNode = nodes.get(peerNodeId);
-            
-            if (node == null) {
-                System.out.println("✗ ERROR: Node " + nodeId + " not found in crashed nodes");
-                return;
-            }
-            
-            if (peerNode == null) {
-                System.out.println("✗ ERROR: Peer node " + peerNodeId + " not found");
-                return;
-            }
-            
-            delayer.delayedMsg(ActorRef.noSender(), new Recover(peerNode), node);
-            // Move node back from crashed to active list
-            crashedNodes.remove(nodeId);
-            nodes.put(nodeId, node);
-            System.out.println("Recovery signal sent to node " + nodeId + " to contact node " + peerNodeId);
-        } finally {
-            finishTopologyChange();
+        if (peerNode == null) {
+            System.out.println("✗ ERROR: Peer node " + peerNodeId + " not found");
+            return;
         }
+        
+        delayer.delayedMsg(ActorRef.noSender(), new Recover(peerNode), node);
+        // Move node back from crashed to active list
+        crashedNodes.remove(nodeId);
+        nodes.put(nodeId, node);
+        System.out.println("Recovery signal sent to node " + nodeId + " to contact node " + peerNodeId);
     }
 
     // ================ Client Communication ====================
@@ -287,6 +394,14 @@ public class ManagementService {
         client.tell(request, ActorRef.noSender());
     }
     
+    // Run a workload against the active nodes and block until its report is ready
+    public LoadReport runLoadTest(Workload workload) {
+        List<ActorRef> targets = new ArrayList<>(nodes.values());
+        ActorRef generator = system.actorOf(Props.create(LoadGenerator.class, () -> new LoadGenerator(workload, targets, delayer)));
+        Duration timeout = Duration.ofMillis(workload.durationMs() + 2L * Settings.T + 5000);
+        return (LoadReport) Patterns.ask(generator, new LoadGenerator.Start(), timeout).toCompletableFuture().join();
+    }
+
     // Collect and print network status from all nodes (active and crashed)
     public void printNetworkStatus() {
         // Create a collector actor to gather responses from all nodes
@@ -347,35 +462,31 @@ public class ManagementService {
 
     // Gracefully leave the network
     public void leaveNetwork(int nodeId) {
-        if (!canStartTopologyChange()) {
-            return;
-        }
-        
-        try {
-            ActorRef node = nodes.get(nodeId);
-            if (node != null) {
-                // Check if leaving this node would violate the N constraint
-                // Consider total nodes (active + crashed) to allow leaving even with crashed nodes
-                int totalNodesAfterLeave = (nodes.size() - 1) + crashedNodes.size();
-                if (totalNodesAfterLeave < ds.config.Settings.N) {
-                    System.out.println("✗ ERROR: Cannot leave network - node " + nodeId + " leaving would result in " + totalNodesAfterLeave + " total nodes, but N=" + ds.config.Settings.N + " requires at least " + ds.config.Settings.N + " nodes in the system.");
-                    return;
-                }
-                
-                delayer.delayedMsg(ActorRef.noSender(), new Leave(), node);
-                System.out.println("Leave signal sent to node " + nodeId + " (Note: Some operations may timeout if crashed nodes are part of quorums)");
-                // Note: Node will stop itself after completing the leave protocol
-                // If leave fails, the node will remain active in the system
-            } else {
-                System.out.println("✗ ERROR: Node " + nodeId + " not found");
+        ActorRef node = nodes.get(nodeId);
+        if (node != null) {
+            // Check if leaving this node would violate the N constraint
+            // Consider total nodes (active + crashed) to allow leaving even with crashed nodes
+            int totalNodesAfterLeave = (nodes.size() - 1) + crashedNodes.size();
+            if (totalNodesAfterLeave < ds.config.Settings.N) {
+                System.out.println("✗ ERROR: Cannot leave network - node " + nodeId + " leaving would result in " + totalNodesAfterLeave + " total nodes, but N=" + ds.config.Settings.N + " requires at least " + ds.config.Settings.N + " nodes in the system.");
+                return;
             }
-        } finally {
-            finishTopologyChange();
+            
+            delayer.delayedMsg(ActorRef.noSender(), new Leave(), node);
+            System.out.println("Leave signal sent to node " + nodeId + " (Note: Some operations may timeout if crashed nodes are part of quorums)");
+            // Note: Node will stop itself after completing the leave protocol
+            // If leave fails, the node will remain active in the system
+        } else {
+            System.out.println("✗ ERROR: Node " + nodeId + " not found");
         }
     }
 
     // Terminate the actor system
     public void shutdown() {
         system.terminate();
+        // Node processes also exit on their own once the management actor is gone
+        for (Process process : processes.values()) {
+            process.destroy();
+        }
     }
 }
@@ -0,0 +1,84 @@
+package ds;
+
+import ds.actors.Node;
+import ds.config.ActorDispatchers;
+import ds.config.Remoting;
+import ds.config.Settings;
+import ds.model.Delayer;
+import ds.model.Types.JoinCluster;
+import ds.model.Types.NodeProcessStarted;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.Terminated;
+import akka.pattern.Patterns;
+
+import java.time.Duration;
+
+/*
+Entry point of a node running in its own JVM:
+    java ds.NodeProcess <nodeId> [seedPort] [seedHost]
+
+The process registers with the management service at the seed address, receives the
+cluster settings and a bootstrapper, then starts a single Node actor. It exits when its
+node stops (leave) or when the management service goes away.
+ */
+public class NodeProcess {
+
+    private static final Duration SEED_TIMEOUT = Duration.ofSeconds(15);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: NodeProcess <nodeId> [seedPort] [seedHost]");
+            System.exit(1);
+        }
+        int nodeId = Integer.parseInt(args[0]);
+        int seedPort = args.length > 1 ? Integer.parseInt(args[1]) : Remoting.DEFAULT_SEED_PORT;
+        String seedHost = args.length > 2 ? args[2] : Remoting.HOST;
+
+        ActorSystem system = Remoting.createSystem(0);
+        try {
+            ActorRef management = system.actorSelection(Remoting.managementPath(seedHost, seedPort))
+                .resolveOne(SEED_TIMEOUT).toCompletableFuture().get();
+            JoinCluster join = (JoinCluster) Patterns.ask(management, new NodeProcessStarted(nodeId), SEED_TIMEOUT)
+                .toCompletableFuture().get();
+
+            // Quorum parameters come from the seed so every process agrees on them
+            Settings.N = join.n();
+            Settings.R = join.r();
+            Settings.W = join.w();
+            Settings.T = join.t();
+
+            Delayer delayer = new Delayer(system);
+            ActorRef bootstrapper = join.bootstrapper();
+            ActorRef node = system.actorOf(Props.create(Node.class, () -> new Node(nodeId, bootstrapper, delayer, management))
+                .withDispatcher(ActorDispatchers.of(system, ActorDispatchers.Role.NODE)), "node" + nodeId);
+            system.actorOf(Props.create(Guardian.class, () -> new Guardian(node, management)), "guardian");
+            System.out.println("✓ Node " + nodeId + " process started at " + Remoting.addressOf(system));
+        } catch (Exception e) {
+            System.out.println("✗ ERROR: Node " + nodeId + " could not reach the seed at " + seedHost + ":" + seedPort);
+            system.terminate();
+        }
+
+        system.getWhenTerminated().toCompletableFuture().join();
+        System.exit(0);
+    }
+
+    // Stops the actor system once the node or the management service is gone
+    public static class Guardian extends AbstractActor {
+
+        public Guardian(ActorRef node, ActorRef management) {
+            getContext().watch(node);
+            getContext().watch(management);
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                .match(Terminated.class, msg -> getContext().getSystem().terminate())
+                .build();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ds;
+
+import ds.actors.Client;
+import ds.model.Types.CasResult;
+import ds.model.Types.DataItem;
+import ds.model.NearCache;
+import ds.model.Value;
+
+import akka.actor.ActorRef;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+// Programmatic access to the store for applications embedding it.
+// Calls never block: each operation is pipelined through the client actor,
+// which keeps up to its in-flight limit outstanding and queues the rest.
+public class StoreClient {
+
+    private final ActorRef client;
+
+    public StoreClient(ActorRef client) {
+        this.client = client;
+    }
+
+    // Completes with the latest item for key (value null if the key was never written;
+    // a compressed value is only inflated when read with asString or toBytes),
+    // or exceptionally with a TimeoutException if no quorum answered in time
+    public CompletionStage<DataItem> get(int key) {
+        CompletableFuture<DataItem> future = new CompletableFuture<>();
+        client.tell(new Client.AsyncGet(key, future), ActorRef.noSender());
+        return future;
+    }
+
+    // Completes with the item as written (value, new version, coordinator id, expiry)
+    public CompletionStage<DataItem> update(int key, String value) {
+        return update(key, Value.of(value));
+    }
+
+    public CompletionStage<DataItem> update(int key, byte[] value) {
+        return update(key, Value.of(value));
+    }
+
+    public CompletionStage<DataItem> update(int key, Value value) {
+        return update(key, value, 0L);
+    }
+
+    // The item reads as never written once ttlMs elapsed after the write (ttlMs <= 0: never)
+    public CompletionStage<DataItem> update(int key, String value, long ttlMs) {
+        return update(key, Value.of(value), ttlMs);
+    }
+
+    public CompletionStage<DataItem> update(int key, Value value, long ttlMs) {
+        CompletableFuture<DataItem> future = new CompletableFuture<>();
+        client.tell(new Client.AsyncUpdate(key, value, Math.max(0L, ttlMs), future), ActorRef.noSender());
+        return future;
+    }
+
+    // Atomic read-modify-write in one quorum round: writes value only if the key's latest
+    // version is expectedVersion (0 = absent). Otherwise nothing is written and the result
+    // carries the current item, ready for the next attempt.
+    public CompletionStage<CasResult> compareAndSet(int key, long expectedVersion, String value) {
+        return compareAndSet(key, expectedVersion, Value.of(value), 0L);
+    }
+
+    public CompletionStage<CasResult> compareAndSet(int key, long expectedVersion, Value value, long ttlMs) {
+        CompletableFuture<CasResult> future = new CompletableFuture<>();
+        client.tell(new Client.AsyncCas(key, expectedVersion, value, Math.max(0L, ttlMs), future), ActorRef.noSender());
+        return future;
+    }
+
+    // Near cache counters of this client (all zero while the cache is disabled)
+    public CompletionStage<NearCache.Stats> cacheStats() {
+        CompletableFuture<NearCache.Stats> future = new CompletableFuture<>();
+        client.tell(new Client.AsyncCacheStats(future), ActorRef.noSender());
+        return future;
+    }
+
+    // Streams the items with keys in [startKey, endKey] in key order, at most limit of them
+    // (limit <= 0: no limit). onBatch runs on the client actor and the next batch is only
+    // fetched once it returns. Completes with the number of items delivered.
+    public CompletionStage<Integer> scan(int startKey, int endKey, int limit, Consumer<SortedMap<Integer, DataItem>> onBatch) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        client.tell(new Client.AsyncScan(startKey, endKey, limit, onBatch, future), ActorRef.noSender());
+        return future;
+    }
+
+    // Collects the whole scan; prefer the streaming variant for large ranges
+    public CompletionStage<SortedMap<Integer, DataItem>> scan(int startKey, int endKey, int limit) {
+        SortedMap<Integer, DataItem> items = new TreeMap<>();
+        return scan(startKey, endKey, limit, items::putAll).thenApply(count -> items);
+    }
+}
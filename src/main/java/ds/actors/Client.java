@@ -1,80 +1,663 @@
 package ds.actors;
 
+import ds.config.Settings;
 import ds.model.Delayer;
+import ds.model.NearCache;
+import ds.model.Ring;
+import ds.model.Topology;
 import ds.model.Types.ClientGetRequest;
 import ds.model.Types.ClientUpdateRequest;
+import ds.model.Types.DataItem;
+import ds.model.Types.Message;
 import ds.model.Types.Result;
+import ds.model.Types.CasResult;
+import ds.model.Types.ClientCasRequest;
+import ds.model.Types.ClientScanRequest;
+import ds.model.Types.ScanAck;
+import ds.model.Types.ScanBatch;
+import ds.model.Types.TopologyDelta;
+import ds.model.Types.TopologyRequest;
+import ds.model.Types.TopologyResponse;
+import ds.model.Types.VersionProbe;
+import ds.model.Types.VersionProbeResponse;
+import ds.model.Value;
 
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.event.Logging;
 import akka.event.LoggingAdapter;
+import scala.concurrent.duration.Duration;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 // Client actor
 public class Client extends AbstractActor {
 
     // Message types as records
-    public record GetRequest(int nodeId, int key) {}
-    public record UpdateRequest(int nodeId, int key, String value) {}
+    public record GetRequest(int nodeId, int key) implements Message {}
+    public record UpdateRequest(int nodeId, int key, String value) implements Message {}
+
+    // Programmatic API (see StoreClient): the future completes with the stored item.
+    // Local only, a future cannot cross a JVM boundary.
+    public record AsyncGet(int key, CompletableFuture<DataItem> future) {}
+    public record AsyncUpdate(int key, Value value, long ttlMs, CompletableFuture<DataItem> future) {}
+    public record AsyncCacheStats(CompletableFuture<NearCache.Stats> future) {}
+    public record AsyncCas(int key, long expectedVersion, Value value, long ttlMs, CompletableFuture<CasResult> future) {}
+    // Batches are handed to onBatch on the client actor, in key order; the next one is only
+    // requested once it returns. The future completes with the number of items delivered.
+    public record AsyncScan(int startKey, int endKey, int limit, Consumer<SortedMap<Integer, DataItem>> onBatch,
+                            CompletableFuture<Integer> future) {}
+    public record RequestTimeout(long reqId) implements Message {}
+    public record RefreshTopology() implements Message {}
+
+    // An operation sent to a coordinator and waiting for its Result
+    private static final class Pending {
+        private final int key;
+        private final int nodeId;                       // coordinator the request was sent to
+        private final Value newValue;                   // null for GET
+        private final CompletableFuture<DataItem> future; // null for TUI requests, which are printed
+        private final CompletableFuture<CasResult> casFuture; // set for compare-and-set only
+        private final DataItem cached;                  // set for a near cache version probe only
+        private final Cancellable timeout;
+
+        private Pending(int key, int nodeId, Value newValue, CompletableFuture<DataItem> future,
+                        CompletableFuture<CasResult> casFuture, DataItem cached, Cancellable timeout) {
+            this.key = key;
+            this.nodeId = nodeId;
+            this.newValue = newValue;
+            this.future = future;
+            this.casFuture = casFuture;
+            this.cached = cached;
+            this.timeout = timeout;
+        }
+    }
+
+    // A scan being streamed from a coordinator
+    private static final class Scan {
+        private final int nodeId;
+        private final Consumer<SortedMap<Integer, DataItem>> onBatch;
+        private final CompletableFuture<Integer> future;
+        private Cancellable timeout;
+        private int delivered = 0;
+
+        private Scan(int nodeId, Consumer<SortedMap<Integer, DataItem>> onBatch, CompletableFuture<Integer> future) {
+            this.nodeId = nodeId;
+            this.onBatch = onBatch;
+            this.future = future;
+        }
+    }
+
+    // A coordinator that let a request time out is avoided for this long
+    private static final long UNRESPONSIVE_PENALTY_MS = 5000;
 
     // Client fields
     private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
     private final int id;
     private final Delayer delayer;
     private final Map<Integer, ActorRef> nodes;
-    
+    private final int maxInFlight;
+    private final Map<Long, Pending> inFlight = new HashMap<>();
+    private final Map<Long, Scan> scans = new HashMap<>();
+    private final NearCache nearCache;    // null when Settings.nearCacheEntries is 0
+    private final Queue<Object> waiting = new ArrayDeque<>();
+    private Topology ring = Topology.of(Map.of(), 0);  // cached topology, empty until known
+    private final Map<Integer, Integer> outstandingPerNode = new HashMap<>();
+    private final Map<Integer, Long> unresponsiveUntil = new HashMap<>();
+    private Cancellable topologyRefresh = null;
+    private long ringEpoch = 0;           // epoch of the cached ring
+    private long requestedEpoch = 0;      // newest epoch a refresh was already asked for
+    private long requestCounter = 0;
+    private int nextCoordinator = 0;
+
 
     // Constructor
     public Client(int id, Map<Integer, ActorRef> nodeMap, Delayer delayer) {
+        this(id, nodeMap, delayer, Settings.maxInFlight);
+    }
+
+    public Client(int id, Map<Integer, ActorRef> nodeMap, Delayer delayer, int maxInFlight) {
         this.id = id;
         this.delayer = delayer;
         this.nodes = nodeMap;
+        this.maxInFlight = maxInFlight;
+        this.nearCache = Settings.nearCacheEntries > 0 ? new NearCache(Settings.nearCacheEntries, Settings.nearCacheMaxBytes) : null;
+    }
+
+    // Functions
+
+    // Request ids are unique across clients: client id in the high bits, a counter in the low bits
+    private long nextRequestId() {
+        requestCounter++;
+        return ((long) id << 32) | (requestCounter & 0xffffffffL);
+    }
+
+    // Coordinator gives up after T; leave room for both client legs on top of it
+    private Cancellable scheduleRequestTimeout(long reqId) {
+        return getContext().getSystem().scheduler().scheduleOnce(
+            Duration.create(2L * Settings.T, TimeUnit.MILLISECONDS),
+            getSelf(),
+            new RequestTimeout(reqId),
+            getContext().getSystem().dispatcher(),
+            getSelf()
+        );
+    }
+
+    private long track(int key, int nodeId, Value newValue, CompletableFuture<DataItem> future) {
+        return track(key, nodeId, newValue, future, null);
+    }
+
+    private long track(int key, int nodeId, Value newValue, CompletableFuture<DataItem> future, CompletableFuture<CasResult> casFuture) {
+        return track(key, nodeId, newValue, future, casFuture, null);
+    }
+
+    private long track(int key, int nodeId, Value newValue, CompletableFuture<DataItem> future,
+                       CompletableFuture<CasResult> casFuture, DataItem cached) {
+        long reqId = nextRequestId();
+        Cancellable timeout = scheduleRequestTimeout(reqId);
+        inFlight.put(reqId, new Pending(key, nodeId, newValue, future, casFuture, cached, timeout));
+        outstandingPerNode.merge(nodeId, 1, Integer::sum);
+        return reqId;
+    }
+
+    private Pending untrack(long reqId) {
+        Pending pending = inFlight.remove(reqId);
+        if (pending != null) {
+            outstandingPerNode.computeIfPresent(pending.nodeId, (nodeId, count) -> count > 1 ? count - 1 : null);
+        }
+        return pending;
+    }
+
+    // ======================= Routing ====================
+
+    private ActorRef nodeRef(int nodeId) {
+        ActorRef ref = ring.get(nodeId);
+        return ref != null ? ref : nodes.get(nodeId);
+    }
+
+    private boolean isResponsive(int nodeId) {
+        Long until = unresponsiveUntil.get(nodeId);
+        return until == null || until < System.currentTimeMillis();
+    }
+
+    // Token-aware routing: send to a replica of the key so the coordinator reads its own copy,
+    // choosing the replica with the fewest of our requests outstanding. Falls back to
+    // round-robin over the known nodes until the ring has been fetched.
+    private int route(int key) {
+        if (Settings.tokenAwareRouting && !ring.isEmpty()) {
+            List<Integer> replicaIds = Ring.findReplicaNodesIds(key, ring.nodes().keySet(), Settings.N);
+            // Lease mode: the range primary answers reads locally and coordinates every write
+            if (Settings.leaseReads && isResponsive(replicaIds.get(0))) {
+                return replicaIds.get(0);
+            }
+            List<Integer> candidates = new ArrayList<>();
+            int bestLoad = Integer.MAX_VALUE;
+            for (Integer replicaId : replicaIds) {
+                if (!isResponsive(replicaId)) {
+                    continue;
+                }
+                int load = outstandingPerNode.getOrDefault(replicaId, 0);
+                if (load < bestLoad) {
+                    bestLoad = load;
+                    candidates.clear();
+                }
+                if (load == bestLoad) {
+                    candidates.add(replicaId);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+            }
+        }
+        List<Integer> known = new ArrayList<>(ring.isEmpty() ? nodes.keySet() : ring.nodes().keySet());
+        if (known.isEmpty()) {
+            return -1;
+        }
+        nextCoordinator = (nextCoordinator + 1) % known.size();
+        return known.get(nextCoordinator);
+    }
+
+    // Compare-and-sets and near cache version probes go to the key's primary when it is known
+    private int routeToPrimary(int key) {
+        if (!ring.isEmpty()) {
+            int primary = Ring.findReplicaNodesIds(key, ring.nodes().keySet(), 1).get(0);
+            if (isResponsive(primary)) {
+                return primary;
+            }
+        }
+        return route(key);
+    }
+
+    // A node the user picked is kept when it already holds the key, otherwise the request is rerouted
+    private int routeFrom(int requestedNodeId, int key) {
+        if (!Settings.tokenAwareRouting || ring.isEmpty()
+                || Ring.findReplicaNodesIds(key, ring.nodes().keySet(), Settings.N).contains(requestedNodeId)) {
+            return requestedNodeId;
+        }
+        int routed = route(key);
+        return routed >= 0 ? routed : requestedNodeId;
+    }
+
+    // ======================= Near cache ====================
+
+    // Entries confirmed within the staleness bound are served at once, older ones are
+    // revalidated with a version probe to one replica, and read from a quorum after all if the
+    // probe goes unanswered. Returns false when a quorum read is needed right away.
+    private boolean readThroughCache(int key, CompletableFuture<DataItem> future) {
+        if (nearCache == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        NearCache.Entry entry = nearCache.lookup(key, now);
+        boolean fresh = entry != null && now - entry.confirmedAtMs() <= Settings.nearCacheStalenessMs;
+        if (fresh) {
+            nearCache.recordHit();
+            deliver(future, nextRequestId(), entry.item());
+            return true;
+        }
+        int nodeId = entry != null && Settings.nearCacheValidate ? routeToPrimary(key) : -1;
+        ActorRef node = nodeRef(nodeId);
+        if (node == null) {
+            nearCache.recordMiss();
+            return false;
+        }
+        long reqId = track(key, nodeId, null, future, null, entry.item());
+        delayer.delayedMsg(getSelf(), new VersionProbe(key, entry.item().version(), entry.item().nodeId(), reqId), node);
+        return true;
+    }
+
+    private void handleVersionProbeResponse(VersionProbeResponse msg) {
+        Pending pending = untrack(msg.reqId());
+        if (pending == null) {
+            return;
+        }
+        pending.timeout.cancel();
+        long now = System.currentTimeMillis();
+        DataItem item;
+        if (msg.item() == null) {
+            nearCache.recordValidatedHit();
+            nearCache.put(msg.key(), pending.cached, now);
+            item = pending.cached;
+        } else {
+            nearCache.recordMiss();
+            nearCache.put(msg.key(), msg.item(), now);
+            NearCache.Entry entry = nearCache.lookup(msg.key(), now);
+            item = entry != null ? entry.item() : msg.item();
+        }
+        deliver(pending.future, msg.reqId(), item);
+        drainWaiting();
+    }
+
+    // Keeps the cache in step with what this client read or wrote; an outcome it cannot
+    // know (failure, timeout) invalidates the key
+    private void cacheResult(Pending pending, Result msg) {
+        if (nearCache == null || pending.cached != null || msg.status() == Result.Status.OVERLOADED) {
+            return;  // a shed request changed nothing
+        }
+        long now = System.currentTimeMillis();
+        if (msg.status() == Result.Status.FAILED) {
+            nearCache.remove(pending.key);
+        } else if (msg.status() == Result.Status.CONFLICT || pending.newValue == null) {
+            nearCache.put(pending.key, msg.value(), now);
+        } else {
+            nearCache.put(pending.key, new DataItem(pending.newValue, msg.value().version(), msg.value().nodeId(), msg.value().expiresAt()), now);
+        }
+    }
+
+    private void deliver(CompletableFuture<DataItem> future, long reqId, DataItem item) {
+        if (future != null) {
+            future.complete(item);
+        } else {
+            printResult(new Result(0, item, reqId));
+        }
+    }
+
+    private void handleAsyncCacheStats(AsyncCacheStats msg) {
+        msg.future().complete(nearCache != null ? nearCache.stats() : new NearCache.Stats(0, 0, 0, 0, 0, 0));
+    }
+
+    // Only the changes since the cached ring are asked for, the whole ring while there is none
+    private void requestTopology() {
+        requestTopology(ring.isEmpty() ? -1 : ringEpoch);
+    }
+
+    private void requestTopology(long sinceEpoch) {
+        List<ActorRef> known = new ArrayList<>(ring.isEmpty() ? nodes.values() : ring.nodes().values());
+        if (!known.isEmpty()) {
+            ActorRef node = known.get(ThreadLocalRandom.current().nextInt(known.size()));
+            delayer.delayedMsg(getSelf(), new TopologyRequest(sinceEpoch), node);
+        }
+    }
+
+    private void handleRefreshTopology(RefreshTopology msg) {
+        requestTopology();
+    }
+
+    private void handleTopologyResponse(TopologyResponse msg) {
+        if (msg.epoch() < ringEpoch) {
+            return;  // answer from a node that has not caught up yet
+        }
+        ring = Topology.of(msg.peers(), msg.epoch());
+        ringEpoch = msg.epoch();
+        log.debug("Client[{}]: Cached ring with nodes {} (epoch {})", id, ring.nodes().keySet(), ringEpoch);
+    }
+
+    private void handleTopologyDelta(TopologyDelta msg) {
+        if (msg.epoch() < ringEpoch || msg.sinceEpoch() > ringEpoch) {
+            return;  // older than the cached ring, or relative to a ring this client never had
+        }
+        ring = ring.apply(msg);
+        ringEpoch = msg.epoch();
+        if (ring.size() != msg.size()) {
+            // The answering node knew of a change from before the cached ring: start over
+            log.debug("Client[{}]: Ring of {} nodes after delta, expected {}", id, ring.size(), msg.size());
+            requestTopology(-1);
+            return;
+        }
+        log.debug("Client[{}]: Cached ring with nodes {} (epoch {})", id, ring.nodes().keySet(), ringEpoch);
     }
 
     // Handle GET/UPDATE request from main
     private void handleGetRequest(GetRequest msg) {
-        ActorRef node = nodes.get(msg.nodeId());
+        if (readThroughCache(msg.key(), null)) {
+            return;
+        }
+        int nodeId = routeFrom(msg.nodeId(), msg.key());
+        ActorRef node = nodeRef(nodeId);
         if (node != null) {
-            log.info("Client[{}]: Sending GET request for key {} to node {}", id, msg.key(), msg.nodeId());
-            delayer.delayedMsg(getSelf(), new ClientGetRequest(msg.key()), node);
+            long reqId = track(msg.key(), nodeId, null, null);
+            log.info("Client[{}]: Sending GET request {} for key {} to node {}", id, reqId, msg.key(), nodeId);
+            delayer.delayedMsg(getSelf(), new ClientGetRequest(msg.key(), reqId, ringEpoch), node);
         } else {
             log.warning("Client[{}]: Node {} not found for GET request", id, msg.nodeId());
         }
     }
 
     private void handleUpdateRequest(UpdateRequest msg) {
-        ActorRef node = nodes.get(msg.nodeId());
+        int nodeId = routeFrom(msg.nodeId(), msg.key());
+        ActorRef node = nodeRef(nodeId);
         if (node != null) {
-            log.info("Client[{}]: Sending UPDATE request for key {} with value '{}' to node {}", id, msg.key(), msg.value(), msg.nodeId());
-            delayer.delayedMsg(getSelf(), new ClientUpdateRequest(msg.key(), msg.value()), node);
+            // Values are encoded (and compressed if large) here, at the client edge
+            Value value = Value.of(msg.value());
+            long reqId = track(msg.key(), nodeId, value, null);
+            log.info("Client[{}]: Sending UPDATE request {} for key {} to node {}", id, reqId, msg.key(), nodeId);
+            delayer.delayedMsg(getSelf(), new ClientUpdateRequest(msg.key(), value, reqId, ringEpoch), node);
         } else {
             log.warning("Client[{}]: Node {} not found for UPDATE request", id, msg.nodeId());
         }
     }
 
+    // Handle programmatic requests, queueing them beyond the in-flight limit
+    private void handleAsync(Object msg) {
+        if (inFlight.size() >= maxInFlight) {
+            waiting.add(msg);
+            return;
+        }
+        dispatch(msg);
+    }
+
+    private void dispatch(Object msg) {
+        if (msg instanceof AsyncGet get) {
+            if (readThroughCache(get.key(), get.future())) {
+                return;
+            }
+            sendGet(get.key(), get.future());
+        } else if (msg instanceof AsyncUpdate update) {
+            int nodeId = route(update.key());
+            ActorRef node = nodeRef(nodeId);
+            if (node == null) {
+                update.future().completeExceptionally(new IllegalStateException("No nodes available"));
+                return;
+            }
+            long reqId = track(update.key(), nodeId, update.value(), update.future());
+            delayer.delayedMsg(getSelf(), new ClientUpdateRequest(update.key(), update.value(), reqId, ringEpoch, update.ttlMs()), node);
+        } else if (msg instanceof AsyncCas cas) {
+            int nodeId = routeToPrimary(cas.key());
+            ActorRef node = nodeRef(nodeId);
+            if (node == null) {
+                cas.future().completeExceptionally(new IllegalStateException("No nodes available"));
+                return;
+            }
+            long reqId = track(cas.key(), nodeId, cas.value(), null, cas.future());
+            delayer.delayedMsg(getSelf(), new ClientCasRequest(cas.key(), cas.expectedVersion(), cas.value(), cas.ttlMs(), reqId, ringEpoch), node);
+        }
+    }
+
+    private void sendGet(int key, CompletableFuture<DataItem> future) {
+        int nodeId = route(key);
+        ActorRef node = nodeRef(nodeId);
+        if (node == null) {
+            if (future != null) {
+                future.completeExceptionally(new IllegalStateException("No nodes available"));
+            } else {
+                log.warning("Client[{}]: No nodes available for GET request on key {}", id, key);
+            }
+            return;
+        }
+        long reqId = track(key, nodeId, null, future);
+        delayer.delayedMsg(getSelf(), new ClientGetRequest(key, reqId, ringEpoch), node);
+    }
+
+    // ======================= Range scans ====================
+
+    // Scans are streamed rather than pipelined, so they bypass the in-flight limit
+    private void handleAsyncScan(AsyncScan msg) {
+        int nodeId = route(msg.startKey());
+        ActorRef node = nodeRef(nodeId);
+        if (node == null) {
+            msg.future().completeExceptionally(new IllegalStateException("No nodes available"));
+            return;
+        }
+        long reqId = nextRequestId();
+        Scan scan = new Scan(nodeId, msg.onBatch(), msg.future());
+        scan.timeout = scheduleRequestTimeout(reqId);
+        scans.put(reqId, scan);
+        log.info("Client[{}]: Sending SCAN request {} for keys {} to node {}", id, reqId, "[" + msg.startKey() + ", " + msg.endKey() + "]", nodeId);
+        delayer.delayedMsg(getSelf(), new ClientScanRequest(msg.startKey(), msg.endKey(), msg.limit(), reqId, ringEpoch), node);
+    }
+
+    // Acknowledging after the consumer returned is what paces the coordinator
+    private void handleScanBatch(ScanBatch msg) {
+        Scan scan = scans.get(msg.reqId());
+        if (scan == null) {
+            return;
+        }
+        scan.timeout.cancel();
+        if (msg.failed()) {
+            scans.remove(msg.reqId());
+            scan.future.completeExceptionally(new TimeoutException("Scan " + msg.reqId() + " failed at the coordinator"));
+            return;
+        }
+        try {
+            if (!msg.items().isEmpty()) {
+                scan.onBatch.accept(msg.items());
+                scan.delivered += msg.items().size();
+            }
+        } catch (RuntimeException e) {
+            scans.remove(msg.reqId());
+            scan.future.completeExceptionally(e);
+            return;  // no ack: the coordinator abandons the scan
+        }
+        if (msg.last()) {
+            scans.remove(msg.reqId());
+            scan.future.complete(scan.delivered);
+            return;
+        }
+        scan.timeout = scheduleRequestTimeout(msg.reqId());
+        delayer.delayedMsg(getSelf(), new ScanAck(msg.reqId()), getSender());
+    }
+
+    private void handleScanTimeout(long reqId) {
+        Scan scan = scans.remove(reqId);
+        if (scan == null) {
+            return;
+        }
+        log.warning("Client[{}]: Scan {} timed out at node {}", id, reqId, scan.nodeId);
+        unresponsiveUntil.put(scan.nodeId, System.currentTimeMillis() + UNRESPONSIVE_PENALTY_MS);
+        requestTopology();
+        scan.future.completeExceptionally(new TimeoutException("Scan " + reqId + " got no reply"));
+    }
+
+    private void drainWaiting() {
+        while (inFlight.size() < maxInFlight && !waiting.isEmpty()) {
+            dispatch(waiting.poll());
+        }
+    }
+
     // Handle Result response from node
     private void handleResult(Result msg) {
+        Pending pending = untrack(msg.reqId());
+        if (pending == null) {
+            // Late reply for an operation that already timed out on this side
+            log.debug("Client[{}]: Ignoring result for unknown request {}", id, msg.reqId());
+            return;
+        }
+        pending.timeout.cancel();
+
+        // Coordinators piggyback their epoch: refetch the ring as soon as it moved on
+        if (msg.epoch() > ringEpoch && msg.epoch() > requestedEpoch) {
+            requestedEpoch = msg.epoch();
+            requestTopology();
+        }
+
+        cacheResult(pending, msg);
+        if (msg.status() == Result.Status.OVERLOADED) {
+            handleOverloaded(pending, msg);
+        } else if (pending.casFuture != null) {
+            if (msg.status() == Result.Status.FAILED) {
+                pending.casFuture.completeExceptionally(new TimeoutException("Request " + msg.reqId() + " failed at the coordinator"));
+            } else if (msg.status() == Result.Status.CONFLICT) {
+                pending.casFuture.complete(new CasResult(false, msg.value()));
+            } else {
+                pending.casFuture.complete(new CasResult(true,
+                    new DataItem(pending.newValue, msg.value().version(), msg.value().nodeId(), msg.value().expiresAt())));
+            }
+        } else if (pending.future != null) {
+            if (msg.value() == null) {
+                pending.future.completeExceptionally(new TimeoutException("Request " + msg.reqId() + " failed at the coordinator"));
+            } else if (pending.newValue != null) {
+                pending.future.complete(new DataItem(pending.newValue, msg.value().version(), msg.value().nodeId(), msg.value().expiresAt()));
+            } else {
+                pending.future.complete(msg.value());
+            }
+        } else {
+            printResult(msg);
+        }
+        drainWaiting();
+    }
+
+    // The coordinator shed the request: fail fast and steer the next requests to its peers
+    private void handleOverloaded(Pending pending, Result msg) {
+        log.debug("Client[{}]: Request {} rejected by overloaded node {}", id, msg.reqId(), pending.nodeId);
+        unresponsiveUntil.put(pending.nodeId, System.currentTimeMillis() + Settings.overloadBackoffMs);
+        RejectedExecutionException rejected = new RejectedExecutionException(
+            "Request " + msg.reqId() + " rejected, node " + pending.nodeId + " is overloaded");
+        if (pending.casFuture != null) {
+            pending.casFuture.completeExceptionally(rejected);
+        } else if (pending.future != null) {
+            pending.future.completeExceptionally(rejected);
+        } else {
+            printResult(msg);
+        }
+    }
+
+    private void handleRequestTimeout(RequestTimeout msg) {
+        Pending pending = untrack(msg.reqId());
+        if (pending == null) {
+            handleScanTimeout(msg.reqId());
+            return;
+        }
+        log.warning("Client[{}]: Request {} for key {} timed out at node {}", id, msg.reqId(), pending.key, pending.nodeId);
+        if (nearCache != null) {
+            nearCache.remove(pending.key);
+        }
+        // The coordinator may be down or the ring stale: avoid it for a while and refetch the ring
+        unresponsiveUntil.put(pending.nodeId, System.currentTimeMillis() + UNRESPONSIVE_PENALTY_MS);
+        requestTopology();
+        if (pending.cached != null) {
+            // An unanswered version probe says nothing about the key: read it from a quorum instead
+            nearCache.recordMiss();
+            sendGet(pending.key, pending.future);
+        } else if (pending.casFuture != null) {
+            pending.casFuture.completeExceptionally(new TimeoutException("Request " + msg.reqId() + " got no reply"));
+        } else if (pending.future != null) {
+            pending.future.completeExceptionally(new TimeoutException("Request " + msg.reqId() + " got no reply"));
+        } else {
+            printResult(new Result(0, null, msg.reqId()));
+        }
+        drainWaiting();
+    }
+
+    private void printResult(Result msg) {
+        long sequence = msg.reqId() & 0xffffffffL;
         if (msg.value() != null) {
-            String output = String.format("Client[%d]: Received result for operation %d - Value: '%s' (version: %d, nodeId: %d)", 
-                id, msg.op_id(), msg.value().value(), msg.value().version(), msg.value().nodeId());
+            String output = String.format("Client[%d]: Received result for request %d - Value: '%s' (version: %d, nodeId: %d)",
+                id, sequence, msg.value().value(), msg.value().version(), msg.value().nodeId());
             log.info(output);
             System.out.println(output);
+        } else if (msg.status() == Result.Status.OVERLOADED) {
+            String output = String.format("Client[%d]: Received result for request %d - Rejected, coordinator overloaded",
+                id, sequence);
+            log.warning(output);
+            System.out.println(output);
         } else {
-            String output = String.format("Client[%d]: Received result for operation %d - Operation failed (timeout or error)", 
-                id, msg.op_id());
+            String output = String.format("Client[%d]: Received result for request %d - Operation failed (timeout or error)",
+                id, sequence);
             log.warning(output);
             System.out.println(output);
         }
     }
 
+    @Override
+    public void preStart() {
+        if (Settings.tokenAwareRouting) {
+            topologyRefresh = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.Zero(),
+                Duration.create(Settings.topologyRefreshMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new RefreshTopology(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
+        }
+    }
+
+    @Override
+    public void postStop() {
+        if (topologyRefresh != null) {
+            topologyRefresh.cancel();
+        }
+    }
+
     @Override
     public Receive createReceive() {
         return receiveBuilder()
                 .match(GetRequest.class, this::handleGetRequest)
                 .match(UpdateRequest.class, this::handleUpdateRequest)
+                .match(AsyncGet.class, this::handleAsync)
+                .match(AsyncUpdate.class, this::handleAsync)
+                .match(AsyncCas.class, this::handleAsync)
+                .match(AsyncScan.class, this::handleAsyncScan)
+                .match(AsyncCacheStats.class, this::handleAsyncCacheStats)
                 .match(Result.class, this::handleResult)
+                .match(VersionProbeResponse.class, this::handleVersionProbeResponse)
+                .match(ScanBatch.class, this::handleScanBatch)
+                .match(RequestTimeout.class, this::handleRequestTimeout)
+                .match(RefreshTopology.class, this::handleRefreshTopology)
+                .match(TopologyResponse.class, this::handleTopologyResponse)
+                .match(TopologyDelta.class, this::handleTopologyDelta)
                 .build();
     }
-}
\ No newline at end of file
+}
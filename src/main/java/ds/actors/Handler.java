@@ -1,6 +1,7 @@
 package ds.actors;
 import ds.config.Settings;
 import ds.model.Delayer;
+import ds.model.Value;
 import ds.model.Types.*;
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
@@ -10,64 +11,112 @@ import scala.concurrent.duration.Duration;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 // Handler actor
 public class Handler extends AbstractActor {
 
+    // expectedVersion of an unconditional update
+    public static final long ANY_VERSION = -1L;
+
+    // Round trip of one ReadDataRequest, reported to the coordinator's per-peer estimators
+    public record RttSample(ActorRef peer, long rttNanos) {}
+
+    private static final Comparator<DataItem> LATEST_FIRST =
+        Comparator.comparingLong(DataItem::version).thenComparingInt(DataItem::nodeId);
+
     // Handler fields
     private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
     private final int op_id;
     private final ActorRef coordinator;
     private final ArrayList<ActorRef> nodes;
+    private final ArrayList<ActorRef> handoffNodes;  // future owners during a join/leave, extra replicas of a hot key: written, not read here
+    private final Map<ActorRef, Integer> substitutes;  // sloppy quorum stand-in -> replica it writes for
     private final ArrayList<DataItem> quorum;
     private final int data_key;
-    private final String newValue;
+    private final Value newValue;
+    private final long ttlMs;             // 0 = no expiry
+    private final long expectedVersion;   // compare-and-set, ANY_VERSION for a plain update
     private final Delayer delayer;
     private final boolean coordinatorIsReplica;
     private final long coordinatorClock;  // Clock from coordinator
     private final int coordinatorNodeId;  // Node ID for tie-breaking
+    private final long timeoutMs;         // Settings.T, or derived from peer round trips
+    private final boolean reportRtt = Settings.adaptiveTimeouts;
+    private long sentNanos;
     private int responsesReceived = 0;
     private long maxClock = 0;  // Track max clock from responses
 
     // Constructor
     public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<DataItem> quorum, int key, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId) {
+        this(op_id, coordinator, nodes, quorum, key, coordinatorIsReplica, delayer, clock, nodeId, Settings.T);
+    }
+
+    public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<DataItem> quorum, int key, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId, long timeoutMs) {
         this.op_id = op_id;
         this.coordinator = coordinator;
         this.nodes = nodes;
+        this.handoffNodes = new ArrayList<>();
+        this.substitutes = Map.of();
         this.quorum = quorum;
         this.data_key = key;
         this.newValue = null;
+        this.ttlMs = 0;
+        this.expectedVersion = ANY_VERSION;
         this.delayer = delayer;
         this.coordinatorIsReplica = coordinatorIsReplica;
         this.coordinatorClock = clock;
         this.coordinatorNodeId = nodeId;
+        this.timeoutMs = timeoutMs;
         this.maxClock = clock;
+        this.responsesReceived = coordinatorIsReplica ? 1 : 0;
         scheduleTimeout();
         sendReadDataRequests(key);
+        checkQuorum();
+    }
+
+    public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<ActorRef> handoffNodes, ArrayList<DataItem> quorum, int key, Value value, long ttlMs, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId) {
+        this(op_id, coordinator, nodes, handoffNodes, quorum, key, value, ttlMs, ANY_VERSION, coordinatorIsReplica, delayer, clock, nodeId);
     }
 
-    public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<DataItem> quorum, int key, String value, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId) {
+    public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<ActorRef> handoffNodes, ArrayList<DataItem> quorum, int key, Value value, long ttlMs, long expectedVersion, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId) {
+        this(op_id, coordinator, nodes, handoffNodes, Map.of(), quorum, key, value, ttlMs, expectedVersion, coordinatorIsReplica, delayer, clock, nodeId);
+    }
+
+    public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<ActorRef> handoffNodes, Map<ActorRef, Integer> substitutes, ArrayList<DataItem> quorum, int key, Value value, long ttlMs, long expectedVersion, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId) {
+        this(op_id, coordinator, nodes, handoffNodes, substitutes, quorum, key, value, ttlMs, expectedVersion, coordinatorIsReplica, delayer, clock, nodeId, Settings.T);
+    }
+
+    public Handler(int op_id, ActorRef coordinator, ArrayList<ActorRef> nodes, ArrayList<ActorRef> handoffNodes, Map<ActorRef, Integer> substitutes, ArrayList<DataItem> quorum, int key, Value value, long ttlMs, long expectedVersion, boolean coordinatorIsReplica, Delayer delayer, long clock, int nodeId, long timeoutMs) {
         this.op_id = op_id;
         this.coordinator = coordinator;
         this.nodes = nodes;
+        this.handoffNodes = handoffNodes;
+        this.substitutes = substitutes;
         this.quorum = quorum;
         this.data_key = key;
         this.newValue = value;
+        this.ttlMs = ttlMs;
+        this.expectedVersion = expectedVersion;
         this.delayer = delayer;
         this.coordinatorIsReplica = coordinatorIsReplica;
         this.coordinatorClock = clock;
         this.coordinatorNodeId = nodeId;
+        this.timeoutMs = timeoutMs;
         this.maxClock = clock;
+        this.responsesReceived = coordinatorIsReplica ? 1 : 0;
         log.info("Handler[{}]: Created for UPDATE on key {} (replicas={}, clock={})", op_id, key, nodes.size(), clock);
         scheduleTimeout();
         sendReadDataRequests(key);
+        checkQuorum();
     }
 
     // Functions
     private void scheduleTimeout() {
         getContext().getSystem().scheduler().scheduleOnce(
-            Duration.create(Settings.T, TimeUnit.MILLISECONDS),
+            Duration.create(timeoutMs, TimeUnit.MILLISECONDS),
             getSelf(),
             new OperationTimeout(),
             getContext().getSystem().dispatcher(),
@@ -76,20 +125,35 @@ public class Handler extends AbstractActor {
     }
     
     private void sendReadDataRequests(int id) {
+        sentNanos = System.nanoTime();
         for (ActorRef node : nodes) {
             delayer.delayedMsg(getSelf(), new ReadDataRequest(id, coordinatorClock), node);
         }
     }
 
     private DataItem getLatestDataItem(){
-        // Use total ordering: compare version first, then nodeId as tie-breaker
-        return quorum.stream()
-            .max(Comparator.comparingLong(DataItem::version)
-                          .thenComparingInt(DataItem::nodeId))
-            .orElse(new DataItem(null, 0L, 0));
+        return latestOf(quorum);
+    }
+
+    // Quorum resolution: total ordering on version first, then nodeId as tie-breaker
+    public static DataItem latestOf(List<DataItem> items) {
+        DataItem latest = null;
+        for (DataItem item : items) {
+            if (latest == null || LATEST_FIRST.compare(item, latest) > 0) {
+                latest = item;
+            }
+        }
+        return latest != null ? latest : new DataItem((Value) null, 0L, 0);
+    }
+
+    public static boolean isNewer(DataItem candidate, DataItem current) {
+        return LATEST_FIRST.compare(candidate, current) > 0;
     }
 
     private void handleReadDataResponse(ReadDataResponse msg) {
+        if (reportRtt) {
+            coordinator.tell(new RttSample(getSender(), System.nanoTime() - sentNanos), getSelf());
+        }
         responsesReceived++;
         // Track maximum clock from responses for sequential consistency
         maxClock = Math.max(maxClock, msg.clock());
@@ -97,43 +161,71 @@ public class Handler extends AbstractActor {
         if (msg.value() != null) {
             quorum.add(msg.value());
         }
-        
-        int requiredQuorum = (newValue == null ? Settings.R : Settings.W);
+        checkQuorum();
+    }
+
+    // The version a reader would see: an expired item reads as never written
+    private static DataItem visible(DataItem item) {
+        return item.isExpired(System.currentTimeMillis()) ? new DataItem((Value) null, 0L, 0) : item;
+    }
+
+    // The coordinator's own copy (already in the quorum list) counts as one response when it is a replica.
+    // A compare-and-set also needs a read quorum, so its check sees the last acknowledged write.
+    private void checkQuorum() {
+        int requiredQuorum = newValue == null ? Settings.R
+            : expectedVersion == ANY_VERSION ? Settings.W : Math.max(Settings.R, Settings.W);
         if (responsesReceived >= requiredQuorum) {
             if (newValue == null) {
                 // GET operation - return value with highest (version, nodeId)
-                DataItem latestItem = getLatestDataItem();
-                String latestValue = latestItem.value();
+                DataItem latestItem = visible(getLatestDataItem());
+                Value latestValue = latestItem.value();
                 log.info("Handler[{}]: Read quorum achieved. Latest: {} (v={}, n={})", op_id, latestValue, latestItem.version(), latestItem.nodeId());
                 coordinator.tell(new Result(op_id, latestItem), getSelf());
             } else {
                 // UPDATE operation - use max clock + 1 for new version
                 log.info("Handler[{}]: Write quorum of responses achieved for update operation.", op_id);
                 DataItem latestItem = getLatestDataItem();
+                if (expectedVersion != ANY_VERSION && visible(latestItem).version() != expectedVersion) {
+                    log.info("Handler[{}]: Compare-and-set conflict, expected v={} but found v={}", op_id, expectedVersion, visible(latestItem).version());
+                    coordinator.tell(new Result(op_id, visible(latestItem), 0L, 0L, Result.Status.CONFLICT), getSelf());
+                    getContext().stop(getSelf());
+                    return;
+                }
                 // New version is max of (latest version, max clock from responses) + 1
                 long newVersion = Math.max(latestItem.version(), maxClock) + 1;
-                DataItem updatedItem = new DataItem(newValue, newVersion, coordinatorNodeId);
+                long expiresAt = ttlMs > 0 ? System.currentTimeMillis() + ttlMs : 0L;
+                DataItem updatedItem = new DataItem(newValue, newVersion, coordinatorNodeId, expiresAt);
                 
                 log.info("Handler[{}]: Writing (v={}, n={}) - total order", op_id, newVersion, coordinatorNodeId);
                 
-                // Send write requests to all replica nodes
+                // Send write requests to all replica nodes, and to the future owners during a handoff
                 for (ActorRef node : nodes) {
+                    delayer.delayedMsg(getSelf(), writeFor(node, updatedItem), node);
+                }
+                for (ActorRef node : handoffNodes) {
                     delayer.delayedMsg(getSelf(), new WriteDataRequest(data_key, updatedItem), node);
                 }
                 
-                // If coordinator is also a replica, update its data too
+                // If coordinator is also a replica, update its data too. It is local, so no
+                // simulated hop: the write is applied before the coordinator sees the Result
                 if (coordinatorIsReplica) {
-                    delayer.delayedMsg(getSelf(), new WriteDataRequest(data_key, updatedItem), coordinator);
+                    coordinator.tell(writeFor(coordinator, updatedItem), getSelf());
                 }
                 
-                coordinator.tell(new Result(op_id, new DataItem("UPDATE_SUCCESS", newVersion, coordinatorNodeId)), getSelf());
+                coordinator.tell(new Result(op_id, new DataItem(Value.of("UPDATE_SUCCESS"), newVersion, coordinatorNodeId, expiresAt)), getSelf());
             }
             getContext().stop(getSelf());
         }
     }
     
+    // A stand-in of a sloppy quorum keeps the write as a hint for the replica it replaces
+    private Message writeFor(ActorRef node, DataItem item) {
+        Integer ownerId = substitutes.get(node);
+        return ownerId == null ? new WriteDataRequest(data_key, item) : new HintedWrite(data_key, item, ownerId);
+    }
+
     private void handleTimeout(OperationTimeout msg) {
-        log.warning("Handler[{}]: Operation timeout occurred", op_id);
+        log.warning("Handler[{}]: Operation timeout occurred after {} ms", op_id, timeoutMs);
         coordinator.tell(new Result(op_id, null), getSelf());
         getContext().stop(getSelf());
     }
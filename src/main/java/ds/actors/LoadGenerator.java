@@ -0,0 +1,213 @@
+package ds.actors;
+
+import ds.config.Settings;
+import ds.model.Delayer;
+import ds.model.KeyGenerator;
+import ds.model.LatencyHistogram;
+import ds.model.Value;
+import ds.model.Types.ClientGetRequest;
+import ds.model.Types.ClientUpdateRequest;
+import ds.model.Workload;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Load generator actor: drives a Workload against the cluster and reports latency percentiles
+public class LoadGenerator extends AbstractActor {
+
+    // Message types as records
+    public record Start() {}
+    public record OpCompleted(boolean read, long latencyNanos, boolean success, boolean rejected) {}
+    public record Tick() {}
+    public record StopIssuing() {}
+
+    public record LoadReport(Workload workload, long operations, long reads, long writes, long timeouts,
+                             long rejected, long elapsedMs, double throughput, long p50Micros, long p99Micros,
+                             long p999Micros, long maxMicros) {
+
+        public double timeoutRate() {
+            return operations == 0 ? 0.0 : (double) timeouts / operations;
+        }
+
+        // Operations shed by admission control; they fail fast and are not timeouts
+        public double rejectionRate() {
+            return operations == 0 ? 0.0 : (double) rejected / operations;
+        }
+
+        public String format() {
+            return String.format(
+                "Load[%s]: %d ops (%d reads, %d writes) in %d ms%n" +
+                "  - Throughput: %.1f ops/s%n" +
+                "  - Latency:    p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms%n" +
+                "  - Timeouts:   %d (%.2f%%)%n" +
+                "  - Rejected:   %d (%.2f%%)",
+                workload.mode(), operations, reads, writes, elapsedMs, throughput,
+                p50Micros / 1000.0, p99Micros / 1000.0, p999Micros / 1000.0, maxMicros / 1000.0,
+                timeouts, timeoutRate() * 100, rejected, rejectionRate() * 100);
+        }
+    }
+
+    private static final long TICK_MS = 10;
+
+    // Generator fields
+    private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
+    private final Workload workload;
+    private final List<ActorRef> nodes;
+    private final Delayer delayer;
+    private final KeyGenerator keys;
+    private final Random rnd = new Random();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final long probeTimeoutMs;
+    private ActorRef requester = ActorRef.noSender();
+    private Cancellable ticker = null;
+    private boolean issuing = false;
+    private long startNanos = 0;
+    private long stopNanos = 0;
+    private long issued = 0;
+    private long outstanding = 0;
+    private long reads = 0;
+    private long writes = 0;
+    private long timeouts = 0;
+    private long rejected = 0;
+    private int valueCounter = 0;
+
+    // Constructor
+    public LoadGenerator(Workload workload, List<ActorRef> nodes, Delayer delayer) {
+        this.workload = workload;
+        this.nodes = new ArrayList<>(nodes);
+        this.delayer = delayer;
+        this.keys = new KeyGenerator(workload.distribution(), workload.keySpace());
+        // Coordinator gives up after T; leave room for both client legs on top of it
+        this.probeTimeoutMs = 2L * Settings.T;
+    }
+
+    // Functions
+    private void issueOperation() {
+        ActorRef node = nodes.get(rnd.nextInt(nodes.size()));
+        int key = keys.nextKey(rnd);
+        boolean read = rnd.nextDouble() < workload.readRatio();
+        Object request = read
+            ? new ClientGetRequest(key)
+            : new ClientUpdateRequest(key, Value.of("load" + (valueCounter++)));
+        getContext().actorOf(Props.create(LoadProbe.class, node, request, read, delayer, probeTimeoutMs));
+        issued++;
+        outstanding++;
+    }
+
+    private void handleStart(Start msg) {
+        if (nodes.isEmpty()) {
+            log.warning("LoadGenerator: No nodes available, aborting");
+            getSender().tell(report(), getSelf());
+            getContext().stop(getSelf());
+            return;
+        }
+        requester = getSender();
+        issuing = true;
+        startNanos = System.nanoTime();
+        log.info("LoadGenerator: Starting {} workload for {} ms", workload.mode(), workload.durationMs());
+
+        if (workload.mode() == Workload.Mode.OPEN_LOOP) {
+            ticker = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.Zero(),
+                Duration.create(TICK_MS, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new Tick(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
+        } else {
+            for (int i = 0; i < workload.concurrency(); i++) {
+                issueOperation();
+            }
+        }
+        getContext().getSystem().scheduler().scheduleOnce(
+            Duration.create(workload.durationMs(), TimeUnit.MILLISECONDS),
+            getSelf(),
+            new StopIssuing(),
+            getContext().getSystem().dispatcher(),
+            getSelf()
+        );
+    }
+
+    // Open loop: catch up with the schedule implied by the target rate
+    private void handleTick(Tick msg) {
+        if (!issuing) {
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        long due = workload.targetRate() * elapsedMs / 1000;
+        while (issued < due) {
+            issueOperation();
+        }
+    }
+
+    private void handleOpCompleted(OpCompleted msg) {
+        outstanding--;
+        if (msg.read()) {
+            reads++;
+        } else {
+            writes++;
+        }
+        if (msg.success()) {
+            latencies.record(msg.latencyNanos() / 1000);
+        } else if (msg.rejected()) {
+            rejected++;
+        } else {
+            timeouts++;
+        }
+
+        if (issuing && workload.mode() == Workload.Mode.CLOSED_LOOP) {
+            issueOperation();
+        } else if (!issuing && outstanding == 0) {
+            finish();
+        }
+    }
+
+    private void handleStopIssuing(StopIssuing msg) {
+        issuing = false;
+        stopNanos = System.nanoTime();
+        if (ticker != null) {
+            ticker.cancel();
+        }
+        log.info("LoadGenerator: Stopped issuing, waiting for {} outstanding operations", outstanding);
+        if (outstanding == 0) {
+            finish();
+        }
+    }
+
+    private LoadReport report() {
+        long elapsedMs = Math.max(1, (stopNanos - startNanos) / 1_000_000);
+        long completed = reads + writes;
+        double throughput = (completed - timeouts - rejected) * 1000.0 / elapsedMs;
+        return new LoadReport(workload, completed, reads, writes, timeouts, rejected, elapsedMs, throughput,
+            latencies.percentile(50), latencies.percentile(99), latencies.percentile(99.9), latencies.getMax());
+    }
+
+    private void finish() {
+        LoadReport report = report();
+        log.info(report.format());
+        System.out.println(report.format());
+        requester.tell(report, getSelf());
+        getContext().stop(getSelf());
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Start.class, this::handleStart)
+                .match(Tick.class, this::handleTick)
+                .match(OpCompleted.class, this::handleOpCompleted)
+                .match(StopIssuing.class, this::handleStopIssuing)
+                .build();
+    }
+}
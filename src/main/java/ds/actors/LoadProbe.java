@@ -0,0 +1,59 @@
+package ds.actors;
+
+import ds.model.Delayer;
+import ds.model.Types.OperationTimeout;
+import ds.model.Types.Result;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.TimeUnit;
+
+// Probe actor: carries a single load-generator operation, so the coordinator's
+// Result comes back to an actor that knows when the operation was sent
+public class LoadProbe extends AbstractActor {
+
+    // Probe fields
+    private final boolean read;
+    private final long startNanos;
+    private final Cancellable timeout;
+
+    // Constructor
+    public LoadProbe(ActorRef node, Object request, boolean read, Delayer delayer, long timeoutMs) {
+        this.read = read;
+        this.startNanos = System.nanoTime();
+        this.timeout = getContext().getSystem().scheduler().scheduleOnce(
+            Duration.create(timeoutMs, TimeUnit.MILLISECONDS),
+            getSelf(),
+            new OperationTimeout(),
+            getContext().getSystem().dispatcher(),
+            getSelf()
+        );
+        delayer.delayedMsg(getSelf(), request, node);
+    }
+
+    private void handleResult(Result msg) {
+        timeout.cancel();
+        complete(msg.value() != null, msg.status() == Result.Status.OVERLOADED);
+    }
+
+    private void handleTimeout(OperationTimeout msg) {
+        complete(false, false);
+    }
+
+    private void complete(boolean success, boolean rejected) {
+        long latency = System.nanoTime() - startNanos;
+        getContext().getParent().tell(new LoadGenerator.OpCompleted(read, latency, success, rejected), getSelf());
+        getContext().stop(getSelf());
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Result.class, this::handleResult)
+                .match(OperationTimeout.class, this::handleTimeout)
+                .build();
+    }
+}
@@ -1,10 +1,21 @@
 package ds.actors;
 
+import ds.model.ConcurrencyLimiter;
+import ds.model.DataStore;
 import ds.model.Delayer;
+import ds.model.ExpiryWheel;
+import ds.model.HotKeyTracker;
+import ds.model.Membership;
+import ds.model.PhiAccrualDetector;
 import ds.model.Request;
 import ds.model.Request.RequestType;
+import ds.model.Ring;
+import ds.model.RttEstimator;
+import ds.model.Topology;
 import ds.model.Types;
 import ds.model.Types.*;
+import ds.model.Value;
+import ds.config.ActorDispatchers;
 import ds.config.Settings;
 
 import akka.actor.AbstractActor;
@@ -15,69 +26,196 @@ import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import scala.concurrent.duration.Duration;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 // Node actor
 public class Node extends AbstractActor {
 
+    // A compare-and-set waiting for the previous one on its key
+    private record PendingCas(ClientCasRequest request, ActorRef requester) {}
+
+    // A range a joining node is pulling: the replica asked last and the ones asked before it
+    private static final class RangePull {
+        int source;
+        int attempt = 0;
+        long progressAt;  // last time the source sent part of the range
+        int pagesReceived;
+        int pageCount;    // known once the last page is in, -1 until then
+        final Set<Integer> tried = new HashSet<>();
+    }
+
     // Node fields
     private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
     private final int id;
     private final Delayer delayer;
-    private final Map<Integer, DataItem> data;
-    private final Map<Integer, ActorRef> peers;
+    private final DataStore data;  // ordered and multi-versioned, for range scans and snapshots
+    private Topology topology;                     // immutable, includes this node
+    private Map<Integer, ActorRef> peers = Map.of();  // topology without this node, immutable too
+    private final Map<Integer, ActorRef> joiningPeers;  // announced joins, not yet read from
+    private final Set<Integer> leavingPeers;            // announced leaves, still read from
     private final Map<Integer, Request> requestsLedger;
+    private final Map<Integer, ArrayDeque<PendingCas>> casQueues = new HashMap<>();  // head is in flight
     private final ActorRef managementActor;
+    private final ActorRef bootstrapper;
+    private final String handlerDispatcher;
+    private final String scanDispatcher;
+    private final Map<Long, DataStore.View> scans = new HashMap<>();  // scan id -> its snapshot
+    private long nextScanId = 1;
+    private long sweepScan = 0;        // running FindForeignKeys scan, 0 = none
+    private boolean sweepAgain = false;  // the ring changed again while it ran
+    private long leaveScan = 0;        // running HandOff scan of a leave, 0 = none
+    private final ExpiryWheel expiryWheel;
+    private Cancellable expiryTicker = null;
+    private final HotKeyTracker heat;  // null while Settings.hotKeyThreshold is 0
+    private final Map<Integer, Long> promotedUntil = new HashMap<>();  // hot keys with extra replicas
+    private Cancellable hotKeyTicker = null;
+    private final Map<Integer, Map<Integer, DataItem>> hints = new HashMap<>();  // owner id -> key -> item held for it
+    private final Map<ActorRef, RttEstimator> rtt = new HashMap<>();  // per peer, fed by Handler round trips
+    private long ackRequestedAt = 0;  // nanos, the AckRequests of a leave
+    private final PhiAccrualDetector detector;  // null while Settings.failureDetection is off
+    private Cancellable pingTicker = null;
+    private final Membership membership;  // null while Settings.gossipMembership is off
+    private Cancellable gossipTicker = null;
+    private boolean joined = false;  // ready() was reached at least once
+    private final ConcurrencyLimiter admission;  // null while Settings.admissionControl is off
+    private final Map<Integer, Long> admittedAt = new HashMap<>();  // op_id -> start, admitted operations
     private int responseReceived = 0;
     private Cancellable leaveTimeout = null;
     private long clock = 0;  // Logical clock for sequential consistency
+    private int nextOpId = 1;
+    private long epoch = 0;  // Topology epoch, bumped by whoever starts a membership change
+    private boolean leaving = false;
+    private final Map<Ring.Segment, RangePull> rangePulls = new HashMap<>();  // joining: ranges still to arrive
+    private final Set<Integer> joinKeys = new HashSet<>();  // joining: keys of the arrived ranges
+    // Leader lease on the range this node is primary for (Settings.leaseReads)
+    private long leaseSeq = 0;         // lease round, grants for older rounds are ignored
+    private long leaseRoundStart = 0;
+    private final Set<Integer> leaseGrants = new HashSet<>();  // replicas granting the current round
+    private final Map<Integer, Ping> leaseRequests = new HashMap<>();  // primary id -> its latest round ping
+    private long leaseExpiresAt = 0;
+    private long leaseNotBefore = 0;   // a lease of the previous primary may run until then
 
     // Constructors
     public Node(int id, ActorRef bootstrapper, Delayer delayer, ActorRef managementActor) {
+        this(id, bootstrapper, delayer, managementActor, false);
+    }
+
+    // Bulk bootstrap: the node waits for the precomputed ring in a SetPeers message
+    public static Node forBootstrap(int id, Delayer delayer, ActorRef managementActor) {
+        return new Node(id, null, delayer, managementActor, true);
+    }
+
+    private Node(int id, ActorRef bootstrapper, Delayer delayer, ActorRef managementActor, boolean bulkBootstrap) {
         this.id = id;
         this.delayer = delayer;
         this.managementActor = managementActor;
-        this.data = new HashMap<>();
-        this.peers = new HashMap<>();
+        this.bootstrapper = bootstrapper;
+        this.data = new DataStore();
+        this.topology = Topology.initial(Map.of(id, getSelf()));
+        this.joiningPeers = new HashMap<>();
+        this.leavingPeers = new HashSet<>();
         this.requestsLedger = new HashMap<>();
+        this.handlerDispatcher = ActorDispatchers.of(getContext().getSystem(), ActorDispatchers.Role.HANDLER);
+        this.scanDispatcher = ActorDispatchers.of(getContext().getSystem(), ActorDispatchers.Role.BLOCKING_IO);
+        this.expiryWheel = new ExpiryWheel(Settings.expiryWheelSlots, Settings.expiryTickMs, System.currentTimeMillis());
+        this.detector = Settings.failureDetection
+            ? new PhiAccrualDetector(Settings.phiThreshold, Settings.phiWindowSize, Settings.phiMinStdDevMs, Settings.heartbeatIntervalMs)
+            : null;
+        this.membership = Settings.gossipMembership ? new Membership(Settings.gossipRetransmitFactor) : null;
+        this.admission = Settings.admissionControl
+            ? new ConcurrencyLimiter(Settings.admissionInitialLimit, Settings.admissionMinLimit, Settings.admissionMaxLimit,
+                                     Settings.admissionTargetMs, Settings.admissionBackoff)
+            : null;
+        this.heat = Settings.hotKeyThreshold > 0 ? new HotKeyTracker(Settings.hotKeySketchWidth, Settings.hotKeyTopK) : null;
 
-        if (!getSelf().equals(bootstrapper) && bootstrapper != null) {
+        if (bulkBootstrap) {
+            log.info("Node[{}]: Starting in bootstrap state, waiting for the initial ring", id);
+        } else if (!getSelf().equals(bootstrapper) && bootstrapper != null) {
             // Node is joining an existing network
             log.info("Node[{}]: Starting in joining state, contacting bootstrapper", id);
             delayer.delayedMsg(getSelf(), new JoinRequest(id, getSelf()), bootstrapper);
         } else {
             // This is the first node
             log.info("Node[{}]: Starting node, transitioning to ready state", id);
-            getContext().become(ready());
+            if (membership != null) {
+                seedMembers();
+            }
+            becomeReady();
         }
     }
 
     // ======================= Helper Methods ====================
-    private List<Integer> findReplicaNodesIds(int key, List<Integer> NodeIds) {
-        List<Integer> replicas = new ArrayList<>();
-        List<Integer> sortedNodeIds = new ArrayList<>(NodeIds);
-        Collections.sort(sortedNodeIds);
-        int n = sortedNodeIds.size();
-        if (n == 0) {
-            return replicas;
-        }
-        int startIndex = 0;
-        for (int i = 0; i < n; i++) {
-            if (sortedNodeIds.get(i) >= key) {
-                startIndex = i;
-                break;
-            }
+    // Every path into ready() goes through here, so the management service can wait on the event
+    private void becomeReady() {
+        getContext().become(ready());
+        joined = true;
+        if (managementActor != null) {
+            managementActor.tell(new NodeReady(id), getSelf());
+        }
+        if (expiryTicker == null) {
+            expiryTicker = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.create(Settings.expiryTickMs, TimeUnit.MILLISECONDS),
+                Duration.create(Settings.expiryTickMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new ExpiryTick(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
         }
-        for (int i = 0; i < Math.min(Settings.N, n); i++) {
-            int index = (startIndex + i) % n;
-            replicas.add(sortedNodeIds.get(index));
+        if (heat != null && hotKeyTicker == null) {
+            hotKeyTicker = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.create(Settings.hotKeyWindowMs, TimeUnit.MILLISECONDS),
+                Duration.create(Settings.hotKeyWindowMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new HotKeyTick(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
         }
-        return replicas;
+        if ((detector != null || Settings.leaseReads) && pingTicker == null) {
+            pingTicker = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.Zero(),
+                Duration.create(Settings.heartbeatIntervalMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new PingTick(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
+        }
+        startGossip();
+    }
+
+    @Override
+    public void postStop() {
+        if (expiryTicker != null) {
+            expiryTicker.cancel();
+        }
+        if (hotKeyTicker != null) {
+            hotKeyTicker.cancel();
+        }
+        if (pingTicker != null) {
+            pingTicker.cancel();
+        }
+        if (gossipTicker != null) {
+            gossipTicker.cancel();
+        }
+    }
+
+    private List<Integer> findReplicaNodesIds(int key, List<Integer> NodeIds) {
+        return Ring.findReplicaNodesIds(key, NodeIds, Settings.N);
     }
 
     private ActorRef getClockwiseNeighbor() {
@@ -86,111 +224,867 @@ public class Node extends AbstractActor {
     }
 
     private List<ActorRef> getClockwiseNeighbors(Integer n) {
-        List<ActorRef> neighbors = new ArrayList<>();
-        List<Integer> allNodeIds = new ArrayList<>(peers.keySet());
-        allNodeIds.add(id);
-        Collections.sort(allNodeIds);
-        
-        int totalNodes = allNodeIds.size();
-        if (totalNodes <= 1) {
-            return neighbors;
-        }
-        
         // If n is null, use Settings.N
         int count = (n != null) ? n : Settings.N;
-        
-        // Limit count to available nodes (excluding self)
-        count = Math.min(count, totalNodes - 1);
-        
-        int currentIndex = allNodeIds.indexOf(id);
-        
-        for (int i = 1; i <= count; i++) {
-            int neighborIndex = (currentIndex + i) % totalNodes;
-            int neighborId = allNodeIds.get(neighborIndex);
+        List<ActorRef> neighbors = new ArrayList<>();
+        for (Integer neighborId : Ring.clockwiseNeighborIds(id, peers.keySet(), count)) {
             ActorRef neighborRef = peers.get(neighborId);
             if (neighborRef != null) {
                 neighbors.add(neighborRef);
             }
         }
-        
         return neighbors;
     }
 
     private boolean prepareReplicasAndQuorum(int key, ArrayList<ActorRef> nodeRefs, ArrayList<DataItem> quorum) {
+        return prepareReplicasAndQuorum(key, nodeRefs, quorum, new HashMap<>());
+    }
+
+    // substitutes receives the stand-ins of a sloppy quorum, each with the replica it replaces
+    private boolean prepareReplicasAndQuorum(int key, ArrayList<ActorRef> nodeRefs, ArrayList<DataItem> quorum,
+                                             Map<ActorRef, Integer> substitutes) {
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        if (Settings.sloppyQuorum && detector != null) {
+            return prepareQuorum(key, sloppyReplicaIds(key, nodeIds, substitutes), nodeRefs, quorum);
+        }
+        return prepareQuorum(key, findReplicaNodesIds(key, nodeIds), nodeRefs, quorum);
+    }
+
+    // A hot key is read from N nodes drawn from its replicas and extra replicas, this node
+    // first if it holds a copy, so its reads spread over N + hotKeyExtraReplicas nodes. Extra
+    // replicas may miss writes from coordinators not yet told the key is hot, so at most R - 1
+    // of them are read: any R replies then include one of the key's replicas.
+    private boolean prepareReadReplicasAndQuorum(int key, ArrayList<ActorRef> nodeRefs, ArrayList<DataItem> quorum) {
+        List<Integer> extraIds = extraReplicaIds(key);
+        if (extraIds.isEmpty()) {
+            return prepareReplicasAndQuorum(key, nodeRefs, quorum);
+        }
         List<Integer> nodeIds = new ArrayList<>(peers.keySet());
         nodeIds.add(id);
-        List<Integer> replicaIds = findReplicaNodesIds(key, nodeIds);
+        List<Integer> replicaIds = readOrder(findReplicaNodesIds(key, nodeIds));
+        List<Integer> extras = readOrder(extraIds);
+        List<Integer> pool = new ArrayList<>(extras.subList(0, Math.min(Settings.R - 1, extras.size())));
+        pool.addAll(replicaIds.subList(0, Math.min(Settings.N - pool.size(), replicaIds.size())));
+        Collections.shuffle(pool, ThreadLocalRandom.current());
+        if (pool.remove(Integer.valueOf(id))) {
+            pool.add(0, id);
+        }
+        return prepareQuorum(key, pool, nodeRefs, quorum);
+    }
+
+    // Live nodes in random order, this node first
+    private List<Integer> readOrder(List<Integer> nodeIds) {
+        List<Integer> order = new ArrayList<>(nodeIds);
+        order.removeIf(this::isSuspected);
+        Collections.shuffle(order, ThreadLocalRandom.current());
+        if (order.remove(Integer.valueOf(id))) {
+            order.add(0, id);
+        }
+        return order;
+    }
+
+    private boolean prepareQuorum(int key, List<Integer> replicaIds, ArrayList<ActorRef> nodeRefs, ArrayList<DataItem> quorum) {
         boolean coordinatorIsReplica = false;
         
         for (Integer nodeId : replicaIds) {
             if (nodeId == id) {
                 coordinatorIsReplica = true;
-                DataItem localData = data.get(key);
+                DataItem localData = localCopy(key);
                 if (localData != null) {
                     quorum.add(localData);
                 }
-            } else {
+            } else if (!isSuspected(nodeId)) {
                 nodeRefs.add(peers.get(nodeId));
             }
         }
         return coordinatorIsReplica;
     }
 
+    // ======================= Range handoff ====================
+    // While a node joins or leaves, a range is owned by both its current and its future
+    // replicas: reads use the current owners, writes go to the union. Operations keep
+    // running during the change instead of waiting for it to finish.
+
+    private void observeEpoch(long observed) {
+        if (observed > epoch) {
+            epoch = observed;
+            revokeLease();
+        }
+    }
+
+    // This node starts a membership change
+    private void bumpEpoch() {
+        epoch++;
+        revokeLease();
+    }
+
+    private void setTopology(Topology next) {
+        Map<Integer, ActorRef> others = new HashMap<>(next.nodes());
+        others.remove(id);
+        topology = next;
+        peers = Collections.unmodifiableMap(others);
+    }
+
+    // A ring received whole, completed with this node
+    private static Map<Integer, ActorRef> withNode(Map<Integer, ActorRef> nodes, int nodeId, ActorRef ref) {
+        Map<Integer, ActorRef> all = new HashMap<>(nodes);
+        all.put(nodeId, ref);
+        return all;
+    }
+
+    private ActorRef peerRef(int nodeId) {
+        ActorRef ref = peers.get(nodeId);
+        return ref != null ? ref : joiningPeers.get(nodeId);
+    }
+
+    private List<Integer> futureNodeIds() {
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.removeAll(leavingPeers);
+        nodeIds.addAll(joiningPeers.keySet());
+        if (!leaving) {
+            nodeIds.add(id);
+        }
+        return nodeIds;
+    }
+
+    // Nodes that receive writes for key besides its current owners: future owners that are not
+    // read yet, and the extra replicas while the key is hot
+    // Suspected replicas are written too, they are only not waited for.
+    private ArrayList<ActorRef> prepareHandoffTargets(int key) {
+        ArrayList<ActorRef> targets = new ArrayList<>();
+        for (Integer nodeId : extraReplicaIds(key)) {
+            if (nodeId != id && peers.containsKey(nodeId)) {
+                targets.add(peers.get(nodeId));
+            }
+        }
+        if (detector != null) {
+            List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+            nodeIds.add(id);
+            for (Integer nodeId : findReplicaNodesIds(key, nodeIds)) {
+                if (nodeId != id && isSuspected(nodeId) && !targets.contains(peers.get(nodeId))) {
+                    targets.add(peers.get(nodeId));
+                }
+            }
+        }
+        if (joiningPeers.isEmpty() && leavingPeers.isEmpty() && !leaving) {
+            return targets;
+        }
+        List<Integer> currentIds = new ArrayList<>(peers.keySet());
+        currentIds.add(id);
+        List<Integer> currentReplicas = findReplicaNodesIds(key, currentIds);
+        for (Integer nodeId : findReplicaNodesIds(key, futureNodeIds())) {
+            if (nodeId != id && !currentReplicas.contains(nodeId)) {
+                ActorRef ref = peerRef(nodeId);
+                if (ref != null && !targets.contains(ref)) {
+                    targets.add(ref);
+                }
+            }
+        }
+        return targets;
+    }
+
+    // Everyone that must hear about a membership change
+    private List<ActorRef> allKnownPeers() {
+        List<ActorRef> refs = new ArrayList<>(peers.values());
+        refs.addAll(joiningPeers.values());
+        return refs;
+    }
+
+    // Replicas keep the newest (version, nodeId), whatever order writes and handoffs arrive in
+    private void storeIfNewer(int key, DataItem item) {
+        DataItem existing = data.get(key);
+        if (existing == null || Handler.isNewer(item, existing)) {
+            putItem(key, item);
+        }
+    }
+
+    private void putItem(int key, DataItem item) {
+        data.put(key, item);
+        if (item.expiresAt() != 0) {
+            expiryWheel.schedule(key, item.expiresAt());
+        }
+    }
+
+    // ======================= Snapshot scans ====================
+    // Passes over the whole store run on a snapshot in a SnapshotScanner, off this actor's
+    // thread; reads and writes are served meanwhile and results come back a batch at a time.
+
+    private long startScan(SnapshotScanner.Job job) {
+        long scanId = nextScanId++;
+        DataStore.View snapshot = data.snapshot();
+        scans.put(scanId, snapshot);
+        getContext().actorOf(Props.create(SnapshotScanner.class, scanId, snapshot, job, getSelf(), delayer).withDispatcher(scanDispatcher));
+        return scanId;
+    }
+
+    // After a ring change: one sweep at a time, the last change is covered by a final one
+    private void sweepForeignKeys() {
+        if (sweepScan != 0) {
+            sweepAgain = true;
+            return;
+        }
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        sweepScan = startScan(new SnapshotScanner.FindForeignKeys(id, nodeIds));
+    }
+
+    // The ring may have moved on since the snapshot: each key is checked again
+    private void handleForeignKeys(SnapshotScanner.ForeignKeys msg) {
+        for (int key : msg.keys()) {
+            if (data.get(key) != null && !isReplicaOf(key) && !extraReplicaIds(key).contains(id)) {
+                data.remove(key);
+                log.info("Node[{}]: Dropping key {} (no longer responsible)", id, key);
+            }
+        }
+    }
+
+    private void handleScanDone(SnapshotScanner.Done msg) {
+        DataStore.View snapshot = scans.remove(msg.scanId());
+        if (snapshot != null) {
+            data.release(snapshot);
+        }
+        if (msg.scanId() == sweepScan) {
+            sweepScan = 0;
+            if (sweepAgain) {
+                sweepAgain = false;
+                sweepForeignKeys();
+            }
+        } else if (msg.scanId() == leaveScan) {
+            leaveScan = 0;
+            finishLeave();
+        }
+    }
+
+    // ======================= Failure detection ====================
+    // Peers suspected by the phi-accrual detector are left out of quorum fan-out, so an
+    // operation either completes with the live replicas or fails at once when they are
+    // too few, instead of waiting out Settings.T for a dead node.
+
+    private boolean isSuspected(int nodeId) {
+        return detector != null && detector.isSuspected(nodeId, nowMs());
+    }
+
+    private void handlePingTick(PingTick msg) {
+        if (Settings.leaseReads && !leaving && (leaseSeq == 0 || nowMs() - leaseRoundStart >= Settings.leaseRenewMs)) {
+            startLeaseRound();
+        }
+        List<Integer> neighborIds = Ring.ringNeighborIds(id, peers.keySet(), Settings.N - 1);
+        for (Integer nodeId : neighborIds) {
+            delayer.delayedMsg(getSelf(), ping(nodeId, false), peers.get(nodeId));
+        }
+        // An owner of hints may sit further away: ask it to ping back, so its return is noticed
+        for (Integer ownerId : hints.keySet()) {
+            if (!neighborIds.contains(ownerId) && peers.containsKey(ownerId)) {
+                delayer.delayedMsg(getSelf(), ping(ownerId, true), peers.get(ownerId));
+            }
+        }
+    }
+
+    private void handlePing(Ping msg) {
+        if (msg.reply()) {
+            delayer.delayedMsg(getSelf(), ping(msg.nodeId(), false), getSender());
+        }
+        if (msg.leaseSeq() > 0 || msg.grantSeq() > 0) {
+            handleLeasePing(msg);
+        }
+        if (membership != null && !msg.rumors().isEmpty()) {
+            learn(msg.rumors(), epoch);
+        }
+        if (detector != null) {
+            detector.heartbeat(msg.nodeId(), nowMs());
+            handBackHints(msg.nodeId());
+        }
+    }
+
+    // Fewer responders than the quorum needs: answer FAILED now rather than after T
+    private boolean quorumReachable(ArrayList<ActorRef> nodeRefs, boolean coordinatorIsReplica, int required,
+                                    long reqId, ActorRef requester) {
+        if (detector == null || nodeRefs.size() + (coordinatorIsReplica ? 1 : 0) >= required) {
+            return true;
+        }
+        log.info("Node[{}]: Request {} cannot reach a quorum of {}, too many suspected replicas", id, reqId, required);
+        if (admission != null) {
+            admission.cancel();
+        }
+        delayer.delayedMsg(getSelf(), new Result(0, null, reqId, epoch, Result.Status.FAILED), requester);
+        return false;
+    }
+
+    // ======================= Membership gossip ====================
+    // Joins and leaves spread epidemically instead of being broadcast by the node that changes:
+    // each node pushes its version digest plus recent changes to one random peer per round,
+    // and piggybacks changes on pings. A change reaches every node in O(log n) rounds with a
+    // constant number of messages per node and round, whatever the size of the ring.
+
+    private void startGossip() {
+        if (membership != null && gossipTicker == null) {
+            gossipTicker = getContext().getSystem().scheduler().scheduleWithFixedDelay(
+                Duration.create(Settings.gossipIntervalMs, TimeUnit.MILLISECONDS),
+                Duration.create(Settings.gossipIntervalMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new GossipTick(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
+        }
+    }
+
+    // The ring as received in bulk is known to everyone involved, so it is not gossiped
+    private void seedMembers() {
+        membership.seed(new Member(id, getSelf(), MemberStatus.UP, 0));
+        for (Map.Entry<Integer, ActorRef> peer : peers.entrySet()) {
+            membership.seed(new Member(peer.getKey(), peer.getValue(), MemberStatus.UP, 0));
+        }
+        for (Map.Entry<Integer, ActorRef> peer : joiningPeers.entrySet()) {
+            membership.seed(new Member(peer.getKey(), peer.getValue(), MemberStatus.JOINING, 0));
+        }
+    }
+
+    // Versions follow the wall clock, so a node that left and joins again outranks its old states
+    private void announce(MemberStatus status) {
+        Member own = membership.get(id);
+        long version = Math.max(own == null ? 0 : own.version() + 1, System.currentTimeMillis());
+        membership.apply(new Member(id, getSelf(), status, version));
+        log.info("Node[{}]: Announcing {} (version {})", id, status, version);
+        gossip();  // start spreading now rather than at the next tick
+    }
+
+    private List<Member> rumors() {
+        return membership == null ? List.of() : membership.nextRumors(Settings.gossipMaxRumors);
+    }
+
+    private void gossip() {
+        List<ActorRef> targets = allKnownPeers();
+        if (targets.isEmpty()) {
+            return;
+        }
+        ActorRef target = targets.get(ThreadLocalRandom.current().nextInt(targets.size()));
+        delayer.delayedMsg(getSelf(), new GossipDigest(id, epoch, membership.versions(), rumors()), target);
+    }
+
+    private void handleGossipTick(GossipTick msg) {
+        gossip();
+    }
+
+    // Take the sender's news, then send back whatever it has not heard of yet
+    private void handleGossipDigest(GossipDigest msg) {
+        learn(msg.rumors(), msg.epoch());
+        List<Member> missing = membership.newerThan(msg.versions());
+        if (!missing.isEmpty()) {
+            delayer.delayedMsg(getSelf(), new GossipDelta(epoch, missing), getSender());
+        }
+    }
+
+    private void handleGossipDelta(GossipDelta msg) {
+        learn(msg.members(), msg.epoch());
+    }
+
+    // A member whose status changed goes through the same handler as the matching broadcast
+    private void learn(List<Member> states, long observedEpoch) {
+        observeEpoch(observedEpoch);
+        for (Member state : states) {
+            Member known = membership.get(state.nodeId());
+            if (state.nodeId() == id || !membership.apply(state) || known != null && known.status() == state.status()) {
+                continue;
+            }
+            revokeLease();
+            if (state.status() == MemberStatus.JOINING) {
+                handleJoinStarted(new JoinStarted(state.nodeId(), state.ref(), epoch));
+            } else if (state.status() == MemberStatus.UP && known != null && known.status() == MemberStatus.LEAVING) {
+                handleLeaveAborted(new LeaveAborted(state.nodeId(), epoch));
+            } else if (state.status() == MemberStatus.UP && joined) {
+                handleAddPeer(new AddPeer(state.nodeId(), state.ref(), epoch));
+            } else if (state.status() == MemberStatus.UP) {
+                handleAddPeerWhileJoining(new AddPeer(state.nodeId(), state.ref(), epoch));
+            } else if (state.status() == MemberStatus.LEAVING) {
+                handleLeaveStarted(new LeaveStarted(state.nodeId(), epoch));
+            } else {
+                handleLeaveNotify(new LeaveNotify(state.nodeId(), epoch));
+            }
+        }
+    }
+
+    // ======================= Adaptive timeouts ====================
+    // Each peer's round trips give its timeout, srtt + 4 * rttvar. A quorum round waits for
+    // needed replies, so it is given up at the needed-th shortest timeout of its replicas:
+    // a dead replica fails the operation after a few round trips rather than after T.
+
+    private long operationTimeoutMs(List<ActorRef> nodeRefs, int needed) {
+        if (!Settings.adaptiveTimeouts || needed <= 0 || needed > nodeRefs.size()) {
+            return Settings.T;
+        }
+        long[] timeouts = new long[nodeRefs.size()];
+        for (int i = 0; i < timeouts.length; i++) {
+            timeouts[i] = peerTimeoutMs(nodeRefs.get(i), Settings.T);
+        }
+        Arrays.sort(timeouts);
+        return timeouts[needed - 1];
+    }
+
+    private long peerTimeoutMs(ActorRef peer, long ceilingMs) {
+        RttEstimator estimator = rtt.get(peer);
+        return estimator == null ? ceilingMs : estimator.timeoutMs(Settings.adaptiveTimeoutFloorMs, ceilingMs);
+    }
+
+    private void handleRttSample(Handler.RttSample msg) {
+        rtt.computeIfAbsent(msg.peer(), peer -> new RttEstimator()).sample(msg.rttNanos() / 1_000_000.0);
+    }
+
+    // ======================= Sloppy quorum ====================
+    // The first N healthy nodes clockwise from key take part in its quorums. A node past the
+    // N replicas stands in for a suspected one: it stores the writes as hints, answers reads
+    // with them, and hands them back once the replica's pings resume.
+
+    private List<Integer> sloppyReplicaIds(int key, List<Integer> nodeIds, Map<ActorRef, Integer> substitutes) {
+        List<Integer> preference = Ring.findReplicaNodesIds(key, nodeIds, nodeIds.size());
+        List<Integer> chosen = new ArrayList<>();
+        ArrayDeque<Integer> replaced = new ArrayDeque<>();
+        for (int i = 0; i < preference.size() && chosen.size() < Settings.N; i++) {
+            int nodeId = preference.get(i);
+            if (isSuspected(nodeId)) {
+                if (i < Settings.N) {
+                    replaced.add(nodeId);
+                }
+                continue;
+            }
+            chosen.add(nodeId);
+            if (i >= Settings.N && !replaced.isEmpty()) {
+                substitutes.put(nodeId == id ? getSelf() : peers.get(nodeId), replaced.poll());
+            }
+        }
+        return chosen;
+    }
+
+    // Newest of the own copy and any hint held for key
+    private DataItem localCopy(int key) {
+        DataItem item = data.get(key);
+        for (Map<Integer, DataItem> held : hints.values()) {
+            DataItem hint = held.get(key);
+            if (hint != null && (item == null || Handler.isNewer(hint, item))) {
+                item = hint;
+            }
+        }
+        return item;
+    }
+
+    private void handleHintedWrite(HintedWrite msg) {
+        clock = Math.max(clock, msg.dataItem().version()) + 1;
+        log.info("Node[{}]: Holding key {} (v={}) for Node[{}]", id, msg.key(), msg.dataItem().version(), msg.ownerId());
+        Map<Integer, DataItem> held = hints.computeIfAbsent(msg.ownerId(), owner -> new HashMap<>());
+        DataItem existing = held.get(msg.key());
+        if (existing == null || Handler.isNewer(msg.dataItem(), existing)) {
+            held.put(msg.key(), msg.dataItem());
+        }
+    }
+
+    // Delivery is fire-and-forget like any replica write; the other replicas keep their copies
+    private void handBackHints(int ownerId) {
+        Map<Integer, DataItem> held = hints.remove(ownerId);
+        ActorRef owner = peers.get(ownerId);
+        if (held == null || owner == null) {
+            return;
+        }
+        log.info("Node[{}]: Handing {} hinted writes back to Node[{}]", id, held.size(), ownerId);
+        for (Map.Entry<Integer, DataItem> entry : held.entrySet()) {
+            delayer.delayedMsg(getSelf(), new WriteDataRequest(entry.getKey(), entry.getValue()), owner);
+        }
+    }
+
+    // ======================= Admission control ====================
+    // Beyond the concurrency limit a request is answered OVERLOADED at once instead of
+    // spawning a Handler, so an overloaded coordinator sheds load rather than queueing it
+    private boolean admit(long reqId) {
+        if (admission == null || admission.tryAcquire()) {
+            return true;
+        }
+        log.debug("Node[{}]: Shedding request {} at limit {}", id, reqId, admission.limit());
+        delayer.delayedMsg(getSelf(), new Result(0, null, reqId, epoch, Result.Status.OVERLOADED), getSender());
+        return false;
+    }
+
+    private void trackAdmitted(int op_id, long startNanos) {
+        if (admission != null) {
+            admittedAt.put(op_id, startNanos);
+        }
+    }
+
+    private void releaseAdmitted(Result msg) {
+        Long startNanos = admittedAt.remove(msg.op_id());
+        if (startNanos != null) {
+            admission.release(System.nanoTime() - startNanos, msg.status() == Result.Status.FAILED);
+        }
+    }
+
+    // Operations admitted before a crash will not report back here
+    private void dropAdmitted() {
+        if (admission == null) {
+            return;
+        }
+        int lost = admittedAt.size();
+        for (ArrayDeque<PendingCas> queue : casQueues.values()) {
+            lost += queue.size() - 1;  // the head already counts in admittedAt
+        }
+        for (int i = 0; i < lost; i++) {
+            admission.cancel();
+        }
+        admittedAt.clear();
+    }
+
+    // ======================= Hot keys ====================
+    private List<Integer> extraReplicaIds(int key) {
+        if (!promotedUntil.containsKey(key)) {
+            return List.of();
+        }
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        return Ring.extraReplicaIds(key, nodeIds, Settings.N, Settings.hotKeyExtraReplicas);
+    }
+
+    private boolean isReplicaOf(int key) {
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        return findReplicaNodesIds(key, nodeIds).contains(id);
+    }
+
+    // Once per window: drop promotions nobody renewed, renew or promote the keys this replica
+    // sees as hot, then halve the counts so heat fades when the traffic stops
+    private void handleHotKeyTick(HotKeyTick msg) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Integer, Long>> promoted = promotedUntil.entrySet().iterator();
+        while (promoted.hasNext()) {
+            Map.Entry<Integer, Long> entry = promoted.next();
+            if (entry.getValue() <= now) {
+                promoted.remove();
+                if (!isReplicaOf(entry.getKey())) {
+                    data.remove(entry.getKey());
+                }
+                log.info("Node[{}]: Key {} cooled down, extra replicas dropped", id, entry.getKey());
+            }
+        }
+        for (int key : heat.hotKeys(Settings.hotKeyThreshold)) {
+            if (!isReplicaOf(key)) {
+                continue;  // only a replica holds the item to seed the extra replicas with
+            }
+            PromoteHotKey promote = new PromoteHotKey(key, data.get(key), now + 3L * Settings.hotKeyWindowMs);
+            for (ActorRef peer : peers.values()) {
+                delayer.delayedMsg(getSelf(), promote, peer);
+            }
+            handlePromoteHotKey(promote);
+        }
+        heat.decay();
+    }
+
+    private void handlePromoteHotKey(PromoteHotKey msg) {
+        Long previous = promotedUntil.put(msg.key(), Math.max(msg.untilMs(), promotedUntil.getOrDefault(msg.key(), 0L)));
+        if (previous == null) {
+            log.info("Node[{}]: Key {} is hot, extra replicas {}", id, msg.key(), extraReplicaIds(msg.key()));
+        }
+        if (msg.item() != null && extraReplicaIds(msg.key()).contains(id)) {
+            storeIfNewer(msg.key(), msg.item());
+        }
+    }
+
+    // ======================= TTL expiry ====================
+    // Reads already hide expired items; the sweep only reclaims memory, a bounded batch per
+    // tick so the node never stalls behind a mass expiry
+    private void handleExpiryTick(ExpiryTick msg) {
+        long now = System.currentTimeMillis();
+        int reclaimed = 0;
+        for (int key : expiryWheel.expired(now, Settings.expirySweepBatch)) {
+            DataItem item = data.get(key);
+            if (item != null && item.isExpired(now)) {
+                data.remove(key);
+                reclaimed++;
+            }
+        }
+        if (reclaimed > 0) {
+            log.debug("Node[{}]: Reclaimed {} expired items ({} still scheduled)", id, reclaimed, expiryWheel.size());
+        }
+    }
+
     private int generateOperationId() {
-        return requestsLedger.size() + 1;
+        return nextOpId++;
+    }
+
+    // ======================= Leader leases ====================
+    // In lease mode the primary of a range (first replica of its keys) coordinates every
+    // write to it and holds a lease granted by a write quorum of the range's replicas,
+    // renewed over the failure-detection pings. While the lease runs, no write can complete without
+    // the primary having applied it, so reads are answered from the local copy in one hop.
+    // Any membership change revokes the lease, and a new one only becomes usable once a
+    // lease granted to the previous primary must have expired. Safety assumes clock drift
+    // between nodes stays below Settings.leaseDriftMs over a lease period.
+
+    private static long nowMs() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private void revokeLease() {
+        leaseExpiresAt = 0;
+        leaseNotBefore = nowMs() + Settings.leaseDurationMs;
+    }
+
+    private boolean hasLease() {
+        long now = nowMs();
+        return now >= leaseNotBefore && now < leaseExpiresAt;
+    }
+
+    private int primaryOf(int key) {
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        return Ring.findReplicaNodesIds(key, nodeIds, 1).get(0);
+    }
+
+    // Every replica of this node's range is asked to (re)grant the lease on the next pings
+    private void startLeaseRound() {
+        leaseSeq++;
+        leaseRoundStart = nowMs();
+        leaseGrants.clear();
+        checkLeaseGrants();
+    }
+
+    // The ping to a ring neighbor carries this node's lease round if the neighbor replicates
+    // its range, and the round this node grants if the neighbor is the primary of one it replicates
+    private Ping ping(int nodeId, boolean reply) {
+        long round = 0;
+        if (Settings.leaseReads && !leaving
+                && Ring.clockwiseNeighborIds(id, peers.keySet(), Settings.N - 1).contains(nodeId)) {
+            round = leaseSeq;
+        }
+        Ping request = leaseRequests.get(nodeId);
+        long grant = request != null && request.epoch() == epoch ? request.leaseSeq() : 0;
+        return new Ping(id, reply, rumors(), epoch, round, grant);
+    }
+
+    // Grant only to the primary of a range this node replicates, under the same topology
+    private void handleLeasePing(Ping msg) {
+        observeEpoch(msg.epoch());
+        if (msg.epoch() != epoch) {
+            return;
+        }
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        if (msg.leaseSeq() > 0 && joined
+                && Ring.clockwiseNeighborIds(msg.nodeId(), nodeIds, Settings.N - 1).contains(id)) {
+            leaseRequests.put(msg.nodeId(), msg);
+        }
+        if (msg.grantSeq() > 0 && msg.grantSeq() == leaseSeq) {
+            leaseGrants.add(msg.nodeId());
+            checkLeaseGrants();
+        }
+    }
+
+    // Replicas granted after the round started, so the lease is counted from the round start
+    private void checkLeaseGrants() {
+        if (leaseGrants.size() + 1 >= Settings.W) {  // own vote included
+            leaseExpiresAt = Math.max(leaseExpiresAt, leaseRoundStart + Settings.leaseDurationMs - Settings.leaseDriftMs);
+        }
     }
 
     // ======================= GET/UPDATE operation handlers ====================
     private void handleClientGetRequest(ClientGetRequest msg) {
+        if (Settings.leaseReads && primaryOf(msg.key()) == id && hasLease()) {
+            // Lease read: one local lookup, no quorum round trip
+            DataItem item = data.get(msg.key());
+            if (item == null || item.isExpired(System.currentTimeMillis())) {
+                item = new DataItem((Value) null, 0L, 0);
+            }
+            Result result = new Result(0, item, msg.reqId(), epoch);
+            delayer.delayedMsg(getSelf(), result, getSender());
+            return;
+        }
+        if (!admit(msg.reqId())) {
+            return;
+        }
         clock++;  // Increment clock for new operation
         log.debug("Node[{}]: Received client GET request for key {} (clock={})", id, msg.key(), clock);
+        if (heat != null) {
+            heat.record(msg.key());
+        }
+        if (msg.epoch() != 0 && msg.epoch() < epoch) {
+            log.debug("Node[{}]: Client ring is stale (epoch {} < {}), serving anyway", id, msg.epoch(), epoch);
+        }
         
         ArrayList<ActorRef> nodeRefs = new ArrayList<>();
         ArrayList<DataItem> quorum = new ArrayList<>();
-        boolean coordinatorIsReplica = prepareReplicasAndQuorum(msg.key(), nodeRefs, quorum);
+        boolean coordinatorIsReplica = prepareReadReplicasAndQuorum(msg.key(), nodeRefs, quorum);
+        if (!quorumReachable(nodeRefs, coordinatorIsReplica, Settings.R, msg.reqId(), getSender())) {
+            return;
+        }
         
         int op_id = generateOperationId();
-        requestsLedger.put(op_id, new Request(getSender(), RequestType.GET, msg.key()));
-        getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, quorum, msg.key(), coordinatorIsReplica, delayer, clock, id));
+        trackAdmitted(op_id, System.nanoTime());
+        requestsLedger.put(op_id, new Request(getSender(), RequestType.GET, msg.key(), msg.reqId()));
+        getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, quorum, msg.key(), coordinatorIsReplica, delayer, clock, id,
+            operationTimeoutMs(nodeRefs, Settings.R - (coordinatorIsReplica ? 1 : 0))).withDispatcher(handlerDispatcher));
     }
     
     private void handleClientUpdateRequest(ClientUpdateRequest msg) {
+        if (Settings.leaseReads) {
+            int primary = primaryOf(msg.key());
+            if (primary != id) {
+                // Writes go through the leaseholder, which must see them before serving reads
+                delayer.delayedMsg(getSender(), msg, peers.get(primary));
+                return;
+            }
+        }
+        if (!admit(msg.reqId())) {
+            return;
+        }
         clock++;  // Increment clock for new operation
         log.info("Node[{}]: Received client UPDATE request for key {} with value {} (clock={})", id, msg.key(), msg.value(), clock);
+        if (heat != null) {
+            heat.record(msg.key());
+        }
         
         ArrayList<ActorRef> nodeRefs = new ArrayList<>();
         ArrayList<DataItem> quorum = new ArrayList<>();
-        boolean coordinatorIsReplica = prepareReplicasAndQuorum(msg.key(), nodeRefs, quorum);
+        Map<ActorRef, Integer> substitutes = new HashMap<>();
+        boolean coordinatorIsReplica = prepareReplicasAndQuorum(msg.key(), nodeRefs, quorum, substitutes);
+        if (!quorumReachable(nodeRefs, coordinatorIsReplica, Settings.W, msg.reqId(), getSender())) {
+            return;
+        }
+        ArrayList<ActorRef> handoffRefs = prepareHandoffTargets(msg.key());
         
         int op_id = generateOperationId();
-        requestsLedger.put(op_id, new Request(getSender(), RequestType.UPDATE, msg.key()));
-        getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, quorum, msg.key(), msg.value(), coordinatorIsReplica, delayer, clock, id));
+        trackAdmitted(op_id, System.nanoTime());
+        requestsLedger.put(op_id, new Request(getSender(), RequestType.UPDATE, msg.key(), msg.reqId()));
+        getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, handoffRefs, substitutes, quorum, msg.key(), msg.value(), msg.ttlMs(), Handler.ANY_VERSION, coordinatorIsReplica, delayer, clock, id,
+            operationTimeoutMs(nodeRefs, Settings.W - (coordinatorIsReplica ? 1 : 0))).withDispatcher(handlerDispatcher));
+    }
+
+    // ======================= Range scans ====================
+    private void handleClientScanRequest(ClientScanRequest msg) {
+        log.info("Node[{}]: Received client SCAN request for keys [{}, {}]", id, msg.startKey(), msg.endKey());
+        List<Integer> nodeIds = new ArrayList<>(peers.keySet());
+        nodeIds.add(id);
+        List<Ring.Segment> segments = Ring.segments(msg.startKey(), msg.endKey(), nodeIds);
+        List<List<ActorRef>> replicas = new ArrayList<>();
+        for (Ring.Segment segment : segments) {
+            List<ActorRef> refs = new ArrayList<>();
+            for (Integer nodeId : findReplicaNodesIds(segment.toKey(), nodeIds)) {
+                refs.add(nodeId == id ? getSelf() : peers.get(nodeId));
+            }
+            replicas.add(refs);
+        }
+        getContext().actorOf(Props.create(ScanHandler.class, msg.reqId(), getSelf(), getSender(), segments, replicas, msg.limit(), delayer).withDispatcher(handlerDispatcher));
+    }
+
+    // One page of the local copy, in key order; more is set if the page was cut at pageSize
+    private void handleScanPageRequest(ScanPageRequest msg) {
+        SortedMap<Integer, DataItem> items = new TreeMap<>();
+        boolean more = false;
+        for (Map.Entry<Integer, DataItem> entry : data.latest().range(msg.fromKey(), msg.toKey())) {
+            if (items.size() == msg.pageSize()) {
+                more = true;
+                break;
+            }
+            items.put(entry.getKey(), entry.getValue());
+        }
+        delayer.delayedMsg(getSelf(), new ScanPageResponse(msg.segment(), msg.fromKey(), items, more), getSender());
+    }
+
+    // ======================= Near cache validation ====================
+    // One local lookup: the body travels only if the client's cached version is out of date
+    private void handleVersionProbe(VersionProbe msg) {
+        DataItem item = data.get(msg.key());
+        if (item == null || item.isExpired(System.currentTimeMillis())) {
+            item = new DataItem((Value) null, 0L, 0);
+        }
+        boolean unchanged = item.version() == msg.version() && item.nodeId() == msg.nodeId();
+        delayer.delayedMsg(getSelf(), new VersionProbeResponse(msg.key(), unchanged ? null : item, msg.reqId()), getSender());
+    }
+
+    // ======================= Compare-and-set ====================
+    // The key's primary runs its compare-and-sets one at a time, so two of them cannot both
+    // pass the version check before either is written. Plain updates are not ordered with them.
+    private void handleClientCasRequest(ClientCasRequest msg) {
+        int primary = primaryOf(msg.key());
+        if (primary != id) {
+            delayer.delayedMsg(getSender(), msg, peers.get(primary));
+            return;
+        }
+        if (!admit(msg.reqId())) {
+            return;
+        }
+        ArrayDeque<PendingCas> queue = casQueues.computeIfAbsent(msg.key(), key -> new ArrayDeque<>());
+        queue.add(new PendingCas(msg, getSender()));
+        if (queue.size() == 1) {
+            startCas(queue.peek());
+        }
+    }
+
+    private void startCas(PendingCas cas) {
+        ClientCasRequest msg = cas.request();
+        clock++;  // Increment clock for new operation
+        log.info("Node[{}]: Starting compare-and-set on key {} (expected v={}, clock={})", id, msg.key(), msg.expectedVersion(), clock);
+
+        ArrayList<ActorRef> nodeRefs = new ArrayList<>();
+        ArrayList<DataItem> quorum = new ArrayList<>();
+        Map<ActorRef, Integer> substitutes = new HashMap<>();
+        boolean coordinatorIsReplica = prepareReplicasAndQuorum(msg.key(), nodeRefs, quorum, substitutes);
+        if (!quorumReachable(nodeRefs, coordinatorIsReplica, Math.max(Settings.R, Settings.W), msg.reqId(), cas.requester())) {
+            finishCas(msg.key(), msg.reqId());
+            return;
+        }
+        ArrayList<ActorRef> handoffRefs = prepareHandoffTargets(msg.key());
+
+        int op_id = generateOperationId();
+        trackAdmitted(op_id, System.nanoTime());  // time queued behind other compare-and-sets is not latency
+        requestsLedger.put(op_id, new Request(cas.requester(), RequestType.CAS, msg.key(), msg.reqId()));
+        getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, handoffRefs, substitutes, quorum, msg.key(), msg.value(), msg.ttlMs(), msg.expectedVersion(), coordinatorIsReplica, delayer, clock, id,
+            operationTimeoutMs(nodeRefs, Math.max(Settings.R, Settings.W) - (coordinatorIsReplica ? 1 : 0))).withDispatcher(handlerDispatcher));
+    }
+
+    private void finishCas(int key, long reqId) {
+        ArrayDeque<PendingCas> queue = casQueues.get(key);
+        if (queue == null || queue.peek().request().reqId() != reqId) {
+            return;  // started before a crash, the queue was dropped since
+        }
+        queue.poll();
+        if (queue.isEmpty()) {
+            casQueues.remove(key);
+        } else {
+            startCas(queue.peek());
+        }
     }
 
     private void handleReadDataRequest(ReadDataRequest msg) {
         clock = Math.max(clock, msg.clock()) + 1;  // Update clock
         log.info("Node[{}]: Handling read data request for key {} (clock={})", id, msg.key(), clock);
-        DataItem value = data.get(msg.key());
+        DataItem value = localCopy(msg.key());
         delayer.delayedMsg(getSelf(), new ReadDataResponse(value, clock), getSender());
     }
 
     private void handleWriteDataRequest(WriteDataRequest msg) {
         clock = Math.max(clock, msg.dataItem().version()) + 1;  // Update clock from message
         log.info("Node[{}]: Updating key {} with '{}' (v={},n={})", id, msg.key(), msg.dataItem().value(), msg.dataItem().version() + "," + msg.dataItem().nodeId());
-        data.put(msg.key(), msg.dataItem());
+        storeIfNewer(msg.key(), msg.dataItem());
     }
 
     private void handleOperationResult(Result msg) {
         log.debug("Node[{}]: Received operation result for operation {}", id, msg.op_id());
-        Request request = requestsLedger.get(msg.op_id());
+        // Client operations are done once answered; dropping them keeps the ledger bounded under pipelining
+        Request request = requestsLedger.remove(msg.op_id());
+        releaseAdmitted(msg);
         if (request != null) {
-            delayer.delayedMsg(getSelf(), msg, request.getRequester());
+            delayer.delayedMsg(getSelf(), new Result(msg.op_id(), msg.value(), request.getReqId(), epoch, msg.status()), request.getRequester());
+            if (request.getType() == RequestType.CAS) {
+                finishCas(request.getDataKey(), request.getReqId());
+            }
         }
     }
 
     // ====================== Crash/Recover operation handlers ====================
     private void handleCrash(Crash msg) {
         log.warning("Node[{}]: Crashing as per request", id);
+        revokeLease();
+        dropAdmitted();
+        casQueues.clear();  // their clients time out
+        if (detector != null) {
+            detector.clear();  // arrival times from before the crash say nothing now
+        }
         getContext().become(crashed());
     }
 
@@ -199,134 +1093,278 @@ public class Node extends AbstractActor {
         delayer.delayedMsg(getSelf(), new Types.TopologyRequest(), msg.nodeRef());
     }
 
+    // The snapshot is immutable, so it goes out as is; a requester that is only a few changes
+    // behind gets just those
     private void handleTopologyRequest(TopologyRequest msg) {
+        TopologyDelta delta = topology.delta(msg.sinceEpoch(), epoch);
+        if (delta != null) {
+            log.debug("Node[{}]: Sending topology changes since epoch {}", id, msg.sinceEpoch());
+            delayer.delayedMsg(getSelf(), delta, getSender());
+            return;
+        }
         log.info("Node[{}]: Received topology request, sending topology response", id);
-        HashMap<Integer, ActorRef> topology = new HashMap<>(this.peers);
-        topology.put(this.id, getSelf());
-        delayer.delayedMsg(getSelf(), new TopologyResponse(new HashMap<>(topology)), getSender());
+        delayer.delayedMsg(getSelf(), new TopologyResponse(topology.nodes(), epoch), getSender());
     }
 
+    // The ring of the answering node replaces this node's own: peers that left while it was
+    // crashed are dropped as well
     private void handleTopologyResponse(TopologyResponse msg) {
-        this.peers.putAll(msg.peers());
+        setTopology(Topology.of(withNode(msg.peers(), id, getSelf()), msg.epoch()));
+        observeEpoch(msg.epoch());
         
         log.info("Node[{}]: Received topology with {} peers, updating data responsibilities", id, peers.size());
-        
-        List<Integer> keysToRemove = new ArrayList<>();
-        for (Map.Entry<Integer, DataItem> entry : data.entrySet()) {
-            int key = entry.getKey();
-            List<Integer> nodeIds = new ArrayList<>(peers.keySet());
-            nodeIds.add(this.id);
-            List<Integer> replicaIds = findReplicaNodesIds(key, nodeIds);
-            
-            if (!replicaIds.contains(this.id)) {
-                keysToRemove.add(key);
-                log.info("Node[{}]: Dropping key {} after recovery (no longer responsible, new replicas: {})", id, key, replicaIds);
-            }
-        }
-        for (Integer key : keysToRemove) {
-            data.remove(key);
+        sweepForeignKeys();
+        if (membership != null) {
+            seedMembers();  // joins and leaves missed while crashed come with the next gossip deltas
         }
-        getContext().become(ready());
+        revokeLease();
+        becomeReady();
     }
 
     // ====================== Joining operation handlers ====================
 
+    // Bulk bootstrap: the whole initial ring is known up front, no join protocol needed
+    private void handleSetPeers(SetPeers msg) {
+        setTopology(Topology.initial(withNode(msg.peers(), id, getSelf())));
+        log.info("Node[{}]: Bootstrapped with peers {}", id, peers.keySet());
+        if (membership != null) {
+            seedMembers();
+        }
+        becomeReady();
+    }
+
     private void handleJoinRequest(JoinRequest msg) {
         log.info("Node[{}]: Received join request from Node[{}]", id, msg.nodeId());
         if (!peers.containsKey(msg.nodeId())) {
-            Map<Integer, ActorRef> nodes = new HashMap<>(peers);
-            nodes.put(this.id, getSelf());
-            delayer.delayedMsg(getSelf(), new Types.RegisterPeers(nodes), msg.nodeRef());
+            delayer.delayedMsg(getSelf(), new Types.RegisterPeers(topology.nodes(), new HashMap<>(joiningPeers), epoch), msg.nodeRef());
         } else {
             log.warning("Node[{}]: Node[{}] is already a peer.", id, msg.nodeId());
         }
     }
 
     private void handleRegisterPeers(RegisterPeers msg) {
-        this.peers.putAll(msg.peers());
+        setTopology(Topology.of(withNode(msg.peers(), id, getSelf()), msg.epoch()));
+        this.joiningPeers.putAll(msg.joiningPeers());
+        this.joiningPeers.remove(this.id);
         log.info("Node[{}]: Current peers after registration: {}", id, peers.keySet());
 
-        ActorRef clockwiseNeighbor = getClockwiseNeighbor();
-        if (clockwiseNeighbor != null) {
-            delayer.delayedMsg(getSelf(), new GetAllDataItems(id), clockwiseNeighbor);
-            log.info("Node[{}]: Waiting for data items from clockwise neighbor before transitioning to ready state", id);
+        // Announce the join first, so coordinators start sending this node writes for its future ranges
+        observeEpoch(msg.epoch());
+        bumpEpoch();
+        if (membership != null) {
+            seedMembers();
+            announce(peers.isEmpty() ? MemberStatus.UP : MemberStatus.JOINING);
         } else {
-            // No clockwise neighbor, so no data to receive - transition immediately
-            log.info("Node[{}]: No clockwise neighbor found, transitioning to ready state", id);
-            getContext().become(ready());
+            for (ActorRef peer : allKnownPeers()) {
+                delayer.delayedMsg(getSelf(), new JoinStarted(id, getSelf(), epoch), peer);
+            }
+        }
+
+        if (peers.isEmpty()) {
+            // No peers, so no data to receive - transition immediately
+            log.info("Node[{}]: No peers found, transitioning to ready state", id);
+            becomeReady();
+            return;
         }
+        if (membership != null) {
+            // Pull only once the announcement had time to reach the ring, so that the writes
+            // for this node's future ranges already come here as well
+            startGossip();
+            getContext().getSystem().scheduler().scheduleOnce(
+                Duration.create(Settings.gossipRingDelayMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new JoinAnnounced(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
+            return;
+        }
+        requestRanges();
     }
 
-    private void handleGetAllDataItems(GetAllDataItems msg) {
-        log.info("Node[{}]: Received request to send all data items to Node[{}]", id, msg.nodeId());
-        Map<Integer, DataItem> dataItems = new HashMap<>();
-        for (Map.Entry<Integer, DataItem> entry : data.entrySet()) {
-            int key = entry.getKey();
-            DataItem value = entry.getValue();
-            List<Integer> nodeIds = new ArrayList<>(peers.keySet());
-            nodeIds.add(this.id);
-            nodeIds.add(msg.nodeId()); // Include the joining node
-            List<Integer> replicaIds = findReplicaNodesIds(key, nodeIds);
-            if (replicaIds.contains(msg.nodeId())) {
-                dataItems.put(key, value);
-                log.debug("Node[{}]: Including key {} for Node[{}] (replicas: {})", id, key, msg.nodeId(), replicaIds);
+    private void handleJoinAnnounced(JoinAnnounced msg) {
+        requestRanges();
+    }
+
+    // Each range this node will replicate is pulled in parallel from one of its current
+    // replicas, so the transfer is spread over the ring instead of being served by a single
+    // neighbor; a range that stops arriving is asked of the next replica
+    private void requestRanges() {
+        for (Ring.Segment range : Ring.replicatedRanges(id, peers.keySet(), Settings.N)) {
+            rangePulls.put(range, new RangePull());
+            pullRange(range);
+        }
+    }
+
+    // Prefers replicas neither suspected nor asked already, then the one with the fewest
+    // ranges assigned in this join; once all were asked, the round starts over
+    private void pullRange(Ring.Segment range) {
+        RangePull pull = rangePulls.get(range);
+        List<Integer> replicaIds = findReplicaNodesIds(range.toKey(), new ArrayList<>(peers.keySet()));
+        List<Integer> candidates = new ArrayList<>(replicaIds);
+        candidates.removeIf(this::isSuspected);
+        if (candidates.isEmpty()) {
+            candidates = replicaIds;  // the detector may be wrong about all of them
+        }
+        List<Integer> untried = new ArrayList<>(candidates);
+        untried.removeAll(pull.tried);
+        if (untried.isEmpty()) {
+            pull.tried.clear();
+            untried = candidates;
+        }
+        Map<Integer, Integer> assigned = new HashMap<>();
+        for (RangePull other : rangePulls.values()) {
+            if (other != pull && other.attempt > 0) {
+                assigned.merge(other.source, 1, Integer::sum);
             }
         }
-        delayer.delayedMsg(getSelf(), new Types.SendAllDataItems(dataItems), getSender());
+        int source = -1;
+        for (Integer nodeId : untried) {
+            if (source == -1 || assigned.getOrDefault(nodeId, 0) < assigned.getOrDefault(source, 0)) {
+                source = nodeId;
+            }
+        }
+        pull.source = source;
+        pull.tried.add(source);
+        pull.attempt++;
+        pull.progressAt = nowMs();
+        pull.pagesReceived = 0;
+        pull.pageCount = -1;
+        scheduleRangePullTimeout(range, pull, Settings.rangePullTimeoutMs);
+        delayer.delayedMsg(getSelf(), new GetRangeItems(id, range.fromKey(), range.toKey(), pull.attempt), peers.get(source));
+        log.info("Node[{}]: Pulling keys [{}, {}] from Node[{}]", id, range.fromKey(), range.toKey(), source);
     }
 
-    private void handleSendAllDataItems(SendAllDataItems msg) {
-        log.info("Node[{}]: Received {} data items from clockwise neighbor", id, msg.dataItems().size());
-        this.data.putAll(msg.dataItems());
+    private void scheduleRangePullTimeout(Ring.Segment range, RangePull pull, long delayMs) {
+        getContext().getSystem().scheduler().scheduleOnce(
+            Duration.create(delayMs, TimeUnit.MILLISECONDS),
+            getSelf(),
+            new RangePullTimeout(range.fromKey(), range.toKey(), pull.attempt),
+            getContext().getSystem().dispatcher(),
+            getSelf()
+        );
+    }
+
+    // Pages keep an attempt alive: the timer is only re-armed for the time left, not reset on each
+    private void handleRangePullTimeout(RangePullTimeout msg) {
+        Ring.Segment range = new Ring.Segment(msg.fromKey(), msg.toKey());
+        RangePull pull = rangePulls.get(range);
+        if (pull == null || pull.attempt != msg.attempt()) {
+            return;
+        }
+        long idleMs = nowMs() - pull.progressAt;
+        if (idleMs < Settings.rangePullTimeoutMs) {
+            scheduleRangePullTimeout(range, pull, Settings.rangePullTimeoutMs - idleMs);
+            return;
+        }
+        log.warning("Node[{}]: No keys of [{}] from Node[{}] in time, asking another replica",
+                id, range.fromKey() + ", " + range.toKey(), pull.source);
+        pullRange(range);
+    }
+
+    // Streamed from a snapshot by a scanner, straight to the joining node
+    private void handleGetRangeItems(GetRangeItems msg) {
+        log.info("Node[{}]: Sending keys [{}, {}] to joining Node[{}]", id, msg.fromKey(), msg.toKey(), msg.nodeId());
+        startScan(new SnapshotScanner.SendRange(msg.fromKey(), msg.toKey(), msg.attempt(), getSender()));
+    }
+
+    // Ranges are merged by version as they arrive; once all are in, every key is
+    // brought up to date with a quorum read before the join completes. Pages may arrive in any
+    // order, so a range is complete once every page up to the last one is in. Items from an
+    // attempt given up on are merged as well, but only pages of the latest attempt count.
+    private void handleRangeItems(RangeItems msg) {
+        log.info("Node[{}]: Received {} data items for keys [{}]", id, msg.dataItems().size(), msg.fromKey() + ", " + msg.toKey());
+        for (Map.Entry<Integer, DataItem> entry : msg.dataItems().entrySet()) {
+            storeIfNewer(entry.getKey(), entry.getValue());
+            joinKeys.add(entry.getKey());
+        }
+        Ring.Segment range = new Ring.Segment(msg.fromKey(), msg.toKey());
+        RangePull pull = rangePulls.get(range);
+        if (pull == null || msg.attempt() != pull.attempt) {
+            return;
+        }
+        pull.progressAt = nowMs();
+        pull.pagesReceived++;
+        if (msg.last()) {
+            pull.pageCount = msg.page() + 1;
+        }
+        if (pull.pageCount < 0 || pull.pagesReceived < pull.pageCount) {
+            return;
+        }
+        rangePulls.remove(range);
+        if (!rangePulls.isEmpty()) {
+            return;
+        }
         
-        if (msg.dataItems().isEmpty()) {
+        if (joinKeys.isEmpty()) {
             // No data items to sync, transition to ready state immediately
             log.info("Node[{}]: No data items to sync, transitioning to ready state", id);
-            getContext().become(ready());
-            
-            // Notify all peers to add this node
-            for (ActorRef peer : peers.values()) {
-                delayer.delayedMsg(getSelf(), new AddPeer(id, getSelf()), peer);
-            }
+            completeJoin();
         } else {
             // Spawn handlers to sync data items
-            for (Map.Entry<Integer, DataItem> entry : msg.dataItems().entrySet()) {
+            for (int key : joinKeys) {
                 clock++;  // Increment clock for each sync operation
-                int key = entry.getKey();
                 ArrayList<ActorRef> nodeRefs = new ArrayList<>();
                 ArrayList<DataItem> quorum = new ArrayList<>();
                 boolean coordinatorIsReplica = prepareReplicasAndQuorum(key, nodeRefs, quorum);
                 int op_id = generateOperationId();
                 requestsLedger.put(op_id, new Request(getSelf(), RequestType.GET_JOIN, key));
-                getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, quorum, key, coordinatorIsReplica, delayer, clock, id));
+                getContext().actorOf(Props.create(Handler.class, op_id, getSelf(), nodeRefs, quorum, key, coordinatorIsReplica, delayer, clock, id).withDispatcher(handlerDispatcher));
                 log.debug("Node[{}]: Spawned handler for GET operation on key {} (op_id: {}, clock: {})", id, key, op_id, clock);
             }
+            joinKeys.clear();
+        }
+    }
+
+    // Joining node: start serving and let every peer read from this node
+    private void completeJoin() {
+        bumpEpoch();
+        if (membership != null) {
+            announce(MemberStatus.UP);
+        } else {
+            for (ActorRef peer : allKnownPeers()) {
+                delayer.delayedMsg(getSelf(), new AddPeer(id, getSelf(), epoch), peer);
+            }
+        }
+        becomeReady();
+    }
+
+    private void handleJoinStarted(JoinStarted msg) {
+        if (msg.nodeId() != this.id && !peers.containsKey(msg.nodeId())) {
+            log.info("Node[{}]: Node[{}] started joining (epoch {}), sending it writes for its future ranges", id, msg.nodeId(), msg.epoch());
+            joiningPeers.put(msg.nodeId(), msg.nodeRef());
+        }
+        observeEpoch(msg.epoch());
+    }
+
+    // Client requests reaching a node that is still joining are passed on to a ready peer
+    private void forwardWhileJoining(Object msg) {
+        List<ActorRef> ready = new ArrayList<>(peers.values());
+        ActorRef target = ready.isEmpty() ? bootstrapper : ready.get(ThreadLocalRandom.current().nextInt(ready.size()));
+        log.info("Node[{}]: Still joining, forwarding {} to a ready peer", id, msg.getClass().getSimpleName());
+        delayer.delayedMsg(getSender(), msg, target);
+    }
+
+    // While joining, only track membership: data ownership is settled once this node is ready
+    private void handleAddPeerWhileJoining(AddPeer msg) {
+        joiningPeers.remove(msg.id());
+        observeEpoch(msg.epoch());
+        if (msg.id() != this.id) {
+            setTopology(topology.with(msg.id(), msg.peer(), msg.epoch(), epoch));
         }
     }
 
     private void handleAddPeer(AddPeer msg) {
-        if (!peers.containsKey(msg.id()) && msg.id() != this.id) {
-            peers.put(msg.id(), msg.peer());
+        joiningPeers.remove(msg.id());
+        observeEpoch(msg.epoch());
+        Topology next = topology.with(msg.id(), msg.peer(), msg.epoch(), epoch);
+        if (!peers.containsKey(msg.id()) && msg.id() != this.id && next == topology) {
+            log.info("Node[{}]: Ignoring stale join of Node[{}] (epoch {})", id, msg.id(), msg.epoch());
+        } else if (!peers.containsKey(msg.id()) && msg.id() != this.id) {
+            setTopology(next);
             log.info("Node[{}]: Added new peer Node[{}]", id, msg.id());
-            
-            // Check if we need to drop any data we're no longer responsible for
-            List<Integer> keysToRemove = new ArrayList<>();
-            for (Map.Entry<Integer, DataItem> entry : data.entrySet()) {
-                int key = entry.getKey();
-                List<Integer> nodeIds = new ArrayList<>(peers.keySet());
-                nodeIds.add(this.id);
-                List<Integer> replicaIds = findReplicaNodesIds(key, nodeIds);
-                
-                // If this node is no longer in the replica set for this key, remove it
-                if (!replicaIds.contains(this.id)) {
-                    keysToRemove.add(key);
-                    log.info("Node[{}]: Dropping key {} (no longer responsible, new replicas: {})", id, key, replicaIds);
-                }
-            }
-            
-            for (Integer key : keysToRemove) {
-                data.remove(key);
-            }
+            // Drop the data this node is no longer responsible for
+            sweepForeignKeys();
         } else {
             log.warning("Node[{}]: Peer Node[{}] already exists", id, msg.id());
         }
@@ -339,15 +1377,17 @@ public class Node extends AbstractActor {
             if (msg.value() != null) {
                 DataItem existingData = data.get(request.getDataKey());
                 if (existingData == null || msg.value().version() > existingData.version()) {
-                    data.put(request.getDataKey(), msg.value());
+                    putItem(request.getDataKey(), msg.value());
                     log.info("Node[{}]: Updated key {} with value '{}' (version: {}) from join operation", 
                             id, msg.op_id(), msg.value().value(), msg.value().version());
                 }
             }
             
-            // Add the result to the ledger
+            // Add the result to the ledger (join reads are requested by the node itself, nobody to forward to)
             request.setResult(msg);
-            delayer.delayedMsg(getSelf(), msg, request.getRequester());
+            if (!request.getRequester().equals(getSelf())) {
+                delayer.delayedMsg(getSelf(), msg, request.getRequester());
+            }
             
             // Check if all GET_JOIN operations are completed
             boolean allJoinOpsCompleted = true;
@@ -361,10 +1401,7 @@ public class Node extends AbstractActor {
             // If all GET_JOIN operations are completed, notify all peers to add this node
             if (allJoinOpsCompleted) {
                 log.info("Node[{}]: All join operations completed, notifying peers", id);
-                for (ActorRef peer : peers.values()) {
-                    delayer.delayedMsg(getSelf(), new AddPeer(id, getSelf()), peer);
-                }
-                getContext().become(ready());
+                completeJoin();
             }
         }
     }
@@ -372,20 +1409,51 @@ public class Node extends AbstractActor {
     // ======================= Leaving operation handlers ====================
     private void handleLeave(Leave msg) {
         log.debug("Node[{}]: Received leave request, notifying peers", id);
+        // Announce the leave first, so coordinators also send writes to the future owners of this node's ranges
+        leaving = true;
+        bumpEpoch();
+        if (membership != null) {
+            // Hand off only once the announcement had time to reach the ring
+            announce(MemberStatus.LEAVING);
+            getContext().getSystem().scheduler().scheduleOnce(
+                Duration.create(Settings.gossipRingDelayMs, TimeUnit.MILLISECONDS),
+                getSelf(),
+                new LeaveAnnounced(),
+                getContext().getSystem().dispatcher(),
+                getSelf()
+            );
+            return;
+        }
+        for (ActorRef peer : allKnownPeers()) {
+            delayer.delayedMsg(getSelf(), new LeaveStarted(id, epoch), peer);
+        }
+        requestLeaveAcks();
+    }
+
+    private void handleLeaveAnnounced(LeaveAnnounced msg) {
+        requestLeaveAcks();
+    }
+
+    private void requestLeaveAcks() {
         List<ActorRef> clockwiseNeighbors = getClockwiseNeighbors(Settings.N);
+        ackRequestedAt = System.nanoTime();
+        long timeoutMs = Settings.adaptiveTimeouts ? 0 : Settings.leaveTimeoutMs;
         for (ActorRef neighbor : clockwiseNeighbors) {
             delayer.delayedMsg(getSelf(), new AckRequest(), neighbor);
+            if (Settings.adaptiveTimeouts) {
+                timeoutMs = Math.max(timeoutMs, peerTimeoutMs(neighbor, Settings.leaveTimeoutMs));
+            }
         }
         
-        // Schedule timeout for leave operation (2000ms)
+        // Every neighbor must ack: wait for the slowest of them
         leaveTimeout = getContext().getSystem().scheduler().scheduleOnce(
-            Duration.create(2000, TimeUnit.MILLISECONDS),
+            Duration.create(timeoutMs, TimeUnit.MILLISECONDS),
             getSelf(),
             new OperationTimeout(),
             getContext().getSystem().dispatcher(),
             getSelf()
         );
-        log.debug("Node[{}]: Leave timeout scheduled for 2000ms", id);
+        log.debug("Node[{}]: Leave timeout scheduled for {}ms", id, timeoutMs);
     }
 
     private void handleAckRequest(AckRequest msg) {
@@ -394,6 +1462,9 @@ public class Node extends AbstractActor {
     }
 
     private void handleAckResponse(AckResponse msg) {
+        if (Settings.adaptiveTimeouts) {
+            rtt.computeIfAbsent(getSender(), peer -> new RttEstimator()).sample((System.nanoTime() - ackRequestedAt) / 1_000_000.0);
+        }
         responseReceived++;
         log.debug("Node[{}]: Received AckResponse from Node[{}] (total acks: {})", id, msg.nodeId(), responseReceived);
         if (responseReceived == Settings.N) {
@@ -403,50 +1474,69 @@ public class Node extends AbstractActor {
                 log.debug("Node[{}]: Leave timeout cancelled - all acks received", id);
             }
             
-            // Calculate new replica assignments after this node leaves
-            List<Integer> nodeIdsAfterLeave = new ArrayList<>(peers.keySet());
-            for (Map.Entry<Integer, DataItem> entry : data.entrySet()) {
-                int key = entry.getKey();
-                DataItem value = entry.getValue();
-                
-                // Current replicas (with this node)
-                List<Integer> nodeIdsCurrent = new ArrayList<>(peers.keySet());
-                nodeIdsCurrent.add(this.id);
-                List<Integer> currentReplicaIds = findReplicaNodesIds(key, nodeIdsCurrent);
-                
-                // Future replicas (without this node)
-                List<Integer> futureReplicaIds = findReplicaNodesIds(key, nodeIdsAfterLeave);
-                
-                // Send data to nodes that will become new replicas
-                for (Integer newReplicaId : futureReplicaIds) {
-                    if (!currentReplicaIds.contains(newReplicaId)) {
-                        // This node needs to receive the data
-                        ActorRef newReplica = peers.get(newReplicaId);
-                        if (newReplica != null) {
-                            delayer.delayedMsg(getSelf(), new WriteDataRequest(key, value), newReplica);
-                            log.info("Node[{}]: Sending key {} to new replica Node[{}] before leaving", id, key, newReplicaId);
-                        }
-                    }
-                }
-            }
-            for (ActorRef peer : peers.values()) {
-                delayer.delayedMsg(getSelf(), new LeaveNotify(id), peer);
+            // Hand every item to the replicas it gains without this node, then leave
+            List<Integer> nodeIdsCurrent = new ArrayList<>(peers.keySet());
+            nodeIdsCurrent.add(this.id);
+            leaveScan = startScan(new SnapshotScanner.HandOff(nodeIdsCurrent, peers));
+        }
+    }
+
+    // Every item was sent on to its new replicas
+    private void finishLeave() {
+        bumpEpoch();
+        if (membership != null) {
+            // This node stops now: its neighbors spread the final state for it
+            announce(MemberStatus.LEFT);
+            for (ActorRef neighbor : getClockwiseNeighbors(Settings.N)) {
+                delayer.delayedMsg(getSelf(), new GossipDelta(epoch, List.of(membership.get(id))), neighbor);
             }
-            log.info("Node[{}]: Received all AckResponses, leaving the network", id);
-            System.out.println("✓ Node[" + id + "] left the network successfully");
-            
-            // Notify management service before stopping
-            if (managementActor != null) {
-                managementActor.tell(new LeaveComplete(id), getSelf());
+        } else {
+            for (ActorRef peer : allKnownPeers()) {
+                delayer.delayedMsg(getSelf(), new LeaveNotify(id, epoch), peer);
             }
-            
-            getContext().stop(getSelf());
         }
+        log.info("Node[{}]: Handoff complete, leaving the network", id);
+        System.out.println("✓ Node[" + id + "] left the network successfully");
+        
+        // Notify management service before stopping
+        if (managementActor != null) {
+            managementActor.tell(new LeaveComplete(id), getSelf());
+        }
+        
+        getContext().stop(getSelf());
+    }
+
+    private void handleLeaveStarted(LeaveStarted msg) {
+        log.info("Node[{}]: Node[{}] started leaving (epoch {})", id, msg.nodeId(), msg.epoch());
+        leavingPeers.add(msg.nodeId());
+        observeEpoch(msg.epoch());
+    }
+
+    private void handleLeaveAborted(LeaveAborted msg) {
+        log.info("Node[{}]: Node[{}] aborted its leave", id, msg.nodeId());
+        leavingPeers.remove(msg.nodeId());
+        observeEpoch(msg.epoch());
     }
 
     private void handleLeaveNotify(LeaveNotify msg) {
+        observeEpoch(msg.epoch());
+        Topology next = topology.without(msg.nodeId(), msg.epoch(), epoch);
+        if (next == topology) {
+            log.info("Node[{}]: Ignoring stale leave notification of Node[{}] (epoch {})", id, msg.nodeId(), msg.epoch());
+            return;
+        }
         log.info("Node[{}]: Received leave notification from Node[{}], removing from peers", id, msg.nodeId());
-        peers.remove(msg.nodeId());
+        ActorRef left = peers.get(msg.nodeId());
+        setTopology(next);
+        joiningPeers.remove(msg.nodeId());
+        leavingPeers.remove(msg.nodeId());
+        hints.remove(msg.nodeId());  // it left in a working state, so it had them back already
+        if (left != null) {
+            rtt.remove(left);
+        }
+        if (detector != null) {
+            detector.remove(msg.nodeId());
+        }
     }
 
     private void handleOperationTimeout(OperationTimeout msg) {
@@ -458,6 +1548,15 @@ public class Node extends AbstractActor {
             // Reset state and abort the leave operation
             responseReceived = 0;
             leaveTimeout = null;
+            leaving = false;
+            bumpEpoch();
+            if (membership != null) {
+                announce(MemberStatus.UP);
+            } else {
+                for (ActorRef peer : allKnownPeers()) {
+                    delayer.delayedMsg(getSelf(), new LeaveAborted(id, epoch), peer);
+                }
+            }
         }
     }
     
@@ -466,7 +1565,7 @@ public class Node extends AbstractActor {
     private String formatDataStore() {
         StringBuilder sb = new StringBuilder("{");
         boolean first = true;
-        for (Map.Entry<Integer, DataItem> entry : data.entrySet()) {
+        for (Map.Entry<Integer, DataItem> entry : data.latest().all()) {
             if (!first) sb.append(", ");
             first = false;
             sb.append(entry.getKey())
@@ -487,7 +1586,7 @@ public class Node extends AbstractActor {
     }
     
     private void handlePrintNetwork(Types.PrintNetwork msg) {
-        delayer.delayedMsg(getSelf(), new Types.NetworkStatus(id, false, new HashMap<>(peers)), getSender());
+        delayer.delayedMsg(getSelf(), new Types.NetworkStatus(id, false, peers), getSender());
     }
     
     private void printPeers(PrintPeers msg) {
@@ -505,9 +1604,30 @@ public class Node extends AbstractActor {
     
     private Receive joining() {
         return receiveBuilder()
+                .match(SetPeers.class, this::handleSetPeers)
                 .match(RegisterPeers.class, this::handleRegisterPeers)
-                .match(SendAllDataItems.class, this::handleSendAllDataItems)
+                .match(RangeItems.class, this::handleRangeItems)
                 .match(Result.class, this::handleOperationResultJoin)
+                // Client requests are served by ready peers until the join completes
+                .match(ClientGetRequest.class, this::forwardWhileJoining)
+                .match(ClientUpdateRequest.class, this::forwardWhileJoining)
+                .match(ClientCasRequest.class, this::forwardWhileJoining)
+                .match(VersionProbe.class, this::forwardWhileJoining)
+                .match(ClientScanRequest.class, this::forwardWhileJoining)
+                // Handoff writes and membership changes that happen while joining
+                .match(WriteDataRequest.class, this::handleWriteDataRequest)
+                .match(Ping.class, this::handlePing)
+                .match(Handler.RttSample.class, this::handleRttSample)
+                .match(JoinStarted.class, this::handleJoinStarted)
+                .match(AddPeer.class, this::handleAddPeerWhileJoining)
+                .match(LeaveStarted.class, this::handleLeaveStarted)
+                .match(LeaveAborted.class, this::handleLeaveAborted)
+                .match(LeaveNotify.class, this::handleLeaveNotify)
+                .match(GossipTick.class, this::handleGossipTick)
+                .match(GossipDigest.class, this::handleGossipDigest)
+                .match(GossipDelta.class, this::handleGossipDelta)
+                .match(JoinAnnounced.class, this::handleJoinAnnounced)
+                .match(RangePullTimeout.class, this::handleRangePullTimeout)
                 .matchAny(msg -> log.warning("Node[{}]: Rejecting message - node is still joining the network", id))
                 .build();
     }
@@ -517,22 +1637,48 @@ public class Node extends AbstractActor {
                 // GET/UPDATE operation handlers
                 .match(ClientGetRequest.class, this::handleClientGetRequest)
                 .match(ClientUpdateRequest.class, this::handleClientUpdateRequest)
+                .match(ClientCasRequest.class, this::handleClientCasRequest)
+                .match(VersionProbe.class, this::handleVersionProbe)
+                .match(ClientScanRequest.class, this::handleClientScanRequest)
+                .match(ScanPageRequest.class, this::handleScanPageRequest)
                 .match(ReadDataRequest.class, this::handleReadDataRequest)
                 .match(WriteDataRequest.class, this::handleWriteDataRequest)
+                .match(HintedWrite.class, this::handleHintedWrite)
+                .match(Handler.RttSample.class, this::handleRttSample)
                 .match(Result.class, this::handleOperationResult)
                 // Crash/Recover handlers
                 .match(Crash.class, this::handleCrash)
                 .match(TopologyRequest.class, this::handleTopologyRequest)
                 // Joining operation handlers
                 .match(JoinRequest.class, this::handleJoinRequest)
-                .match(GetAllDataItems.class, this::handleGetAllDataItems)
+                .match(GetRangeItems.class, this::handleGetRangeItems)
+                .match(JoinStarted.class, this::handleJoinStarted)
                 .match(AddPeer.class, this::handleAddPeer)
+                // Left over from this node's join: late pages of ranges asked of another replica
+                .match(RangeItems.class, msg -> log.debug("Node[{}]: Ignoring late keys [{}], join is complete", id, msg.fromKey() + ", " + msg.toKey()))
+                .match(RangePullTimeout.class, msg -> {})
                 // Leaving operation handlers
                 .match(Leave.class, this::handleLeave)
                 .match(AckRequest.class, this::handleAckRequest)
                 .match(AckResponse.class, this::handleAckResponse)
+                .match(LeaveStarted.class, this::handleLeaveStarted)
+                .match(LeaveAborted.class, this::handleLeaveAborted)
                 .match(LeaveNotify.class, this::handleLeaveNotify)
+                .match(LeaveAnnounced.class, this::handleLeaveAnnounced)
+                // Snapshot scans
+                .match(SnapshotScanner.ForeignKeys.class, this::handleForeignKeys)
+                .match(SnapshotScanner.Done.class, this::handleScanDone)
                 .match(OperationTimeout.class, this::handleOperationTimeout)
+                // Membership gossip
+                .match(GossipTick.class, this::handleGossipTick)
+                .match(GossipDigest.class, this::handleGossipDigest)
+                .match(GossipDelta.class, this::handleGossipDelta)
+                // Leader leases
+                .match(ExpiryTick.class, this::handleExpiryTick)
+                .match(HotKeyTick.class, this::handleHotKeyTick)
+                .match(PromoteHotKey.class, this::handlePromoteHotKey)
+                .match(PingTick.class, this::handlePingTick)
+                .match(Ping.class, this::handlePing)
                 // Utility messages
                 .match(Print.class, this::print)
                 .match(PrintPeers.class, this::printPeers)
@@ -547,6 +1693,16 @@ public class Node extends AbstractActor {
                 .match(TopologyResponse.class, this::handleTopologyResponse)
                 .match(Print.class, this::print)
                 .match(PrintNetwork.class, this::handlePrintNetwork)
+                .match(ExpiryTick.class, msg -> {})  // the timers outlive the crash
+                .match(HotKeyTick.class, msg -> {})
+                .match(PingTick.class, msg -> {})
+                .match(Ping.class, msg -> {})
+                .match(Handler.RttSample.class, msg -> {})
+                .match(GossipTick.class, msg -> {})
+                .match(GossipDigest.class, msg -> {})
+                .match(GossipDelta.class, msg -> {})
+                .match(SnapshotScanner.ForeignKeys.class, msg -> {})  // swept again on recovery
+                .match(SnapshotScanner.Done.class, this::handleScanDone)
                 .matchAny(msg -> log.warning("Node[{}]: Node is crashed. Ignoring message: {}", id, msg.getClass().getSimpleName()))
                 .build();
     }
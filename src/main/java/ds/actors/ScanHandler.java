@@ -0,0 +1,228 @@
+package ds.actors;
+import ds.config.Settings;
+import ds.model.Delayer;
+import ds.model.Ring.Segment;
+import ds.model.Types.*;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ReceiveTimeout;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+Coordinates one range scan. The range is split at ring positions into segments, each held by
+the same replicas. Every segment is paged through independently and in parallel: a page is
+asked from all its replicas and resolved once R of them answered, keeping the newest version
+of each key. Pages are streamed to the client in key order, one ScanBatch at a time; the next
+batch is only sent once the client acknowledged the previous one, and each segment prefetches
+at most PREFETCH_PAGES pages, so a slow client holds back the replicas instead of filling memory.
+ */
+public class ScanHandler extends AbstractActor {
+
+    private static final int PREFETCH_PAGES = 2;
+
+    // One ring segment being paged through
+    private final class SegmentScan {
+        private final int index;
+        private final Segment segment;
+        private final List<ActorRef> replicas;
+        private final int quorum;
+        private final Queue<SortedMap<Integer, DataItem>> ready = new ArrayDeque<>();
+        private final List<ScanPageResponse> responses = new ArrayList<>();
+        private int nextFrom;
+        private boolean requesting = false;
+        private boolean exhausted = false;   // every page was requested and resolved
+
+        private SegmentScan(int index, Segment segment, List<ActorRef> replicas) {
+            this.index = index;
+            this.segment = segment;
+            this.replicas = replicas;
+            this.quorum = Math.min(Settings.R, replicas.size());
+            this.nextFrom = segment.fromKey();
+            this.exhausted = replicas.isEmpty();
+        }
+
+        private boolean isDone() {
+            return exhausted && ready.isEmpty();
+        }
+
+        private void fetch() {
+            if (requesting || exhausted || ready.size() >= PREFETCH_PAGES) {
+                return;
+            }
+            requesting = true;
+            responses.clear();
+            ScanPageRequest request = new ScanPageRequest(index, nextFrom, segment.toKey(), Math.max(1, Settings.scanPageSize));
+            for (ActorRef replica : replicas) {
+                if (replica.equals(coordinator)) {
+                    // Local read, no simulated hop
+                    coordinator.tell(request, getSelf());
+                } else {
+                    delayer.delayedMsg(getSelf(), request, replica);
+                }
+            }
+        }
+
+        private void handleResponse(ScanPageResponse msg) {
+            if (!requesting || msg.fromKey() != nextFrom) {
+                return;  // late answer for a page already resolved
+            }
+            responses.add(msg);
+            if (responses.size() < quorum) {
+                return;
+            }
+            // A replica that truncated its page only vouches for keys up to its last one
+            int boundary = segment.toKey();
+            for (ScanPageResponse response : responses) {
+                if (response.more() && !response.items().isEmpty()) {
+                    boundary = Math.min(boundary, response.items().lastKey());
+                }
+            }
+            SortedMap<Integer, DataItem> page = new TreeMap<>();
+            long now = System.currentTimeMillis();
+            for (ScanPageResponse response : responses) {
+                for (Map.Entry<Integer, DataItem> entry : response.items().entrySet()) {
+                    if (entry.getKey() > boundary) {
+                        break;
+                    }
+                    DataItem current = page.get(entry.getKey());
+                    if (current == null || Handler.isNewer(entry.getValue(), current)) {
+                        page.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            // Expired items are resolved like any other version, so an older copy cannot resurface
+            page.values().removeIf(item -> item.isExpired(now));
+            ready.add(page);
+            requesting = false;
+            if (boundary >= segment.toKey()) {
+                exhausted = true;
+            } else {
+                nextFrom = boundary + 1;
+            }
+            fetch();
+        }
+    }
+
+    // Handler fields
+    private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
+    private final long reqId;
+    private final ActorRef coordinator;
+    private final ActorRef client;
+    private final Delayer delayer;
+    private final List<SegmentScan> segments = new ArrayList<>();
+    private int current = 0;          // segment being streamed to the client
+    private int remaining;            // items the client still wants
+    private boolean awaitingAck = false;
+
+    // Constructor
+    public ScanHandler(long reqId, ActorRef coordinator, ActorRef client, List<Segment> segments,
+                       List<List<ActorRef>> replicas, int limit, Delayer delayer) {
+        this.reqId = reqId;
+        this.coordinator = coordinator;
+        this.client = client;
+        this.delayer = delayer;
+        this.remaining = limit > 0 ? limit : Integer.MAX_VALUE;
+        for (int i = 0; i < segments.size(); i++) {
+            this.segments.add(new SegmentScan(i, segments.get(i), replicas.get(i)));
+        }
+        log.info("ScanHandler[{}]: Created for {} segments (limit={})", reqId, segments.size(), limit);
+        getContext().setReceiveTimeout(Duration.create(Settings.T, TimeUnit.MILLISECONDS));
+        for (SegmentScan segment : this.segments) {
+            segment.fetch();
+        }
+        pump();
+    }
+
+    // Functions
+
+    // Sends the next batch in key order if the client is ready for it
+    private void pump() {
+        while (!awaitingAck) {
+            if (current == segments.size() || remaining == 0) {
+                finish(new TreeMap<>());
+                return;
+            }
+            SegmentScan segment = segments.get(current);
+            SortedMap<Integer, DataItem> page = segment.ready.poll();
+            if (page == null) {
+                if (segment.isDone()) {
+                    current++;
+                    continue;
+                }
+                return;  // waiting for replicas
+            }
+            segment.fetch();
+            if (page.size() > remaining) {
+                page = new TreeMap<>(page.headMap(nthKey(page, remaining)));
+            }
+            remaining -= page.size();
+            boolean last = remaining == 0 || (current == segments.size() - 1 && segment.isDone());
+            if (last) {
+                finish(page);
+                return;
+            }
+            if (!page.isEmpty()) {
+                delayer.delayedMsg(getSelf(), new ScanBatch(reqId, page, false, false), client);
+                awaitingAck = true;
+            }
+        }
+    }
+
+    private static int nthKey(SortedMap<Integer, DataItem> page, int n) {
+        int i = 0;
+        for (Integer key : page.keySet()) {
+            if (i++ == n) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Page has no key at position " + n);
+    }
+
+    private void finish(SortedMap<Integer, DataItem> page) {
+        log.info("ScanHandler[{}]: Scan complete", reqId);
+        delayer.delayedMsg(getSelf(), new ScanBatch(reqId, page, true, false), client);
+        getContext().stop(getSelf());
+    }
+
+    private void handleScanPageResponse(ScanPageResponse msg) {
+        segments.get(msg.segment()).handleResponse(msg);
+        pump();
+    }
+
+    private void handleScanAck(ScanAck msg) {
+        awaitingAck = false;
+        pump();
+    }
+
+    // No replica quorum, or no ack from the client, within T
+    private void handleTimeout(ReceiveTimeout msg) {
+        if (awaitingAck) {
+            log.warning("ScanHandler[{}]: Client stopped acknowledging, abandoning scan", reqId);
+        } else {
+            log.warning("ScanHandler[{}]: Replica quorum timeout on segment {}", reqId, current);
+            delayer.delayedMsg(getSelf(), new ScanBatch(reqId, new TreeMap<>(), true, true), client);
+        }
+        getContext().stop(getSelf());
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(ScanPageResponse.class, this::handleScanPageResponse)
+                .match(ScanAck.class, this::handleScanAck)
+                .match(ReceiveTimeout.class, this::handleTimeout)
+                .build();
+    }
+
+}
@@ -0,0 +1,120 @@
+package ds.actors;
+import ds.config.Settings;
+import ds.model.DataStore;
+import ds.model.Delayer;
+import ds.model.Ring;
+import ds.model.Types.*;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/*
+Runs one bulk pass over a snapshot of a node's store on the blocking-io dispatcher, so the
+node keeps serving reads and writes while a range is handed off or ownership is rechecked
+after a ring change. The snapshot is walked Settings.snapshotScanBatch keys per message to
+itself, and every batch is sent out as soon as it is complete. The node gets Done at the end
+and releases the snapshot; keys it is told to drop are rechecked against its current ring.
+ */
+public class SnapshotScanner extends AbstractActor {
+
+    // What to do with the snapshot
+    public interface Job {}
+    // Stream [fromKey, toKey] to a joining node as RangeItems pages of its request attempt
+    public record SendRange(int fromKey, int toKey, int attempt, ActorRef requester) implements Job {}
+    // Report the keys nodeId no longer replicates on the ring nodeIds
+    public record FindForeignKeys(int nodeId, List<Integer> nodeIds) implements Job {}
+    // Leaving: write every item to the replicas it gains on the ring without the node
+    public record HandOff(List<Integer> currentIds, Map<Integer, ActorRef> futurePeers) implements Job {}
+
+    public record ForeignKeys(List<Integer> keys) {}
+    public record Done(long scanId) {}
+    private record Continue() {}
+
+    private final LoggingAdapter log = Logging.getLogger(getContext().getSystem(), this);
+    private final long scanId;
+    private final Job job;
+    private final ActorRef node;
+    private final Delayer delayer;
+    private final Iterator<Map.Entry<Integer, DataItem>> items;
+    private int scanned = 0;
+    private int pages = 0;
+
+    public SnapshotScanner(long scanId, DataStore.View snapshot, Job job, ActorRef node, Delayer delayer) {
+        this.scanId = scanId;
+        this.job = job;
+        this.node = node;
+        this.delayer = delayer;
+        this.items = job instanceof SendRange range
+            ? snapshot.range(range.fromKey(), range.toKey()).iterator()
+            : snapshot.all().iterator();
+    }
+
+    @Override
+    public void preStart() {
+        getSelf().tell(new Continue(), getSelf());
+    }
+
+    private void handleContinue(Continue msg) {
+        int batch = Math.max(1, Settings.snapshotScanBatch);
+        Map<Integer, DataItem> page = new HashMap<>();
+        while (items.hasNext() && page.size() < batch) {
+            Map.Entry<Integer, DataItem> entry = items.next();
+            page.put(entry.getKey(), entry.getValue());
+        }
+        scanned += page.size();
+        boolean last = !items.hasNext();
+        if (job instanceof SendRange range) {
+            // Each page gets its own network delay: the requester counts them, not their order
+            delayer.delayedMsg(node, new RangeItems(range.fromKey(), range.toKey(), page, range.attempt(), pages++, last), range.requester());
+        } else if (job instanceof FindForeignKeys find) {
+            findForeignKeys(find, page);
+        } else if (job instanceof HandOff handOff) {
+            handOff(handOff, page);
+        }
+        if (!last) {
+            getSelf().tell(msg, getSelf());  // lets the next batch queue behind nothing but itself
+            return;
+        }
+        log.debug("SnapshotScanner[{}]: {} done after {} keys", scanId, job.getClass().getSimpleName(), scanned);
+        node.tell(new Done(scanId), getSelf());
+        getContext().stop(getSelf());
+    }
+
+    private void findForeignKeys(FindForeignKeys find, Map<Integer, DataItem> page) {
+        List<Integer> foreign = new ArrayList<>();
+        for (int key : page.keySet()) {
+            if (!Ring.findReplicaNodesIds(key, find.nodeIds(), Settings.N).contains(find.nodeId())) {
+                foreign.add(key);
+            }
+        }
+        if (!foreign.isEmpty()) {
+            node.tell(new ForeignKeys(foreign), getSelf());
+        }
+    }
+
+    private void handOff(HandOff handOff, Map<Integer, DataItem> page) {
+        List<Integer> futureIds = new ArrayList<>(handOff.futurePeers().keySet());
+        for (Map.Entry<Integer, DataItem> entry : page.entrySet()) {
+            List<Integer> currentReplicaIds = Ring.findReplicaNodesIds(entry.getKey(), handOff.currentIds(), Settings.N);
+            for (Integer newReplicaId : Ring.findReplicaNodesIds(entry.getKey(), futureIds, Settings.N)) {
+                if (!currentReplicaIds.contains(newReplicaId)) {
+                    delayer.delayedMsg(node, new WriteDataRequest(entry.getKey(), entry.getValue()), handOff.futurePeers().get(newReplicaId));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Continue.class, this::handleContinue)
+                .build();
+    }
+}
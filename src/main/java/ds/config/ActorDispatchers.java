@@ -0,0 +1,44 @@
+package ds.config;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Dispatchers;
+import com.typesafe.config.Config;
+
+/*
+Dispatcher assignment per actor role, read from ds.dispatcher-assignment in application.conf:
+    NODE         Node actors
+    HANDLER      per-request quorum Handler actors
+    MANAGEMENT   the management service actor
+    BLOCKING_IO  blocking work such as persistence and snapshotting
+A role without an assignment, or pointing at an undefined dispatcher, uses the default dispatcher.
+ */
+public final class ActorDispatchers {
+
+    public enum Role {
+        NODE("node"),
+        HANDLER("handler"),
+        MANAGEMENT("management"),
+        BLOCKING_IO("blocking-io");
+
+        private final String configKey;
+
+        Role(String configKey) {
+            this.configKey = configKey;
+        }
+    }
+
+    private static final String ASSIGNMENT_PATH = "ds.dispatcher-assignment.";
+
+    private ActorDispatchers() {}
+
+    // Dispatcher id to pass to Props.withDispatcher for the given role
+    public static String of(ActorSystem system, Role role) {
+        Config config = system.settings().config();
+        String path = ASSIGNMENT_PATH + role.configKey;
+        if (!config.hasPath(path)) {
+            return Dispatchers.DefaultDispatcherId();
+        }
+        String id = config.getString(path);
+        return system.dispatchers().hasDispatcher(id) ? id : Dispatchers.DefaultDispatcherId();
+    }
+}
@@ -0,0 +1,40 @@
+package ds.config;
+
+import akka.actor.ActorSystem;
+import akka.actor.Address;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+/*
+Multi-process deployment over Akka Artery TCP on localhost:
+    - the management service listens on the seed port
+    - every node process runs its own actor system with the same name
+      and contacts the management actor at the seed address
+ */
+public final class Remoting {
+
+    public static final String SYSTEM_NAME = "MainSystem";
+    public static final String HOST = "127.0.0.1";
+    public static final int DEFAULT_SEED_PORT = 2552;
+
+    private Remoting() {}
+
+    // Remote-enabled configuration listening on port (0 = any free port)
+    public static Config config(int port) {
+        return ConfigFactory.parseString("akka.remote.artery.canonical.port = " + port)
+            .withFallback(ConfigFactory.load("remote"));
+    }
+
+    public static ActorSystem createSystem(int port) {
+        return ActorSystem.create(SYSTEM_NAME, config(port));
+    }
+
+    // Address other processes use to reach this system
+    public static Address addressOf(ActorSystem system) {
+        return system.provider().getDefaultAddress();
+    }
+
+    public static String managementPath(String seedHost, int seedPort) {
+        return "akka://" + SYSTEM_NAME + "@" + seedHost + ":" + seedPort + "/user/managementActor";
+    }
+}
@@ -17,9 +17,106 @@ public class Settings {
     public static int W = 2;
     public static int T = 1000;
 
+    // Client pipelining: operations a client keeps outstanding before queueing
+    public static int maxInFlight = 1024;
+
+    // Clients route each request to a replica of its key using a cached copy of the ring
+    public static boolean tokenAwareRouting = true;
+    public static int topologyRefreshMs = 2000;
+
+    // Range scans: items per page fetched from a replica and per batch streamed to the client
+    public static int scanPageSize = 64;
+
+    // Rebalancing scans (range handoff, dropping keys after a ring change, handoff on leave)
+    // read a snapshot off the node's thread and report back this many keys at a time
+    public static int snapshotScanBatch = 256;
+
+    // Joins: a range pull that makes no progress for rangePullTimeoutMs is asked of another replica
+    public static long rangePullTimeoutMs = 2000;
+
+    // Client near cache: off while nearCacheEntries is 0. Entries confirmed within
+    // nearCacheStalenessMs are served locally; older ones are revalidated with a version probe
+    // to one replica if nearCacheValidate, else read through a quorum again.
+    public static int nearCacheEntries = 0;
+    public static long nearCacheMaxBytes = 4L * 1024 * 1024;
+    public static long nearCacheStalenessMs = 0;
+    public static boolean nearCacheValidate = true;
+
+    // Hot keys: off while hotKeyThreshold is 0. Coordinators count requests per key in a
+    // count-min sketch halved every hotKeyWindowMs; a key whose decayed count reaches the
+    // threshold is copied to hotKeyExtraReplicas more nodes and its reads spread over them.
+    public static long hotKeyThreshold = 0;
+    public static int hotKeyWindowMs = 1000;
+    public static int hotKeyTopK = 16;
+    public static int hotKeySketchWidth = 1024;
+    public static int hotKeyExtraReplicas = 2;
+
+    // TTL expiry: every expiryTickMs a node reclaims at most expirySweepBatch expired items,
+    // tracked on a wheel of expiryWheelSlots ticks
+    public static int expiryTickMs = 100;
+    public static int expirySweepBatch = 1000;
+    public static int expiryWheelSlots = 512;
+
+    // Admission control: each coordinator runs at most an AIMD-adjusted number of operations,
+    // between admissionMinLimit and admissionMaxLimit. Completions slower than
+    // admissionTargetMs or timed out shrink the limit by admissionBackoff; requests beyond
+    // it are answered OVERLOADED at once, and the client avoids that coordinator for
+    // overloadBackoffMs.
+    public static boolean admissionControl = false;
+    public static int admissionInitialLimit = 64;
+    public static int admissionMinLimit = 4;
+    public static int admissionMaxLimit = 1024;
+    public static long admissionTargetMs = 500;
+    public static double admissionBackoff = 0.9;
+    public static long overloadBackoffMs = 100;
+
+    // Failure detection: nodes ping their ring neighbors every heartbeatIntervalMs and
+    // coordinators leave out replicas whose phi (over the last phiWindowSize intervals,
+    // standard deviation at least phiMinStdDevMs) reached phiThreshold
+    public static boolean failureDetection = false;
+    public static long heartbeatIntervalMs = 100;
+    public static double phiThreshold = 8.0;
+    public static int phiWindowSize = 64;
+    public static long phiMinStdDevMs = 50;
+
+    // Adaptive timeouts: a quorum round is given up after srtt + 4 * rttvar of the replicas it
+    // waits for, at least adaptiveTimeoutFloorMs and at most T; a leave waits for its acks
+    // at most leaveTimeoutMs
+    public static boolean adaptiveTimeouts = false;
+    public static long adaptiveTimeoutFloorMs = 100;
+    public static long leaveTimeoutMs = 2000;
+
+    // Sloppy quorum (needs failureDetection): a suspected replica is replaced by the next
+    // healthy node clockwise, which holds its writes as hints and hands them back once
+    // the replica pings again
+    public static boolean sloppyQuorum = false;
+
+    // Gossip membership: joins and leaves spread epidemically, every gossipIntervalMs to one
+    // random peer and piggybacked (at most gossipMaxRumors) on pings, each change retransmitted
+    // gossipRetransmitFactor * log2(n + 1) times; data handoff starts gossipRingDelayMs after
+    // the announcement instead of after a broadcast to every node
+    public static boolean gossipMembership = false;
+    public static long gossipIntervalMs = 100;
+    public static int gossipRetransmitFactor = 3;
+    public static int gossipMaxRumors = 8;
+    public static long gossipRingDelayMs = 1000;
+
+    // Leader leases: the primary of a range serves reads locally while a write quorum
+    // of its replicas grants it a lease, renewed every leaseRenewMs over the pings sent
+    // every heartbeatIntervalMs, whether or not failure detection is on
+    public static boolean leaseReads = false;
+    public static int leaseDurationMs = 2000;
+    public static int leaseRenewMs = 500;
+    public static int leaseDriftMs = 100;
+
+    // Values of at least this many bytes are stored compressed, 0 = never compress
+    public static int compressionThreshold = 256;
+
     // Simulated delay parameters
     public static final int meanMs = 40;
     public static final int stddevMs = 10;
+    public static int bandwidthBytesPerMs = 0;   // 0 = unlimited
+    public static double lossRate = 0.0;
     
     public static boolean validateConstraints() {
         StringBuilder errors = new StringBuilder();
@@ -45,6 +142,9 @@ public class Settings {
         if (T <= 0) {
             errors.append("- T must be > 0 (current value: ").append(T).append(")\n");
         }
+        if (sloppyQuorum && !failureDetection) {
+            errors.append("- sloppyQuorum needs failureDetection to find unavailable replicas\n");
+        }
         if (errors.length() > 0) {
             throw new IllegalArgumentException("Invalid parameters");
         }
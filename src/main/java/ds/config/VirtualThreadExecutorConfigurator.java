@@ -0,0 +1,55 @@
+package ds.config;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutorServiceConfigurator;
+import akka.dispatch.ExecutorServiceFactory;
+import com.typesafe.config.Config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Dispatcher executor running every task on its own virtual thread (Java 21+).
+// Looked up reflectively so the project still builds and runs on Java 17,
+// where it falls back to a cached thread pool.
+public class VirtualThreadExecutorConfigurator extends ExecutorServiceConfigurator {
+
+    public VirtualThreadExecutorConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return virtualExecutorFactory() != null;
+    }
+
+    private static Method virtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    static ExecutorService newExecutor(ThreadFactory fallbackThreads) {
+        Method factory = virtualExecutorFactory();
+        if (factory != null) {
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Preview-disabled or restricted runtime, use platform threads
+            }
+        }
+        return Executors.newCachedThreadPool(fallbackThreads);
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+        return new ExecutorServiceFactory() {
+            @Override
+            public ExecutorService createExecutorService() {
+                return newExecutor(threadFactory);
+            }
+        };
+    }
+}
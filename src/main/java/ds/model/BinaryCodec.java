@@ -0,0 +1,76 @@
+package ds.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Primitive encodings used by TypesSerializer:
+//     integers   zigzag varints, 1 byte for small keys, versions and epochs
+//     strings    varint (length + 1) followed by UTF-8 bytes, 0 = null
+public final class BinaryCodec {
+
+    private BinaryCodec() {}
+
+    public static void writeVarLong(ByteBuffer out, long value) {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    public static long readVarLong(ByteBuffer in) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            raw |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public static void writeVarInt(ByteBuffer out, int value) {
+        writeVarLong(out, value);
+    }
+
+    public static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+
+    public static void writeBoolean(ByteBuffer out, boolean value) {
+        out.put((byte) (value ? 1 : 0));
+    }
+
+    public static boolean readBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    public static void writeString(ByteBuffer out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.put(bytes);
+    }
+
+    public static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,65 @@
+package ds.model;
+
+// AIMD limit on the operations a coordinator runs at once. Every operation that completes
+// within the latency target while the limit was in use grows the limit by 1/limit, about +1
+// per limit's worth of operations; a timeout or a slow completion cuts it by backoffRatio.
+// Beyond the limit tryAcquire fails, so excess requests are shed instead of queueing
+// in the mailbox.
+public final class ConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final double backoffRatio;
+    private double limit;
+    private int inFlight = 0;
+    private long rejected = 0;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetMs, double backoffRatio) {
+        if (minLimit <= 0 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid limiter bounds");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetMs * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    // An admitted operation finished after latencyNanos; dropped = it timed out
+    public void release(long latencyNanos, boolean dropped) {
+        boolean saturated = inFlight >= limit / 2;  // only grow a limit that is actually used
+        inFlight = Math.max(0, inFlight - 1);
+        if (dropped || latencyNanos > targetNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    // An admitted operation that will never complete here (e.g. lost to a crash)
+    public void cancel() {
+        inFlight = Math.max(0, inFlight - 1);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    public long rejected() {
+        return rejected;
+    }
+}
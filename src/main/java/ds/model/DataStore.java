@@ -0,0 +1,233 @@
+package ds.model;
+
+import ds.model.Types.DataItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+Multi-version key-value store of a node. Every write is numbered and, while snapshots are
+open, pushed in front of the key's previous versions instead of replacing them, so a snapshot
+is just a write number: it sees, per key, the newest version numbered at or below it. Taking
+one costs nothing, and it can be scanned from another thread while the owner keeps writing.
+Versions that no open snapshot can see any more are dropped when the oldest snapshot is
+released. Writes, snapshot() and release() belong to the owning actor; only reading a
+snapshot may happen elsewhere.
+ */
+public final class DataStore {
+
+    // One version of a key, newest first; item null = removed
+    private record Version(DataItem item, long seq, Version older) {}
+
+    private final ConcurrentSkipListMap<Integer, Version> versions = new ConcurrentSkipListMap<>();
+    private final TreeMap<Long, Integer> openSnapshots = new TreeMap<>();  // seq -> how many
+    private final Set<Integer> retained = new HashSet<>();  // keys holding versions only snapshots need
+    private final View latest = new View(Long.MAX_VALUE);
+    private long seq = 0;
+    private int size = 0;
+
+    // A consistent view of the store: the latest state, or a snapshot taken at seq
+    public final class View {
+        private final long seq;
+
+        private View(long seq) {
+            this.seq = seq;
+        }
+
+        public DataItem get(int key) {
+            return visible(versions.get(key), seq);
+        }
+
+        // Items with fromKey <= key <= toKey in key order, wrapping around the end of the key
+        // space when fromKey > toKey (as Ring segments do)
+        public Iterable<Map.Entry<Integer, DataItem>> range(int fromKey, int toKey) {
+            if (fromKey <= toKey) {
+                return () -> new VisibleIterator(List.of(versions.subMap(fromKey, true, toKey, true).entrySet().iterator()), seq);
+            }
+            return () -> new VisibleIterator(List.of(versions.tailMap(fromKey, true).entrySet().iterator(),
+                                                     versions.headMap(toKey, true).entrySet().iterator()), seq);
+        }
+
+        public Iterable<Map.Entry<Integer, DataItem>> all() {
+            return () -> new VisibleIterator(List.of(versions.entrySet().iterator()), seq);
+        }
+    }
+
+    // Skips the keys this view does not see: written after it, or removed as of it
+    private static final class VisibleIterator implements Iterator<Map.Entry<Integer, DataItem>> {
+        private final Iterator<Iterator<Map.Entry<Integer, Version>>> sources;
+        private final long seq;
+        private Iterator<Map.Entry<Integer, Version>> current;
+        private Map.Entry<Integer, DataItem> next;
+
+        VisibleIterator(List<Iterator<Map.Entry<Integer, Version>>> sources, long seq) {
+            this.sources = sources.iterator();
+            this.seq = seq;
+            this.current = this.sources.next();
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null) {
+                while (!current.hasNext()) {
+                    if (!sources.hasNext()) {
+                        return;
+                    }
+                    current = sources.next();
+                }
+                Map.Entry<Integer, Version> entry = current.next();
+                DataItem item = visible(entry.getValue(), seq);
+                if (item != null) {
+                    next = Map.entry(entry.getKey(), item);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Integer, DataItem> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, DataItem> result = next;
+            advance();
+            return result;
+        }
+    }
+
+    public DataItem get(int key) {
+        return latest.get(key);
+    }
+
+    public void put(int key, DataItem item) {
+        write(key, item);
+    }
+
+    public void remove(int key) {
+        if (get(key) != null) {
+            write(key, null);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // The current state, to be read by the owner only
+    public View latest() {
+        return latest;
+    }
+
+    // Frozen at the last write until released; readable from any thread
+    public View snapshot() {
+        openSnapshots.merge(seq, 1, Integer::sum);
+        return new View(seq);
+    }
+
+    public void release(View snapshot) {
+        Integer open = openSnapshots.get(snapshot.seq);
+        if (open == null) {
+            return;
+        }
+        if (open == 1) {
+            openSnapshots.remove(snapshot.seq);
+        } else {
+            openSnapshots.put(snapshot.seq, open - 1);
+        }
+        if (openSnapshots.isEmpty() || openSnapshots.firstKey() > snapshot.seq) {
+            List<Integer> keys = new ArrayList<>(retained);
+            retained.clear();
+            for (int key : keys) {
+                compact(key, versions.get(key));
+            }
+        }
+    }
+
+    // Versions kept for key, for tests
+    int versionCount(int key) {
+        int count = 0;
+        for (Version version = versions.get(key); version != null; version = version.older()) {
+            count++;
+        }
+        return count;
+    }
+
+    private void write(int key, DataItem item) {
+        Version previous = versions.get(key);
+        boolean wasLive = previous != null && previous.item() != null;
+        if (wasLive && item == null) {
+            size--;
+        } else if (!wasLive && item != null) {
+            size++;
+        }
+        seq++;
+        if (openSnapshots.isEmpty()) {
+            if (item == null) {
+                versions.remove(key);
+            } else {
+                versions.put(key, new Version(item, seq, null));
+            }
+            return;
+        }
+        // Chains are already pruned for the oldest open snapshot, which only moves on release
+        versions.put(key, new Version(item, seq, previous));
+        retained.add(key);
+    }
+
+    // Drops the versions no open snapshot can see, and the key itself once it is removed for all
+    private void compact(int key, Version head) {
+        if (head == null) {
+            return;
+        }
+        Version pruned = prune(head, openSnapshots.isEmpty() ? Long.MAX_VALUE : openSnapshots.firstKey());
+        if (pruned.item() == null && pruned.older() == null) {
+            versions.remove(key);
+        } else if (pruned != head) {
+            versions.put(key, pruned);
+        }
+        if (pruned.older() != null) {
+            retained.add(key);
+        }
+    }
+
+    // Keeps every version newer than oldest and the newest one at or below it
+    private static Version prune(Version head, long oldest) {
+        List<Version> newer = new ArrayList<>();
+        Version version = head;
+        while (version != null && version.seq() > oldest) {
+            newer.add(version);
+            version = version.older();
+        }
+        if (version == null || version.older() == null) {
+            return head;  // nothing below the cut
+        }
+        Version pruned = new Version(version.item(), version.seq(), null);
+        for (int i = newer.size() - 1; i >= 0; i--) {
+            pruned = new Version(newer.get(i).item(), newer.get(i).seq(), pruned);
+        }
+        return pruned;
+    }
+
+    private static DataItem visible(Version version, long seq) {
+        while (version != null && version.seq() > seq) {
+            version = version.older();
+        }
+        return version == null ? null : version.item();
+    }
+}
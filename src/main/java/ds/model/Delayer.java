@@ -1,25 +1,31 @@
 package ds.model;
 
-import ds.config.Settings
-;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.dispatch.ExecutionContexts;
+import scala.concurrent.ExecutionContextExecutor;
 import scala.concurrent.duration.Duration;
 
-import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 public class Delayer {
+    // Runs the scheduled tell directly on the scheduler thread
+    private static final ExecutionContextExecutor SAME_THREAD = ExecutionContexts.fromExecutor(Runnable::run);
+
     private final ActorSystem system;
-    private final Random rnd = new Random();
+    private final NetworkModel network;
 
     public Delayer(ActorSystem system) {
+        this(system, new GaussianNetworkModel());
+    }
+
+    public Delayer(ActorSystem system, NetworkModel network) {
         this.system = system;
+        this.network = network;
     }
 
-    private int gaussianDelay() {
-        double val = Settings.meanMs + rnd.nextGaussian() * Settings.stddevMs;
-        return Math.abs((int) val);
+    public NetworkModel getNetwork() {
+        return network;
     }
 
     // Normal send, no delay
@@ -27,13 +33,18 @@ public class Delayer {
         target.tell(message, sender);
     }
 
-    // Send with Gaussian random delay
+    // Send with the delay given by the network model (messages may be dropped)
     public void delayedMsg(ActorRef sender, Object message, ActorRef target) {
-        int delay = gaussianDelay();
+        long delay = network.delayMs(sender, target, message);
+        if (delay == NetworkModel.DROP) {
+            return;
+        }
+        // The scheduled task is only a tell, so skip the dispatcher:
+        // no dispatcher hop, and sends due in the same tick keep their order
         system.scheduler().scheduleOnce(
                 Duration.create(delay, TimeUnit.MILLISECONDS),
                 target, message,
-                system.dispatcher(),
+                SAME_THREAD,
                 sender
         );
     }
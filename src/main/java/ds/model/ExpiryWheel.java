@@ -0,0 +1,81 @@
+package ds.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Hashed timer wheel of key expiry deadlines. A deadline goes into the slot of its tick
+(deadline / tickMs modulo the wheel size), so scheduling is O(1) whatever the TTL. Deadlines
+more than one revolution away share a slot with nearer ones and are skipped until their
+own revolution comes round. expired() walks the slots of the ticks that fully elapsed and
+returns at most budget keys, so a node can reclaim memory in small steps between messages;
+a slot left unfinished is resumed on the next call.
+
+The wheel does not follow overwrites: a returned key may have been rewritten with a later
+deadline (or none) since, and the caller checks the stored item before dropping it.
+ */
+public final class ExpiryWheel {
+
+    private record Entry(int key, long expiresAt) {}
+
+    private final long tickMs;
+    private final ArrayDeque<Entry>[] slots;
+    private long cursor;   // first tick not fully processed
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public ExpiryWheel(int slotCount, long tickMs, long nowMs) {
+        if (slotCount <= 0 || tickMs <= 0) {
+            throw new IllegalArgumentException("slotCount and tickMs must be positive");
+        }
+        this.tickMs = tickMs;
+        this.slots = new ArrayDeque[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.cursor = nowMs / tickMs;
+    }
+
+    public void schedule(int key, long expiresAt) {
+        // A deadline already passed goes into the slot processed next
+        long tick = Math.max(expiresAt / tickMs, cursor);
+        slotOf(tick).add(new Entry(key, expiresAt));
+        size++;
+    }
+
+    // Keys whose deadline is at or before nowMs, at most budget of them
+    public List<Integer> expired(long nowMs, int budget) {
+        List<Integer> due = new ArrayList<>();
+        long now = nowMs / tickMs;
+        if (size == 0) {
+            cursor = Math.max(cursor, now);
+            return due;
+        }
+        while (cursor < now && due.size() < budget) {
+            ArrayDeque<Entry> slot = slotOf(cursor);
+            for (int scan = slot.size(); scan > 0 && due.size() < budget; scan--) {
+                Entry entry = slot.poll();
+                if (entry.expiresAt() / tickMs <= cursor) {
+                    due.add(entry.key());
+                    size--;
+                } else {
+                    slot.add(entry);  // a later revolution
+                }
+            }
+            if (due.size() >= budget) {
+                break;  // resume this slot next time
+            }
+            cursor++;
+        }
+        return due;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private ArrayDeque<Entry> slotOf(long tick) {
+        return slots[(int) Math.floorMod(tick, (long) slots.length)];
+    }
+}
@@ -0,0 +1,30 @@
+package ds.model;
+
+import ds.config.Settings;
+
+import akka.actor.ActorRef;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Default network: every link has the same Gaussian delay, nothing is lost
+public class GaussianNetworkModel implements NetworkModel {
+
+    private final int meanMs;
+    private final int stddevMs;
+
+    public GaussianNetworkModel() {
+        this(Settings.meanMs, Settings.stddevMs);
+    }
+
+    public GaussianNetworkModel(int meanMs, int stddevMs) {
+        this.meanMs = meanMs;
+        this.stddevMs = stddevMs;
+    }
+
+    @Override
+    public long delayMs(ActorRef sender, ActorRef target, Object message) {
+        // Thread-local random: dispatcher threads never contend on a shared seed
+        double val = meanMs + ThreadLocalRandom.current().nextGaussian() * stddevMs;
+        return Math.abs((long) val);
+    }
+}
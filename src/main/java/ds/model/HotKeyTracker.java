@@ -0,0 +1,95 @@
+package ds.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/*
+Request frequency per key in constant memory: a count-min sketch estimates the count of any
+key (never under, over by at most the collisions in its least loaded row) and a min-heap keeps
+the topK keys with the highest estimates. decay() halves every counter, so the counts follow
+an exponentially weighted history and keys cool down once their traffic drops.
+ */
+public final class HotKeyTracker {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int width;
+    private final int topK;
+    private final long[][] counters;
+    private final Map<Integer, Long> candidates = new HashMap<>();
+    private final PriorityQueue<Integer> coldestFirst;
+
+    public HotKeyTracker(int width, int topK) {
+        if (width <= 0 || topK <= 0) {
+            throw new IllegalArgumentException("width and topK must be positive");
+        }
+        this.width = width;
+        this.topK = topK;
+        this.counters = new long[DEPTH][width];
+        this.coldestFirst = new PriorityQueue<>(Comparator.comparingLong(candidates::get));
+    }
+
+    // Counts one request for key and returns its estimated count
+    public long record(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, ++counters[row][indexOf(key, row)]);
+        }
+        if (candidates.containsKey(key)) {
+            coldestFirst.remove(key);
+            candidates.put(key, estimate);
+            coldestFirst.add(key);
+        } else if (candidates.size() < topK) {
+            candidates.put(key, estimate);
+            coldestFirst.add(key);
+        } else if (estimate > candidates.get(coldestFirst.peek())) {
+            candidates.remove(coldestFirst.poll());
+            candidates.put(key, estimate);
+            coldestFirst.add(key);
+        }
+        return estimate;
+    }
+
+    public long estimate(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters[row][indexOf(key, row)]);
+        }
+        return estimate;
+    }
+
+    // Top keys whose estimated count reached threshold, hottest first
+    public List<Integer> hotKeys(long threshold) {
+        List<Integer> hot = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : candidates.entrySet()) {
+            if (entry.getValue() >= threshold) {
+                hot.add(entry.getKey());
+            }
+        }
+        hot.sort(Comparator.comparingLong((Integer key) -> candidates.get(key)).reversed());
+        return hot;
+    }
+
+    public void decay() {
+        for (long[] row : counters) {
+            for (int i = 0; i < width; i++) {
+                row[i] >>= 1;
+            }
+        }
+        coldestFirst.clear();
+        candidates.replaceAll((key, count) -> count >> 1);
+        candidates.values().removeIf(count -> count == 0);
+        coldestFirst.addAll(candidates.keySet());
+    }
+
+    private int indexOf(int key, int row) {
+        int h = key * SEEDS[row];
+        h ^= h >>> 16;
+        return Math.floorMod(h, width);
+    }
+}
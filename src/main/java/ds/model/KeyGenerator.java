@@ -0,0 +1,91 @@
+package ds.model;
+
+import java.util.Random;
+
+// Draws keys in [0, keySpace) following a workload's access distribution
+public class KeyGenerator {
+
+    public enum Distribution {
+        UNIFORM,
+        ZIPFIAN,
+        HOTSPOT,
+    }
+
+    // Zipfian skew (YCSB default) and hotspot shape: 20% of the keys get 80% of the operations
+    private static final double ZIPF_THETA = 0.99;
+    private static final double HOT_KEY_FRACTION = 0.2;
+    private static final double HOT_OP_FRACTION = 0.8;
+
+    private final Distribution distribution;
+    private final int keySpace;
+
+    // Precomputed zipfian constants (Gray et al., "Quickly generating billion-record synthetic databases")
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    public KeyGenerator(Distribution distribution, int keySpace) {
+        if (keySpace <= 0) {
+            throw new IllegalArgumentException("keySpace must be > 0");
+        }
+        this.distribution = distribution;
+        this.keySpace = keySpace;
+        if (distribution == Distribution.ZIPFIAN) {
+            double zeta2 = zeta(2, ZIPF_THETA);
+            this.zetaN = zeta(keySpace, ZIPF_THETA);
+            this.alpha = 1.0 / (1.0 - ZIPF_THETA);
+            this.eta = (1 - Math.pow(2.0 / keySpace, 1 - ZIPF_THETA)) / (1 - zeta2 / zetaN);
+        } else {
+            this.zetaN = 0;
+            this.alpha = 0;
+            this.eta = 0;
+        }
+    }
+
+    public int nextKey(Random rnd) {
+        switch (distribution) {
+            case ZIPFIAN:
+                return scramble(nextZipfianRank(rnd));
+            case HOTSPOT:
+                int hotKeys = Math.max(1, (int) (keySpace * HOT_KEY_FRACTION));
+                if (hotKeys == keySpace || rnd.nextDouble() < HOT_OP_FRACTION) {
+                    return rnd.nextInt(hotKeys);
+                }
+                return hotKeys + rnd.nextInt(keySpace - hotKeys);
+            case UNIFORM:
+            default:
+                return rnd.nextInt(keySpace);
+        }
+    }
+
+    private int nextZipfianRank(Random rnd) {
+        double u = rnd.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, ZIPF_THETA)) {
+            return Math.min(1, keySpace - 1);
+        }
+        int rank = (int) (keySpace * Math.pow(eta * u - eta + 1, alpha));
+        return Math.min(rank, keySpace - 1);
+    }
+
+    // Spread popular ranks over the ring instead of piling them on the first node
+    private int scramble(int rank) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < 4; i++) {
+            hash ^= (rank >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return (int) Math.floorMod(hash, (long) keySpace);
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1.0 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,132 @@
+package ds.model;
+
+import ds.config.Settings;
+
+import akka.actor.ActorRef;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-link network: each directed link between two endpoints has its own latency
+// distribution, bandwidth cap, loss rate and ordering guarantee, and links can be
+// partitioned at runtime. Endpoints are node names as returned by NetworkModel.endpointOf.
+public class LinkNetworkModel implements NetworkModel {
+
+    /*
+    Link profile parameters:
+        meanMs / stddevMs       Gaussian propagation delay
+        bandwidthBytesPerMs     transmission rate, 0 = unlimited
+        lossRate                probability in [0, 1] that a message is dropped
+        reorder                 false keeps the link FIFO, true lets jitter reorder messages
+     */
+    public record LinkProfile(int meanMs, int stddevMs, int bandwidthBytesPerMs, double lossRate, boolean reorder) {
+        public LinkProfile(int meanMs, int stddevMs) {
+            this(meanMs, stddevMs, 0, 0.0, true);
+        }
+
+        public static LinkProfile defaults() {
+            return new LinkProfile(Settings.meanMs, Settings.stddevMs, Settings.bandwidthBytesPerMs, Settings.lossRate, true);
+        }
+    }
+
+    private record Link(String from, String to) {}
+
+    // Mutable per-link state; each link owns its random so senders never share one
+    private static final class LinkState {
+        private final Random rnd = new Random();
+        private long busyUntilMs = 0;       // end of the last transmission on the link
+        private long lastDeliveryMs = 0;    // latest scheduled delivery, for FIFO links
+    }
+
+    private final LinkProfile defaultProfile;
+    private final Map<Link, LinkProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<Link, LinkState> states = new ConcurrentHashMap<>();
+    private final Set<Link> partitioned = ConcurrentHashMap.newKeySet();
+
+    public LinkNetworkModel() {
+        this(LinkProfile.defaults());
+    }
+
+    public LinkNetworkModel(LinkProfile defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    // ======================= Configuration ====================
+
+    // Profile for the directed link from -> to
+    public void setLink(String from, String to, LinkProfile profile) {
+        profiles.put(new Link(from, to), profile);
+    }
+
+    // Same profile in both directions
+    public void setBidirectionalLink(String a, String b, LinkProfile profile) {
+        setLink(a, b, profile);
+        setLink(b, a, profile);
+    }
+
+    // Drop every message between a and b, in both directions
+    public void partition(String a, String b) {
+        partitioned.add(new Link(a, b));
+        partitioned.add(new Link(b, a));
+    }
+
+    public void heal(String a, String b) {
+        partitioned.remove(new Link(a, b));
+        partitioned.remove(new Link(b, a));
+    }
+
+    public void healAll() {
+        partitioned.clear();
+    }
+
+    public boolean isPartitioned(String from, String to) {
+        return partitioned.contains(new Link(from, to));
+    }
+
+    // ======================= Delay computation ====================
+
+    @Override
+    public long delayMs(ActorRef sender, ActorRef target, Object message) {
+        return delayMs(NetworkModel.endpointOf(sender), NetworkModel.endpointOf(target), MessageSize.estimate(message));
+    }
+
+    public long delayMs(String from, String to, int sizeBytes) {
+        return delayMs(from, to, sizeBytes, System.currentTimeMillis());
+    }
+
+    long delayMs(String from, String to, int sizeBytes, long nowMs) {
+        Link link = new Link(from, to);
+        if (partitioned.contains(link)) {
+            return DROP;
+        }
+        LinkProfile profile = profiles.getOrDefault(link, defaultProfile);
+        LinkState state = states.computeIfAbsent(link, l -> new LinkState());
+
+        synchronized (state) {
+            if (profile.lossRate() > 0 && state.rnd.nextDouble() < profile.lossRate()) {
+                return DROP;
+            }
+
+            // Transmission: messages queue behind each other on a capped link
+            long sendStart = nowMs;
+            if (profile.bandwidthBytesPerMs() > 0) {
+                sendStart = Math.max(nowMs, state.busyUntilMs);
+                long transmitMs = (sizeBytes + profile.bandwidthBytesPerMs() - 1) / profile.bandwidthBytesPerMs();
+                state.busyUntilMs = sendStart + transmitMs;
+                sendStart = state.busyUntilMs;
+            }
+
+            // Propagation
+            long propagationMs = Math.abs((long) (profile.meanMs() + state.rnd.nextGaussian() * profile.stddevMs()));
+            long deliveryMs = sendStart + propagationMs;
+
+            if (!profile.reorder()) {
+                deliveryMs = Math.max(deliveryMs, state.lastDeliveryMs);
+            }
+            state.lastDeliveryMs = Math.max(state.lastDeliveryMs, deliveryMs);
+            return deliveryMs - nowMs;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ds.model;
+
+import ds.model.Types.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Versioned membership view for gossip. Only a node raises its own version, so of two states of
+the same node the one with the higher version is the newer; at equal versions the later status
+(JOINING < UP < LEAVING < LEFT) wins, which makes merging commutative and idempotent. Every
+change becomes a rumor, handed out retransmitFactor * log2(n + 1) times and then dropped, so a
+change reaches the whole ring in O(log n) rounds with a bounded number of messages per node.
+ */
+public final class Membership {
+
+    private final int retransmitFactor;
+    private final Map<Integer, Member> members = new HashMap<>();
+    private final Map<Integer, Integer> rumors = new LinkedHashMap<>();  // nodeId -> transmissions left
+
+    public Membership(int retransmitFactor) {
+        if (retransmitFactor <= 0) {
+            throw new IllegalArgumentException("retransmitFactor must be positive");
+        }
+        this.retransmitFactor = retransmitFactor;
+    }
+
+    // Keeps state if it is newer than the known one; returns whether it was
+    public boolean apply(Member state) {
+        Member known = members.get(state.nodeId());
+        if (known != null && !isNewer(state, known)) {
+            return false;
+        }
+        members.put(state.nodeId(), state);
+        rumors.put(state.nodeId(), retransmissions());
+        return true;
+    }
+
+    // Records state if nothing is known about its node yet, without spreading it: for views
+    // learned in bulk (bootstrap, registration) that every node already shares
+    public void seed(Member state) {
+        members.putIfAbsent(state.nodeId(), state);
+    }
+
+    public Member get(int nodeId) {
+        return members.get(nodeId);
+    }
+
+    public Collection<Member> members() {
+        return members.values();
+    }
+
+    // Digest of the view: the version known for every member
+    public Map<Integer, Long> versions() {
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Member member : members.values()) {
+            versions.put(member.nodeId(), member.version());
+        }
+        return versions;
+    }
+
+    // States the holder of versions lacks or only knows in an older version
+    public List<Member> newerThan(Map<Integer, Long> versions) {
+        List<Member> newer = new ArrayList<>();
+        for (Member member : members.values()) {
+            Long version = versions.get(member.nodeId());
+            if (version == null || version < member.version()) {
+                newer.add(member);
+            }
+        }
+        return newer;
+    }
+
+    // Up to max recent changes to piggyback on an outgoing message
+    public List<Member> nextRumors(int max) {
+        List<Member> batch = new ArrayList<>();
+        Iterator<Map.Entry<Integer, Integer>> it = rumors.entrySet().iterator();
+        while (it.hasNext() && batch.size() < max) {
+            Map.Entry<Integer, Integer> rumor = it.next();
+            batch.add(members.get(rumor.getKey()));
+            if (rumor.getValue() <= 1) {
+                it.remove();
+            } else {
+                rumor.setValue(rumor.getValue() - 1);
+            }
+        }
+        return batch;
+    }
+
+    public int pendingRumors() {
+        return rumors.size();
+    }
+
+    private int retransmissions() {
+        int n = Math.max(1, members.size());
+        return retransmitFactor * (32 - Integer.numberOfLeadingZeros(n));  // factor * ceil(log2(n + 1))
+    }
+
+    private static boolean isNewer(Member candidate, Member current) {
+        return candidate.version() > current.version()
+            || candidate.version() == current.version() && candidate.status().compareTo(current.status()) > 0;
+    }
+}
@@ -0,0 +1,85 @@
+package ds.model;
+
+import akka.actor.ActorRef;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Collection;
+import java.util.Map;
+
+// Rough wire size of a message, used by the network model for bandwidth caps.
+// Walks record components so new message types are covered without extra code.
+public final class MessageSize {
+
+    private static final int HEADER_BYTES = 16;
+    private static final int ACTOR_REF_BYTES = 64;
+
+    private static final ClassValue<RecordComponent[]> COMPONENTS = new ClassValue<>() {
+        @Override
+        protected RecordComponent[] computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            for (RecordComponent component : components) {
+                component.getAccessor().setAccessible(true);
+            }
+            return components;
+        }
+    };
+
+    private MessageSize() {}
+
+    public static int estimate(Object message) {
+        return HEADER_BYTES + sizeOf(message);
+    }
+
+    private static int sizeOf(Object value) {
+        if (value == null) {
+            return 1;
+        }
+        if (value instanceof String s) {
+            return 4 + s.length();
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return 8;
+        }
+        if (value instanceof Boolean || value instanceof Byte || value instanceof Enum) {
+            return 1;
+        }
+        if (value instanceof byte[] bytes) {
+            return 4 + bytes.length;
+        }
+        if (value instanceof Value v) {
+            return 5 + v.storedSize();
+        }
+        if (value instanceof ActorRef) {
+            return ACTOR_REF_BYTES;
+        }
+        if (value instanceof Map<?, ?> map) {
+            int size = 4;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            int size = 4;
+            for (Object element : collection) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        if (value.getClass().isRecord()) {
+            int size = 0;
+            for (RecordComponent component : COMPONENTS.get(value.getClass())) {
+                try {
+                    size += sizeOf(component.getAccessor().invoke(value));
+                } catch (ReflectiveOperationException e) {
+                    size += 8;
+                }
+            }
+            return size;
+        }
+        return 8;
+    }
+}
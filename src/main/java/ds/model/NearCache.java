@@ -0,0 +1,103 @@
+package ds.model;
+
+import ds.model.Types.DataItem;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Client-side LRU cache of recently read or written items, bounded by entry count and by the
+// stored size of the values. Entries remember when they were last confirmed by the cluster,
+// so the client can serve them within a staleness bound or revalidate them with a version probe.
+public final class NearCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    public record Entry(DataItem item, long confirmedAtMs) {}
+
+    public record Stats(long hits, long validatedHits, long misses, long evictions, int entries, long bytes) {
+        // Reads answered without a quorum round, fresh or after a successful version probe
+        public double hitRate() {
+            long total = hits + validatedHits + misses;
+            return total == 0 ? 0.0 : (double) (hits + validatedHits) / total;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+    private long hits = 0;
+    private long validatedHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public NearCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    // Entry for key, or null if absent or expired; refreshes its LRU position
+    public Entry lookup(int key, long nowMs) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.item().isExpired(nowMs)) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    // Keeps the newer of the cached and the given item, confirmed now
+    public void put(int key, DataItem item, long nowMs) {
+        Entry existing = entries.get(key);
+        if (existing != null && isNewer(existing.item(), item)) {
+            item = existing.item();  // a lagging replica must not roll the cache back
+        }
+        remove(key);
+        entries.put(key, new Entry(item, nowMs));
+        bytes += weightOf(item);
+        evict();
+    }
+
+    public void remove(int key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= weightOf(removed.item());
+        }
+    }
+
+    public void recordHit() {
+        hits++;
+    }
+
+    public void recordValidatedHit() {
+        validatedHits++;
+    }
+
+    public void recordMiss() {
+        misses++;
+    }
+
+    public Stats stats() {
+        return new Stats(hits, validatedHits, misses, evictions, entries.size(), bytes);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= weightOf(eldest.next().getValue().item());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // Same total order as quorum resolution: version, then nodeId
+    private static boolean isNewer(DataItem candidate, DataItem current) {
+        return candidate.version() > current.version()
+            || candidate.version() == current.version() && candidate.nodeId() > current.nodeId();
+    }
+
+    private static long weightOf(DataItem item) {
+        return ENTRY_OVERHEAD_BYTES + (item.value() == null ? 0 : item.value().storedSize());
+    }
+}
@@ -0,0 +1,29 @@
+package ds.model;
+
+import akka.actor.ActorRef;
+
+// Simulated network used by the Delayer to decide when (and whether) a message is delivered
+public interface NetworkModel {
+
+    // Returned by delayMs when the message is lost on the link
+    long DROP = -1L;
+
+    // Delay in milliseconds before message reaches target, or DROP
+    long delayMs(ActorRef sender, ActorRef target, Object message);
+
+    // Name of the network endpoint an actor lives on: handlers are children of
+    // their node, so they share the node's links (akka://MainSystem/user/node10/$a -> node10)
+    static String endpointOf(ActorRef ref) {
+        if (ref == null || ref.equals(ActorRef.noSender())) {
+            return "none";
+        }
+        int depth = 0;
+        for (String element : ref.path().getElements()) {
+            if (depth == 1) {
+                return element;
+            }
+            depth++;
+        }
+        return ref.path().name();
+    }
+}
@@ -0,0 +1,108 @@
+package ds.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Phi-accrual failure detector (Hayashibara et al.): instead of a yes/no timeout, each peer gets
+a suspicion level phi = -log10(P(a heartbeat arrives later than now)), with the inter-arrival
+times modelled as a normal distribution over the last windowSize heartbeats. phi 1 means a 10%
+chance of a false suspicion, phi 8 one in 10^8. Peers never heard from have phi 0. A heartbeat
+from a suspected peer restarts its history, so the gap of the outage does not inflate the
+estimate.
+ */
+public final class PhiAccrualDetector {
+
+    private final double threshold;
+    private final int windowSize;
+    private final double minStdDevMs;
+    private final long firstIntervalMs;
+    private final Map<Integer, History> histories = new HashMap<>();
+
+    // Inter-arrival times of one peer, a ring buffer with running sums
+    private final class History {
+        final long[] intervals = new long[windowSize];
+        int count = 0;
+        int next = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        long lastArrivalMs;
+
+        History(long nowMs) {
+            lastArrivalMs = nowMs;
+            add(firstIntervalMs);  // a guess until real intervals come in
+        }
+
+        void add(long interval) {
+            if (count == windowSize) {
+                sum -= intervals[next];
+                sumOfSquares -= (double) intervals[next] * intervals[next];
+            } else {
+                count++;
+            }
+            intervals[next] = interval;
+            next = (next + 1) % windowSize;
+            sum += interval;
+            sumOfSquares += (double) interval * interval;
+        }
+
+        double mean() {
+            return sum / count;
+        }
+
+        double stdDev() {
+            double mean = mean();
+            return Math.max(minStdDevMs, Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean)));
+        }
+    }
+
+    public PhiAccrualDetector(double threshold, int windowSize, long minStdDevMs, long firstIntervalMs) {
+        if (threshold <= 0 || windowSize <= 0 || minStdDevMs <= 0 || firstIntervalMs <= 0) {
+            throw new IllegalArgumentException("Invalid detector parameters");
+        }
+        this.threshold = threshold;
+        this.windowSize = windowSize;
+        this.minStdDevMs = minStdDevMs;
+        this.firstIntervalMs = firstIntervalMs;
+    }
+
+    public void heartbeat(int peerId, long nowMs) {
+        History history = histories.get(peerId);
+        if (history == null || phi(peerId, nowMs) >= threshold) {
+            histories.put(peerId, new History(nowMs));
+            return;
+        }
+        history.add(Math.max(0, nowMs - history.lastArrivalMs));
+        history.lastArrivalMs = nowMs;
+    }
+
+    public double phi(int peerId, long nowMs) {
+        History history = histories.get(peerId);
+        if (history == null) {
+            return 0.0;
+        }
+        return phi(nowMs - history.lastArrivalMs, history.mean(), history.stdDev());
+    }
+
+    public boolean isSuspected(int peerId, long nowMs) {
+        return phi(peerId, nowMs) >= threshold;
+    }
+
+    public void remove(int peerId) {
+        histories.remove(peerId);
+    }
+
+    public void clear() {
+        histories.clear();
+    }
+
+    // Logistic approximation of the normal tail, as in Akka's detector; accurate to ~1e-4
+    static double phi(long elapsedMs, double mean, double stdDev) {
+        double y = (elapsedMs - mean) / stdDev;
+        double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+        if (elapsedMs > mean) {
+            return -Math.log10(e / (1.0 + e));
+        }
+        return -Math.log10(1.0 - 1.0 / (1.0 + e));
+    }
+}
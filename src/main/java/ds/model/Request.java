@@ -9,17 +9,24 @@ public class Request {
         GET,
         UPDATE,
         GET_JOIN,
+        CAS,
     }
 
     private final ActorRef requester;
     private final RequestType type;
     private final int dataKey;
+    private final long reqId;
     private Result result;
 
     public Request(ActorRef requester, RequestType type, int dataKey) {
+        this(requester, type, dataKey, 0L);
+    }
+
+    public Request(ActorRef requester, RequestType type, int dataKey, long reqId) {
         this.requester = requester;
         this.type = type;
         this.dataKey = dataKey;
+        this.reqId = reqId;
         this.result = null;
     }
 
@@ -35,6 +42,10 @@ public class Request {
         return dataKey;
     }
     
+    public long getReqId() {
+        return reqId;
+    }
+
     public Result getResult() {
         return result;
     }
@@ -0,0 +1,135 @@
+package ds.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Ring placement: node ids are positions on a circle, a key belongs to the first
+// node with id >= key (wrapping around) and to the next N-1 nodes clockwise
+public final class Ring {
+
+    // Contiguous key range [fromKey, toKey] owned by the same replicas
+    public record Segment(int fromKey, int toKey) {}
+
+    private Ring() {}
+
+    // Ids of the nodes responsible for key, primary first
+    public static List<Integer> findReplicaNodesIds(int key, Collection<Integer> nodeIds, int n) {
+        List<Integer> replicas = new ArrayList<>();
+        List<Integer> sortedNodeIds = new ArrayList<>(nodeIds);
+        Collections.sort(sortedNodeIds);
+        int size = sortedNodeIds.size();
+        if (size == 0) {
+            return replicas;
+        }
+        int startIndex = 0;
+        for (int i = 0; i < size; i++) {
+            if (sortedNodeIds.get(i) >= key) {
+                startIndex = i;
+                break;
+            }
+        }
+        for (int i = 0; i < Math.min(n, size); i++) {
+            int index = (startIndex + i) % size;
+            replicas.add(sortedNodeIds.get(index));
+        }
+        return replicas;
+    }
+
+    // The extra nodes after the n replicas of key, clockwise: read-only copies of a hot key
+    public static List<Integer> extraReplicaIds(int key, Collection<Integer> nodeIds, int n, int extra) {
+        List<Integer> ids = findReplicaNodesIds(key, nodeIds, n + extra);
+        return ids.size() > n ? new ArrayList<>(ids.subList(n, ids.size())) : new ArrayList<>();
+    }
+
+    // [startKey, endKey] split at node positions, in ascending key order. Each segment ends at
+    // the node owning it, except the last one, past the highest node, which wraps to the first.
+    public static List<Segment> segments(int startKey, int endKey, Collection<Integer> nodeIds) {
+        List<Segment> segments = new ArrayList<>();
+        if (startKey > endKey || nodeIds.isEmpty()) {
+            return segments;
+        }
+        List<Integer> sortedNodeIds = new ArrayList<>(nodeIds);
+        Collections.sort(sortedNodeIds);
+        int from = startKey;
+        for (int nodeId : sortedNodeIds) {
+            if (nodeId < from) {
+                continue;
+            }
+            if (nodeId >= endKey) {
+                break;
+            }
+            segments.add(new Segment(from, nodeId));
+            from = nodeId + 1;
+        }
+        segments.add(new Segment(from, endKey));
+        return segments;
+    }
+
+    // Key ranges selfId replicates among nodeIds: the n ranges that end at selfId and at the
+    // n-1 nodes before it, each starting after the node before its end. A range with
+    // fromKey > toKey wraps around the end of the key space.
+    public static List<Segment> replicatedRanges(int selfId, Collection<Integer> nodeIds, int n) {
+        List<Segment> ranges = new ArrayList<>();
+        List<Integer> allNodeIds = new ArrayList<>(nodeIds);
+        if (!allNodeIds.contains(selfId)) {
+            allNodeIds.add(selfId);
+        }
+        Collections.sort(allNodeIds);
+
+        int totalNodes = allNodeIds.size();
+        int currentIndex = allNodeIds.indexOf(selfId);
+        for (int i = 0; i < Math.min(n, totalNodes); i++) {
+            int end = allNodeIds.get(Math.floorMod(currentIndex - i, totalNodes));
+            int before = allNodeIds.get(Math.floorMod(currentIndex - i - 1, totalNodes));
+            ranges.add(new Segment(before + 1, end));
+        }
+        return ranges;
+    }
+
+    // Ids of the nodes at most distance positions from selfId in either direction (selfId excluded):
+    // with distance N-1, the nodes that replicate a range together with selfId
+    public static List<Integer> ringNeighborIds(int selfId, Collection<Integer> peerIds, int distance) {
+        List<Integer> neighbors = clockwiseNeighborIds(selfId, peerIds, distance);
+        List<Integer> allNodeIds = new ArrayList<>(peerIds);
+        if (!allNodeIds.contains(selfId)) {
+            allNodeIds.add(selfId);
+        }
+        Collections.sort(allNodeIds);
+
+        int totalNodes = allNodeIds.size();
+        int currentIndex = allNodeIds.indexOf(selfId);
+        for (int i = 1; i <= Math.min(distance, totalNodes - 1); i++) {
+            int nodeId = allNodeIds.get(Math.floorMod(currentIndex - i, totalNodes));
+            if (!neighbors.contains(nodeId)) {
+                neighbors.add(nodeId);
+            }
+        }
+        return neighbors;
+    }
+
+    // Ids of the next count nodes clockwise from selfId (selfId excluded)
+    public static List<Integer> clockwiseNeighborIds(int selfId, Collection<Integer> peerIds, int count) {
+        List<Integer> neighbors = new ArrayList<>();
+        List<Integer> allNodeIds = new ArrayList<>(peerIds);
+        if (!allNodeIds.contains(selfId)) {
+            allNodeIds.add(selfId);
+        }
+        Collections.sort(allNodeIds);
+
+        int totalNodes = allNodeIds.size();
+        if (totalNodes <= 1) {
+            return neighbors;
+        }
+
+        // Limit count to available nodes (excluding self)
+        count = Math.min(count, totalNodes - 1);
+        int currentIndex = allNodeIds.indexOf(selfId);
+
+        for (int i = 1; i <= count; i++) {
+            neighbors.add(allNodeIds.get((currentIndex + i) % totalNodes));
+        }
+        return neighbors;
+    }
+}
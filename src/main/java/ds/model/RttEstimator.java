@@ -0,0 +1,44 @@
+package ds.model;
+
+// Round-trip time of one peer, smoothed as in TCP (RFC 6298): srtt is an EWMA of the samples,
+// rttvar an EWMA of their deviation from it, and a reply later than srtt + 4 * rttvar is
+// unlikely enough to call the request lost.
+public final class RttEstimator {
+
+    private static final double ALPHA = 0.125;  // gain of srtt
+    private static final double BETA = 0.25;    // gain of rttvar
+
+    private double srttMs = -1;
+    private double rttvarMs = 0;
+
+    public void sample(double rttMs) {
+        if (srttMs < 0) {
+            srttMs = rttMs;
+            rttvarMs = rttMs / 2;
+        } else {
+            rttvarMs = (1 - BETA) * rttvarMs + BETA * Math.abs(srttMs - rttMs);
+            srttMs = (1 - ALPHA) * srttMs + ALPHA * rttMs;
+        }
+    }
+
+    public boolean hasSamples() {
+        return srttMs >= 0;
+    }
+
+    public double srttMs() {
+        return srttMs;
+    }
+
+    public double rttvarMs() {
+        return rttvarMs;
+    }
+
+    // srtt + 4 * rttvar within [floorMs, ceilingMs]; ceilingMs until the first sample
+    public long timeoutMs(long floorMs, long ceilingMs) {
+        if (!hasSamples()) {
+            return ceilingMs;
+        }
+        long timeout = (long) Math.ceil(srttMs + 4 * rttvarMs);
+        return Math.max(floorMs, Math.min(ceilingMs, timeout));
+    }
+}
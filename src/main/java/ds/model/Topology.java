@@ -0,0 +1,149 @@
+package ds.model;
+
+import ds.model.Types.TopologyDelta;
+
+import akka.actor.ActorRef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/*
+Immutable, epoch-stamped snapshot of the ring. A change returns a new snapshot, so a snapshot
+can be handed to messages and other actors by reference without copying. Each snapshot keeps
+the last LOG_SIZE changes, enough to answer "what changed since epoch e" with a delta instead
+of the whole ring; a change is stamped with the epoch of its node at the time it was applied,
+so every change a node learns after answering at epoch e is stamped e or later. Per node, the
+epoch of its latest change is kept (also for nodes that left), and an older join or leave
+arriving late is ignored.
+ */
+public final class Topology {
+
+    static final int LOG_SIZE = 64;
+
+    private record Change(long epoch, int nodeId, ActorRef ref) {}  // ref null = left
+
+    private final long epoch;
+    private final SortedMap<Integer, ActorRef> nodes;
+    private final Map<Integer, Long> changedAt;  // node id -> epoch of its latest change
+    private final List<Change> log;              // oldest first
+    private final long logFloor;                 // changes stamped up to here may be missing from log
+
+    private Topology(long epoch, SortedMap<Integer, ActorRef> nodes, Map<Integer, Long> changedAt,
+                     List<Change> log, long logFloor) {
+        this.epoch = epoch;
+        this.nodes = Collections.unmodifiableSortedMap(nodes);
+        this.changedAt = changedAt;
+        this.log = log;
+        this.logFloor = logFloor;
+    }
+
+    // The ring every node starts from, before any change
+    public static Topology initial(Map<Integer, ActorRef> nodes) {
+        return new Topology(0, new TreeMap<>(nodes), Map.of(), List.of(), -1);
+    }
+
+    // A ring received whole at epoch: the changes that led to it are unknown
+    public static Topology of(Map<Integer, ActorRef> nodes, long epoch) {
+        return new Topology(epoch, new TreeMap<>(nodes), Map.of(), List.of(), epoch);
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public SortedMap<Integer, ActorRef> nodes() {
+        return nodes;
+    }
+
+    public ActorRef get(int nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    // nodeId joined with ref by a change made at changeEpoch, applied at epoch
+    public Topology with(int nodeId, ActorRef ref, long changeEpoch, long epoch) {
+        if (ref.equals(nodes.get(nodeId)) || isStale(nodeId, changeEpoch)) {
+            return this;
+        }
+        SortedMap<Integer, ActorRef> next = new TreeMap<>(nodes);
+        next.put(nodeId, ref);
+        return changed(next, nodeId, ref, changeEpoch, epoch);
+    }
+
+    // nodeId left by a change made at changeEpoch, applied at epoch; remembered even if
+    // nodeId is not known yet, so that its join arriving late is not applied
+    public Topology without(int nodeId, long changeEpoch, long epoch) {
+        if (isStale(nodeId, changeEpoch)) {
+            return this;
+        }
+        SortedMap<Integer, ActorRef> next = new TreeMap<>(nodes);
+        next.remove(nodeId);
+        return changed(next, nodeId, null, changeEpoch, epoch);
+    }
+
+    // The changes stamped sinceEpoch or later, folded to the last one per node; null when the
+    // log no longer reaches back that far and the whole ring must be sent
+    public TopologyDelta delta(long sinceEpoch, long currentEpoch) {
+        if (sinceEpoch <= logFloor) {
+            return null;
+        }
+        Map<Integer, ActorRef> joined = new HashMap<>();
+        Set<Integer> left = new HashSet<>();
+        for (Change change : log) {
+            if (change.epoch() < sinceEpoch) {
+                continue;
+            }
+            if (change.ref() != null) {
+                joined.put(change.nodeId(), change.ref());
+                left.remove(change.nodeId());
+            } else {
+                left.add(change.nodeId());
+                joined.remove(change.nodeId());
+            }
+        }
+        return new TopologyDelta(sinceEpoch, currentEpoch, joined, left, nodes.size());
+    }
+
+    // Snapshot of a delta applied on top of this one, or this one if the delta is older
+    public Topology apply(TopologyDelta delta) {
+        if (delta.epoch() < epoch) {
+            return this;
+        }
+        SortedMap<Integer, ActorRef> next = new TreeMap<>(nodes);
+        next.putAll(delta.joined());
+        next.keySet().removeAll(delta.left());
+        return of(next, delta.epoch());
+    }
+
+    private boolean isStale(int nodeId, long changeEpoch) {
+        Long latest = changedAt.get(nodeId);
+        return latest != null && changeEpoch < latest;
+    }
+
+    private Topology changed(SortedMap<Integer, ActorRef> next, int nodeId, ActorRef ref, long changeEpoch, long epoch) {
+        long stamp = Math.max(this.epoch, epoch);
+        Map<Integer, Long> nextChangedAt = new HashMap<>(changedAt);
+        nextChangedAt.put(nodeId, changeEpoch);
+        List<Change> nextLog = new ArrayList<>(log);
+        nextLog.add(new Change(stamp, nodeId, ref));
+        long floor = logFloor;
+        if (nextLog.size() > LOG_SIZE) {
+            floor = Math.max(floor, nextLog.remove(0).epoch());
+        }
+        return new Topology(stamp, next, Collections.unmodifiableMap(nextChangedAt), List.copyOf(nextLog), floor);
+    }
+}
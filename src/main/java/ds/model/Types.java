@@ -1,14 +1,32 @@
 package ds.model;
 
+import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
 
 import akka.actor.ActorRef;
 
 public class Types {
+
+    // Every message may cross a JVM boundary when nodes run as separate processes.
+    // Bound to TypesSerializer in remote.conf; Serializable stays as the Java baseline.
+    public interface Message extends Serializable {}
     
     // ==================== Data Models ====================
     
-    public record DataItem(String value, long version, int nodeId) {
+    // value is null for a key that was never written. expiresAt is a wall-clock deadline in
+    // ms, set once by the coordinator so every replica drops the item together; 0 = never.
+    public record DataItem(Value value, long version, int nodeId, long expiresAt) implements Serializable {
+        public DataItem(Value value, long version, int nodeId) {
+            this(value, version, nodeId, 0L);
+        }
+
+        public DataItem(String value, long version, int nodeId) {
+            this(Value.of(value), version, nodeId);
+        }
+
         public DataItem(String value) {
             this(value, 0L, 0);
         }
@@ -16,59 +34,188 @@ public class Types {
         public DataItem(String value, long version) {
             this(value, version, 0);
         }
+
+        public boolean isExpired(long nowMs) {
+            return expiresAt != 0 && expiresAt <= nowMs;
+        }
     }
+
+    // Outcome of a compare-and-set: the item as written if applied, else the current one
+    public record CasResult(boolean applied, DataItem item) implements Serializable {}
     
     // ==================== Client -> Coordinator Node Messages ====================
     
-    public record ClientGetRequest(int key) {}
-    public record ClientUpdateRequest(int key, String value) {}
-    public record SetPeers(Map<Integer, ActorRef> peers) {}
-    public record AddPeer(int id, ActorRef peer) {}
+    // reqId is chosen by the client and echoed back in the Result, 0 = not tracked.
+    // epoch is the topology epoch of the client's cached ring, 0 = unknown.
+    public record ClientGetRequest(int key, long reqId, long epoch) implements Message {
+        public ClientGetRequest(int key) {
+            this(key, 0L, 0L);
+        }
+        public ClientGetRequest(int key, long reqId) {
+            this(key, reqId, 0L);
+        }
+    }
+    // ttlMs > 0: the item expires that long after the coordinator wrote it
+    public record ClientUpdateRequest(int key, Value value, long reqId, long epoch, long ttlMs) implements Message {
+        public ClientUpdateRequest(int key, Value value) {
+            this(key, value, 0L, 0L);
+        }
+        public ClientUpdateRequest(int key, Value value, long reqId) {
+            this(key, value, reqId, 0L);
+        }
+        public ClientUpdateRequest(int key, Value value, long reqId, long epoch) {
+            this(key, value, reqId, epoch, 0L);
+        }
+    }
+    // Writes value only if the key's latest version is expectedVersion (0 = absent).
+    // Coordinated by the key's primary, one at a time per key.
+    public record ClientCasRequest(int key, long expectedVersion, Value value, long ttlMs, long reqId, long epoch) implements Message {}
+    public record SetPeers(Map<Integer, ActorRef> peers) implements Message {}
+    public record AddPeer(int id, ActorRef peer, long epoch) implements Message {}
     
     // ==================== Coordinator Node -> Client Messages ====================
     
-    public record ClientGetResponse(int key, DataItem value) {}
-    public record ClientUpdateResponse(int key, boolean success) {}
+    public record ClientGetResponse(int key, DataItem value) implements Message {}
+    public record ClientUpdateResponse(int key, boolean success) implements Message {}
     
     // ==================== Handler -> Replica Node Messages ====================
     
-    public record ReadDataRequest(int key, long clock) {}
-    public record WriteDataRequest(int key, DataItem dataItem) {}
+    public record ReadDataRequest(int key, long clock) implements Message {}
+    public record WriteDataRequest(int key, DataItem dataItem) implements Message {}
+    // Sloppy quorum: a write held by a stand-in until replica ownerId is reachable again
+    public record HintedWrite(int key, DataItem dataItem, int ownerId) implements Message {}
     
     // ==================== Replica Node -> Handler Messages ====================
     
-    public record ReadDataResponse(DataItem value, long clock) {}
+    public record ReadDataResponse(DataItem value, long clock) implements Message {}
     
     // ==================== Handler -> Coordinator Node Messages ====================
     
-    public record Result(int op_id, DataItem value) {}
+    // epoch is the coordinator's topology epoch, so clients notice a stale ring.
+    // status CONFLICT: a compare-and-set found another version, value is the current item.
+    // status OVERLOADED: the coordinator shed the request without running it, value is null.
+    public record Result(int op_id, DataItem value, long reqId, long epoch, Status status) implements Message {
+        public enum Status { OK, FAILED, CONFLICT, OVERLOADED }
+
+        public Result(int op_id, DataItem value) {
+            this(op_id, value, 0L, 0L);
+        }
+        public Result(int op_id, DataItem value, long reqId) {
+            this(op_id, value, reqId, 0L);
+        }
+        public Result(int op_id, DataItem value, long reqId, long epoch) {
+            this(op_id, value, reqId, epoch, value == null ? Status.FAILED : Status.OK);
+        }
+    }
     
     // ==================== Handler Internal Messages ====================
     
-    public record OperationTimeout() {}
+    public record OperationTimeout() implements Message {}
 
     // ==================== Crashing operation ====================
-    public record Crash() {}
-    public record Recover(ActorRef nodeRef) {}
-    public record TopologyRequest() {}
-    public record TopologyResponse(Map<Integer, ActorRef> peers) {}
+    public record Crash() implements Message {}
+    public record Recover(ActorRef nodeRef) implements Message {}
+    // A requester that knows the ring as of sinceEpoch gets a TopologyDelta when the node still
+    // has the changes since then, the whole ring otherwise; sinceEpoch < 0 asks for the whole ring
+    public record TopologyRequest(long sinceEpoch) implements Message {
+        public TopologyRequest() {
+            this(-1);
+        }
+    }
+    public record TopologyResponse(Map<Integer, ActorRef> peers, long epoch) implements Message {}
+    // size is the ring size after the delta, for the requester to notice it missed a change
+    public record TopologyDelta(long sinceEpoch, long epoch, Map<Integer, ActorRef> joined, Set<Integer> left, int size) implements Message {}
 
     // ==================== Joining operation ====================
-    public record JoinRequest(int nodeId, ActorRef nodeRef) {}
-    public record RegisterPeers(Map<Integer, ActorRef> peers) {}
-    public record GetAllDataItems(int nodeId) {}
-    public record SendAllDataItems(Map<Integer, DataItem> dataItems) {}
+    public record JoinRequest(int nodeId, ActorRef nodeRef) implements Message {}
+    public record RegisterPeers(Map<Integer, ActorRef> peers, Map<Integer, ActorRef> joiningPeers, long epoch) implements Message {}
+    public record JoinStarted(int nodeId, ActorRef nodeRef, long epoch) implements Message {}
+    // One key range the joining node nodeId will replicate, [fromKey, toKey], wrapping
+    // around the end of the key space when fromKey > toKey (see Ring.replicatedRanges);
+    // attempt counts the joiner's requests for the range and is echoed in every page
+    public record GetRangeItems(int nodeId, int fromKey, int toKey, int attempt) implements Message {}
+    // A range may come in several pages, numbered from 0, in any order; last marks the
+    // page with the highest number
+    public record RangeItems(int fromKey, int toKey, Map<Integer, DataItem> dataItems, int attempt, int page, boolean last) implements Message {}
+    // Self-scheduled: pull attempt number attempt of [fromKey, toKey] made no progress for
+    // Settings.rangePullTimeoutMs, so the range is asked of another replica
+    public record RangePullTimeout(int fromKey, int toKey, int attempt) implements Message {}
 
     // ==================== Leaving operation ====================
-    public record Leave() {}
-    public record AckRequest() {}
-    public record AckResponse(int nodeId) {}
-    public record LeaveNotify(int nodeId) {}
-    public record LeaveComplete(int nodeId) {}
+    public record Leave() implements Message {}
+    public record LeaveStarted(int nodeId, long epoch) implements Message {}
+    public record LeaveAborted(int nodeId, long epoch) implements Message {}
+    public record AckRequest() implements Message {}
+    public record AckResponse(int nodeId) implements Message {}
+    public record LeaveNotify(int nodeId, long epoch) implements Message {}
+    public record LeaveComplete(int nodeId) implements Message {}
+
+    // ==================== Lifecycle events ====================
+    public record NodeReady(int nodeId) implements Message {}
+
+    // ==================== Range scans ====================
+    // Keys in [startKey, endKey] in ascending order, at most limit items. The coordinator's
+    // ScanHandler streams them in ScanBatch messages and sends the next batch once the
+    // client acknowledged the previous one.
+    public record ClientScanRequest(int startKey, int endKey, int limit, long reqId, long epoch) implements Message {}
+    public record ScanPageRequest(int segment, int fromKey, int toKey, int pageSize) implements Message {}
+    public record ScanPageResponse(int segment, int fromKey, SortedMap<Integer, DataItem> items, boolean more) implements Message {}
+    public record ScanBatch(long reqId, SortedMap<Integer, DataItem> items, boolean last, boolean failed) implements Message {}
+    public record ScanAck(long reqId) implements Message {}
+
+    // ==================== Near cache validation ====================
+    // Sent by a client to one replica for an item it has cached. item is null if the replica
+    // holds exactly that version, otherwise its own copy (value null if absent).
+    public record VersionProbe(int key, long version, int nodeId, long reqId) implements Message {}
+    public record VersionProbeResponse(int key, DataItem item, long reqId) implements Message {}
+
+    // ==================== Failure detection ====================
+    // Every heartbeatIntervalMs a node pings the nodes within N-1 ring positions, the ones it
+    // shares ranges with; their arrival times feed each receiver's phi-accrual detector.
+    // A node holding hinted writes also pings their owners with reply set, and is pinged back.
+    // With gossip membership on, pings carry recent membership changes. With leader leases on,
+    // a primary's pings to the replicas of its range carry its lease round (leaseSeq), and a
+    // replica's pings back carry the round it grants (grantSeq); 0 when there is none.
+    public record PingTick() implements Message {}
+    public record Ping(int nodeId, boolean reply, List<Member> rumors, long epoch, long leaseSeq, long grantSeq)
+            implements Message {
+        public Ping(int nodeId, boolean reply) {
+            this(nodeId, reply, List.of(), 0, 0, 0);
+        }
+    }
+
+    // ==================== Membership gossip ====================
+    // A node's own view of its membership; only the node itself raises version (see Membership)
+    public enum MemberStatus { JOINING, UP, LEAVING, LEFT }
+    public record Member(int nodeId, ActorRef ref, MemberStatus status, long version) implements Serializable {}
+    // Every gossipIntervalMs a node sends one random peer the versions it knows plus recent
+    // changes; the reply carries every state the sender is missing
+    public record GossipTick() implements Message {}
+    public record GossipDigest(int nodeId, long epoch, Map<Integer, Long> versions, List<Member> rumors) implements Message {}
+    public record GossipDelta(long epoch, List<Member> members) implements Message {}
+    // Self-scheduled once the ring had gossipRingDelayMs to learn about a join or a leave
+    public record JoinAnnounced() implements Message {}
+    public record LeaveAnnounced() implements Message {}
+
+    // ==================== Hot keys ====================
+    // A replica that sees key as hot announces it to every node until untilMs (wall clock),
+    // renewed every window while the key stays hot. item seeds the extra replicas.
+    public record HotKeyTick() implements Message {}
+    public record PromoteHotKey(int key, DataItem item, long untilMs) implements Message {}
+
+    // ==================== TTL expiry ====================
+    // Self-scheduled every Settings.expiryTickMs: reclaims a bounded batch of expired items
+    public record ExpiryTick() implements Message {}
+
+    // ==================== Remote deployment ====================
+    // A node process announces itself to the management service, which answers with
+    // the cluster settings and a ready node to join through (null for the first node)
+    public record NodeProcessStarted(int nodeId) implements Message {}
+    public record JoinCluster(int n, int r, int w, int t, ActorRef bootstrapper) implements Message {}
 
     // ==================== Utility Messages ====================
-    public record Print() {}
-    public record PrintPeers() {}
-    public record PrintNetwork() {}
-    public record NetworkStatus(int nodeId, boolean isCrashed, Map<Integer, ActorRef> peers) {}
+    public record Print() implements Message {}
+    public record PrintPeers() implements Message {}
+    public record PrintNetwork() implements Message {}
+    public record NetworkStatus(int nodeId, boolean isCrashed, Map<Integer, ActorRef> peers) implements Message {}
 }
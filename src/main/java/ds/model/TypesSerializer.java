@@ -0,0 +1,507 @@
+package ds.model;
+
+import static ds.model.BinaryCodec.*;
+
+import ds.actors.Client;
+import ds.model.Types.*;
+
+import akka.actor.ActorRef;
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.ByteBufferSerializer;
+import akka.serialization.Serialization;
+import akka.serialization.SerializerWithStringManifest;
+
+import java.io.NotSerializableException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/*
+Hand-written binary serializer for every Types message and the remote-capable Client messages,
+bound to Types.Message in remote.conf. Each message is identified by a short string manifest
+and written field by field with the encodings of BinaryCodec:
+    Value      flag (0 = null, 1 = raw, 2 = compressed), stored length, [raw length], stored bytes
+    DataItem   presence byte, value, version, nodeId, expiresAt
+    ActorRef   serialized actor path, null = no sender
+    Map        varint size followed by key/value pairs
+As a ByteBufferSerializer it writes straight into Artery's pooled envelope buffers, so bulk
+payloads such as RangeItems are never copied through an intermediate byte array.
+ */
+public class TypesSerializer extends SerializerWithStringManifest implements ByteBufferSerializer {
+
+    public static final int IDENTIFIER = 7_341_001;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private record Codec<T>(String manifest, Class<T> type, BiConsumer<T, ByteBuffer> writer, Function<ByteBuffer, T> reader) {}
+
+    private final ExtendedActorSystem system;
+    private final Map<Class<?>, Codec<?>> byClass = new HashMap<>();
+    private final Map<String, Codec<?>> byManifest = new HashMap<>();
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
+
+    public TypesSerializer(ExtendedActorSystem system) {
+        this.system = system;
+
+        // ==================== Client -> Coordinator Node Messages ====================
+        register("CG", ClientGetRequest.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeVarLong(out, m.reqId());
+            writeVarLong(out, m.epoch());
+        }, in -> new ClientGetRequest(readVarInt(in), readVarLong(in), readVarLong(in)));
+        register("CU", ClientUpdateRequest.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeValue(out, m.value());
+            writeVarLong(out, m.reqId());
+            writeVarLong(out, m.epoch());
+            writeVarLong(out, m.ttlMs());
+        }, in -> new ClientUpdateRequest(readVarInt(in), readValue(in), readVarLong(in), readVarLong(in), readVarLong(in)));
+        register("CS", ClientCasRequest.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeVarLong(out, m.expectedVersion());
+            writeValue(out, m.value());
+            writeVarLong(out, m.ttlMs());
+            writeVarLong(out, m.reqId());
+            writeVarLong(out, m.epoch());
+        }, in -> new ClientCasRequest(readVarInt(in), readVarLong(in), readValue(in), readVarLong(in), readVarLong(in), readVarLong(in)));
+        register("SP", SetPeers.class, (m, out) -> writePeers(out, m.peers()),
+            in -> new SetPeers(readPeers(in)));
+        register("AP", AddPeer.class, (m, out) -> {
+            writeVarInt(out, m.id());
+            writeRef(out, m.peer());
+            writeVarLong(out, m.epoch());
+        }, in -> new AddPeer(readVarInt(in), readRef(in), readVarLong(in)));
+
+        // ==================== Coordinator Node -> Client Messages ====================
+        register("GR", ClientGetResponse.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeItem(out, m.value());
+        }, in -> new ClientGetResponse(readVarInt(in), readItem(in)));
+        register("UR", ClientUpdateResponse.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeBoolean(out, m.success());
+        }, in -> new ClientUpdateResponse(readVarInt(in), readBoolean(in)));
+
+        // ==================== Handler <-> Replica Node Messages ====================
+        register("RD", ReadDataRequest.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeVarLong(out, m.clock());
+        }, in -> new ReadDataRequest(readVarInt(in), readVarLong(in)));
+        register("WD", WriteDataRequest.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeItem(out, m.dataItem());
+        }, in -> new WriteDataRequest(readVarInt(in), readItem(in)));
+        register("HW", HintedWrite.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeItem(out, m.dataItem());
+            writeVarInt(out, m.ownerId());
+        }, in -> new HintedWrite(readVarInt(in), readItem(in), readVarInt(in)));
+        register("RR", ReadDataResponse.class, (m, out) -> {
+            writeItem(out, m.value());
+            writeVarLong(out, m.clock());
+        }, in -> new ReadDataResponse(readItem(in), readVarLong(in)));
+        register("RS", Result.class, (m, out) -> {
+            writeVarInt(out, m.op_id());
+            writeItem(out, m.value());
+            writeVarLong(out, m.reqId());
+            writeVarLong(out, m.epoch());
+            out.put((byte) m.status().ordinal());
+        }, in -> new Result(readVarInt(in), readItem(in), readVarLong(in), readVarLong(in), Result.Status.values()[in.get()]));
+        register("OT", OperationTimeout.class, (m, out) -> {}, in -> new OperationTimeout());
+
+        // ==================== Crash, join and leave ====================
+        register("CR", Crash.class, (m, out) -> {}, in -> new Crash());
+        register("RC", Recover.class, (m, out) -> writeRef(out, m.nodeRef()),
+            in -> new Recover(readRef(in)));
+        register("TQ", TopologyRequest.class, (m, out) -> writeVarLong(out, m.sinceEpoch()),
+            in -> new TopologyRequest(readVarLong(in)));
+        register("TR", TopologyResponse.class, (m, out) -> {
+            writePeers(out, m.peers());
+            writeVarLong(out, m.epoch());
+        }, in -> new TopologyResponse(readPeers(in), readVarLong(in)));
+        register("TD", TopologyDelta.class, (m, out) -> {
+            writeVarLong(out, m.sinceEpoch());
+            writeVarLong(out, m.epoch());
+            writePeers(out, m.joined());
+            writeVarInt(out, m.left().size());
+            for (int nodeId : m.left()) {
+                writeVarInt(out, nodeId);
+            }
+            writeVarInt(out, m.size());
+        }, in -> {
+            long sinceEpoch = readVarLong(in);
+            long epoch = readVarLong(in);
+            Map<Integer, ActorRef> joined = readPeers(in);
+            int count = readVarInt(in);
+            Set<Integer> left = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                left.add(readVarInt(in));
+            }
+            return new TopologyDelta(sinceEpoch, epoch, joined, left, readVarInt(in));
+        });
+        register("JR", JoinRequest.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeRef(out, m.nodeRef());
+        }, in -> new JoinRequest(readVarInt(in), readRef(in)));
+        register("RP", RegisterPeers.class, (m, out) -> {
+            writePeers(out, m.peers());
+            writePeers(out, m.joiningPeers());
+            writeVarLong(out, m.epoch());
+        }, in -> new RegisterPeers(readPeers(in), readPeers(in), readVarLong(in)));
+        register("JS", JoinStarted.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeRef(out, m.nodeRef());
+            writeVarLong(out, m.epoch());
+        }, in -> new JoinStarted(readVarInt(in), readRef(in), readVarLong(in)));
+        register("GA", GetRangeItems.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarInt(out, m.fromKey());
+            writeVarInt(out, m.toKey());
+            writeVarInt(out, m.attempt());
+        }, in -> new GetRangeItems(readVarInt(in), readVarInt(in), readVarInt(in), readVarInt(in)));
+        register("SA", RangeItems.class, (m, out) -> {
+            writeVarInt(out, m.fromKey());
+            writeVarInt(out, m.toKey());
+            writeItems(out, m.dataItems());
+            writeVarInt(out, m.attempt());
+            writeVarInt(out, m.page());
+            writeBoolean(out, m.last());
+        }, in -> new RangeItems(readVarInt(in), readVarInt(in), readItems(in), readVarInt(in), readVarInt(in), readBoolean(in)));
+        register("RT", RangePullTimeout.class, (m, out) -> {
+            writeVarInt(out, m.fromKey());
+            writeVarInt(out, m.toKey());
+            writeVarInt(out, m.attempt());
+        }, in -> new RangePullTimeout(readVarInt(in), readVarInt(in), readVarInt(in)));
+        register("LV", Leave.class, (m, out) -> {}, in -> new Leave());
+        register("LS", LeaveStarted.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarLong(out, m.epoch());
+        }, in -> new LeaveStarted(readVarInt(in), readVarLong(in)));
+        register("LA", LeaveAborted.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarLong(out, m.epoch());
+        }, in -> new LeaveAborted(readVarInt(in), readVarLong(in)));
+        register("AQ", AckRequest.class, (m, out) -> {}, in -> new AckRequest());
+        register("AR", AckResponse.class, (m, out) -> writeVarInt(out, m.nodeId()),
+            in -> new AckResponse(readVarInt(in)));
+        register("LN", LeaveNotify.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarLong(out, m.epoch());
+        }, in -> new LeaveNotify(readVarInt(in), readVarLong(in)));
+        register("LC", LeaveComplete.class, (m, out) -> writeVarInt(out, m.nodeId()),
+            in -> new LeaveComplete(readVarInt(in)));
+
+        // ==================== Range scans ====================
+        register("SC", ClientScanRequest.class, (m, out) -> {
+            writeVarInt(out, m.startKey());
+            writeVarInt(out, m.endKey());
+            writeVarInt(out, m.limit());
+            writeVarLong(out, m.reqId());
+            writeVarLong(out, m.epoch());
+        }, in -> new ClientScanRequest(readVarInt(in), readVarInt(in), readVarInt(in), readVarLong(in), readVarLong(in)));
+        register("PQ", ScanPageRequest.class, (m, out) -> {
+            writeVarInt(out, m.segment());
+            writeVarInt(out, m.fromKey());
+            writeVarInt(out, m.toKey());
+            writeVarInt(out, m.pageSize());
+        }, in -> new ScanPageRequest(readVarInt(in), readVarInt(in), readVarInt(in), readVarInt(in)));
+        register("PS", ScanPageResponse.class, (m, out) -> {
+            writeVarInt(out, m.segment());
+            writeVarInt(out, m.fromKey());
+            writeItems(out, m.items());
+            writeBoolean(out, m.more());
+        }, in -> new ScanPageResponse(readVarInt(in), readVarInt(in), readItems(in), readBoolean(in)));
+        register("SB", ScanBatch.class, (m, out) -> {
+            writeVarLong(out, m.reqId());
+            writeItems(out, m.items());
+            writeBoolean(out, m.last());
+            writeBoolean(out, m.failed());
+        }, in -> new ScanBatch(readVarLong(in), readItems(in), readBoolean(in), readBoolean(in)));
+        register("SK", ScanAck.class, (m, out) -> writeVarLong(out, m.reqId()),
+            in -> new ScanAck(readVarLong(in)));
+
+        // ==================== Near cache validation ====================
+        register("VP", VersionProbe.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeVarLong(out, m.version());
+            writeVarInt(out, m.nodeId());
+            writeVarLong(out, m.reqId());
+        }, in -> new VersionProbe(readVarInt(in), readVarLong(in), readVarInt(in), readVarLong(in)));
+        register("VR", VersionProbeResponse.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeItem(out, m.item());
+            writeVarLong(out, m.reqId());
+        }, in -> new VersionProbeResponse(readVarInt(in), readItem(in), readVarLong(in)));
+
+        // ==================== Failure detection ====================
+        register("PT", PingTick.class, (m, out) -> {}, in -> new PingTick());
+        register("PG", Ping.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeBoolean(out, m.reply());
+            writeMembers(out, m.rumors());
+            writeVarLong(out, m.epoch());
+            writeVarLong(out, m.leaseSeq());
+            writeVarLong(out, m.grantSeq());
+        }, in -> new Ping(readVarInt(in), readBoolean(in), readMembers(in), readVarLong(in), readVarLong(in), readVarLong(in)));
+
+        // ==================== Membership gossip ====================
+        register("GT", GossipTick.class, (m, out) -> {}, in -> new GossipTick());
+        register("GD", GossipDigest.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarLong(out, m.epoch());
+            writeVarInt(out, m.versions().size());
+            for (Map.Entry<Integer, Long> entry : m.versions().entrySet()) {
+                writeVarInt(out, entry.getKey());
+                writeVarLong(out, entry.getValue());
+            }
+            writeMembers(out, m.rumors());
+        }, in -> {
+            int nodeId = readVarInt(in);
+            long epoch = readVarLong(in);
+            int size = readVarInt(in);
+            Map<Integer, Long> versions = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                versions.put(readVarInt(in), readVarLong(in));
+            }
+            return new GossipDigest(nodeId, epoch, versions, readMembers(in));
+        });
+        register("GY", GossipDelta.class, (m, out) -> {
+            writeVarLong(out, m.epoch());
+            writeMembers(out, m.members());
+        }, in -> new GossipDelta(readVarLong(in), readMembers(in)));
+        register("JA", JoinAnnounced.class, (m, out) -> {}, in -> new JoinAnnounced());
+        register("LE", LeaveAnnounced.class, (m, out) -> {}, in -> new LeaveAnnounced());
+
+        // ==================== Hot keys ====================
+        register("HT", HotKeyTick.class, (m, out) -> {}, in -> new HotKeyTick());
+        register("HP", PromoteHotKey.class, (m, out) -> {
+            writeVarInt(out, m.key());
+            writeItem(out, m.item());
+            writeVarLong(out, m.untilMs());
+        }, in -> new PromoteHotKey(readVarInt(in), readItem(in), readVarLong(in)));
+
+        // ==================== TTL expiry ====================
+        register("ET", ExpiryTick.class, (m, out) -> {}, in -> new ExpiryTick());
+
+        // ==================== Lifecycle and remote deployment ====================
+        register("NR", NodeReady.class, (m, out) -> writeVarInt(out, m.nodeId()),
+            in -> new NodeReady(readVarInt(in)));
+        register("NP", NodeProcessStarted.class, (m, out) -> writeVarInt(out, m.nodeId()),
+            in -> new NodeProcessStarted(readVarInt(in)));
+        register("JC", JoinCluster.class, (m, out) -> {
+            writeVarInt(out, m.n());
+            writeVarInt(out, m.r());
+            writeVarInt(out, m.w());
+            writeVarInt(out, m.t());
+            writeRef(out, m.bootstrapper());
+        }, in -> new JoinCluster(readVarInt(in), readVarInt(in), readVarInt(in), readVarInt(in), readRef(in)));
+
+        // ==================== Utility Messages ====================
+        register("PR", Print.class, (m, out) -> {}, in -> new Print());
+        register("PP", PrintPeers.class, (m, out) -> {}, in -> new PrintPeers());
+        register("PN", PrintNetwork.class, (m, out) -> {}, in -> new PrintNetwork());
+        register("NS", NetworkStatus.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeBoolean(out, m.isCrashed());
+            writePeers(out, m.peers());
+        }, in -> new NetworkStatus(readVarInt(in), readBoolean(in), readPeers(in)));
+
+        // ==================== Client Messages ====================
+        register("cG", Client.GetRequest.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarInt(out, m.key());
+        }, in -> new Client.GetRequest(readVarInt(in), readVarInt(in)));
+        register("cU", Client.UpdateRequest.class, (m, out) -> {
+            writeVarInt(out, m.nodeId());
+            writeVarInt(out, m.key());
+            writeString(out, m.value());
+        }, in -> new Client.UpdateRequest(readVarInt(in), readVarInt(in), readString(in)));
+        register("cT", Client.RequestTimeout.class, (m, out) -> writeVarLong(out, m.reqId()),
+            in -> new Client.RequestTimeout(readVarLong(in)));
+        register("cR", Client.RefreshTopology.class, (m, out) -> {}, in -> new Client.RefreshTopology());
+    }
+
+    private <T> void register(String manifest, Class<T> type, BiConsumer<T, ByteBuffer> writer, Function<ByteBuffer, T> reader) {
+        Codec<T> codec = new Codec<>(manifest, type, writer, reader);
+        byClass.put(type, codec);
+        byManifest.put(manifest, codec);
+    }
+
+    // ======================= Serializer ====================
+
+    @Override
+    public int identifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String manifest(Object o) {
+        return codecOf(o).manifest();
+    }
+
+    @Override
+    public byte[] toBinary(Object o) {
+        // Encode into a per-thread scratch buffer that grows to the largest message seen
+        ByteBuffer buffer = scratch.get();
+        while (true) {
+            buffer.clear();
+            try {
+                toBinary(o, buffer);
+                byte[] bytes = new byte[buffer.position()];
+                buffer.flip();
+                buffer.get(bytes);
+                return bytes;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                scratch.set(buffer);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void toBinary(Object o, ByteBuffer buf) {
+        Codec<Object> codec = (Codec<Object>) codecOf(o);
+        codec.writer().accept(o, buf);
+    }
+
+    @Override
+    public Object fromBinary(byte[] bytes, String manifest) throws NotSerializableException {
+        return fromBinary(ByteBuffer.wrap(bytes), manifest);
+    }
+
+    @Override
+    public Object fromBinary(ByteBuffer buf, String manifest) throws NotSerializableException {
+        Codec<?> codec = byManifest.get(manifest);
+        if (codec == null) {
+            throw new NotSerializableException("Unknown manifest [" + manifest + "]");
+        }
+        return codec.reader().apply(buf);
+    }
+
+    private Codec<?> codecOf(Object o) {
+        Codec<?> codec = byClass.get(o.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("No binary codec for " + o.getClass().getName());
+        }
+        return codec;
+    }
+
+    // ======================= Field encodings ====================
+
+    private static void writeItem(ByteBuffer out, DataItem item) {
+        if (item == null) {
+            writeBoolean(out, false);
+            return;
+        }
+        writeBoolean(out, true);
+        writeValue(out, item.value());
+        writeVarLong(out, item.version());
+        writeVarInt(out, item.nodeId());
+        writeVarLong(out, item.expiresAt());
+    }
+
+    private static DataItem readItem(ByteBuffer in) {
+        if (!readBoolean(in)) {
+            return null;
+        }
+        return new DataItem(readValue(in), readVarLong(in), readVarInt(in), readVarLong(in));
+    }
+
+    private static void writeItems(ByteBuffer out, Map<Integer, DataItem> items) {
+        writeVarInt(out, items.size());
+        for (Map.Entry<Integer, DataItem> entry : items.entrySet()) {
+            writeVarInt(out, entry.getKey());
+            writeItem(out, entry.getValue());
+        }
+    }
+
+    // Read back in key order, so the same encoding carries scan pages
+    private static SortedMap<Integer, DataItem> readItems(ByteBuffer in) {
+        int size = readVarInt(in);
+        SortedMap<Integer, DataItem> items = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            items.put(readVarInt(in), readItem(in));
+        }
+        return items;
+    }
+
+    // Values travel in their stored form: compressed payloads are never inflated in transit
+    private static void writeValue(ByteBuffer out, Value value) {
+        if (value == null) {
+            out.put((byte) 0);
+            return;
+        }
+        byte[] stored = value.storedBytes();
+        out.put((byte) (value.isCompressed() ? 2 : 1));
+        writeVarInt(out, stored.length);
+        if (value.isCompressed()) {
+            writeVarInt(out, value.length());
+        }
+        out.put(stored);
+    }
+
+    private static Value readValue(ByteBuffer in) {
+        byte flag = in.get();
+        if (flag == 0) {
+            return null;
+        }
+        byte[] stored = new byte[readVarInt(in)];
+        int length = flag == 2 ? readVarInt(in) : stored.length;
+        in.get(stored);
+        return Value.fromStored(stored, flag == 2, length);
+    }
+
+    private void writeRef(ByteBuffer out, ActorRef ref) {
+        writeString(out, ref == null ? null : Serialization.serializedActorPath(ref));
+    }
+
+    private ActorRef readRef(ByteBuffer in) {
+        String path = readString(in);
+        return path == null ? null : system.provider().resolveActorRef(path);
+    }
+
+    private void writeMembers(ByteBuffer out, List<Member> members) {
+        writeVarInt(out, members.size());
+        for (Member member : members) {
+            writeVarInt(out, member.nodeId());
+            writeRef(out, member.ref());
+            out.put((byte) member.status().ordinal());
+            writeVarLong(out, member.version());
+        }
+    }
+
+    private List<Member> readMembers(ByteBuffer in) {
+        int size = readVarInt(in);
+        List<Member> members = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            members.add(new Member(readVarInt(in), readRef(in), MemberStatus.values()[in.get()], readVarLong(in)));
+        }
+        return members;
+    }
+
+    private void writePeers(ByteBuffer out, Map<Integer, ActorRef> peers) {
+        writeVarInt(out, peers.size());
+        for (Map.Entry<Integer, ActorRef> entry : peers.entrySet()) {
+            writeVarInt(out, entry.getKey());
+            writeRef(out, entry.getValue());
+        }
+    }
+
+    private Map<Integer, ActorRef> readPeers(ByteBuffer in) {
+        int size = readVarInt(in);
+        Map<Integer, ActorRef> peers = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            peers.put(readVarInt(in), readRef(in));
+        }
+        return peers;
+    }
+}
@@ -0,0 +1,138 @@
+package ds.model;
+
+import ds.config.Settings;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Immutable binary value. Payloads of at least Settings.compressionThreshold bytes are
+// Deflate-compressed once, when the value is created at the client edge; replicas store and
+// transfer the compressed form and only the reader decompresses it.
+public final class Value implements Serializable {
+
+    private final byte[] stored;     // never exposed, so the value cannot change
+    private final boolean compressed;
+    private final int length;        // uncompressed size in bytes
+
+    private Value(byte[] stored, boolean compressed, int length) {
+        this.stored = stored;
+        this.compressed = compressed;
+        this.length = length;
+    }
+
+    public static Value of(byte[] bytes) {
+        int threshold = Settings.compressionThreshold;
+        if (threshold > 0 && bytes.length >= threshold) {
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < bytes.length) {
+                return new Value(deflated, true, bytes.length);
+            }
+        }
+        return new Value(bytes.clone(), false, bytes.length);
+    }
+
+    public static Value of(String text) {
+        return text == null ? null : of(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Wraps bytes read off the wire as they are; the caller hands over ownership
+    static Value fromStored(byte[] stored, boolean compressed, int length) {
+        return new Value(stored, compressed, length);
+    }
+
+    // ======================= Accessors ====================
+
+    public int length() {
+        return length;
+    }
+
+    public int storedSize() {
+        return stored.length;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    // Stored form, for serializers only
+    byte[] storedBytes() {
+        return stored;
+    }
+
+    public byte[] toBytes() {
+        return compressed ? inflate(stored, length) : stored.clone();
+    }
+
+    public String asString() {
+        if (!compressed) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+        return new String(inflate(stored, length), StandardCharsets.UTF_8);
+    }
+
+    // ======================= Compression ====================
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[bytes.length];
+            int size = 0;
+            while (!deflater.finished() && size < buffer.length) {
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            // Not finished: the compressed form would not be smaller
+            return deflater.finished() ? Arrays.copyOf(buffer, size) : bytes;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            byte[] result = new byte[length];
+            int size = 0;
+            while (size < length && !inflater.finished()) {
+                int n = inflater.inflate(result, size, length - size);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed value");
+                }
+                size += n;
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Value other)) {
+            return false;
+        }
+        return compressed == other.compressed && length == other.length && Arrays.equals(stored, other.stored);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(stored);
+    }
+
+    // Decoded as UTF-8, so values print as text in logs and the TUI
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,37 @@
+package ds.model;
+
+import ds.model.KeyGenerator.Distribution;
+
+/*
+Workload driven by the LoadGenerator:
+    OPEN_LOOP    issues targetRate operations per second regardless of completions
+    CLOSED_LOOP  keeps exactly `concurrency` operations outstanding
+ */
+public record Workload(Mode mode, int targetRate, int concurrency, long durationMs,
+                       int keySpace, Distribution distribution, double readRatio) {
+
+    public enum Mode {
+        OPEN_LOOP,
+        CLOSED_LOOP,
+    }
+
+    public Workload {
+        if (mode == Mode.OPEN_LOOP && targetRate <= 0) {
+            throw new IllegalArgumentException("targetRate must be > 0 for an open-loop workload");
+        }
+        if (mode == Mode.CLOSED_LOOP && concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be > 0 for a closed-loop workload");
+        }
+        if (durationMs <= 0 || keySpace <= 0 || readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("Invalid workload parameters");
+        }
+    }
+
+    public static Workload openLoop(int targetRate, long durationMs, int keySpace, Distribution distribution, double readRatio) {
+        return new Workload(Mode.OPEN_LOOP, targetRate, 0, durationMs, keySpace, distribution, readRatio);
+    }
+
+    public static Workload closedLoop(int concurrency, long durationMs, int keySpace, Distribution distribution, double readRatio) {
+        return new Workload(Mode.CLOSED_LOOP, 0, concurrency, durationMs, keySpace, distribution, readRatio);
+    }
+}
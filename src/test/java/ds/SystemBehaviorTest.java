@@ -1,7 +1,37 @@
 package ds;
 
 import ds.actors.Client;
+import ds.actors.LoadGenerator.LoadReport;
+import ds.config.Settings;
+import ds.model.GaussianNetworkModel;
+import ds.model.KeyGenerator;
+import ds.model.NearCache;
+import ds.model.Types.CasResult;
+import ds.model.Types.ClientGetRequest;
+import ds.model.Types.ClientUpdateRequest;
+import ds.model.Types.DataItem;
+import ds.model.Types.PromoteHotKey;
+import ds.model.Types.RangeItems;
+import ds.model.Types.ReadDataRequest;
+import ds.model.Types.ReadDataResponse;
+import ds.model.Types.Result;
+import ds.model.Types.TopologyDelta;
+import ds.model.Types.TopologyRequest;
+import ds.model.Types.TopologyResponse;
+import ds.model.Value;
+import ds.model.Workload;
 import akka.actor.ActorRef;
+import akka.pattern.Patterns;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -471,4 +501,903 @@ public class SystemBehaviorTest {
         
         System.out.println("✓ Multiple topology changes successful");
     }
+
+    /**
+     * Test 13: Closed-Loop Load Generation
+     * Verify that the load generator drives traffic and reports latencies
+     */
+    @Test
+    public void testClosedLoopLoadGeneration() {
+        System.out.println("\n--- TEST 13: Closed-Loop Load Generation ---");
+        
+        // Initialize network
+        service.initialize();
+        service.waitForProcessing(1000);
+        
+        Workload workload = Workload.closedLoop(4, 2000, 100, KeyGenerator.Distribution.ZIPFIAN, 0.8);
+        LoadReport report = service.runLoadTest(workload);
+        
+        assertTrue("Load test should complete operations", report.operations() > 0);
+        assertTrue("Healthy cluster should serve most operations", report.timeoutRate() < 0.1);
+        assertTrue("p99 should not be below p50", report.p99Micros() >= report.p50Micros());
+        
+        System.out.println("✓ Closed-loop load generation successful");
+    }
+
+    /**
+     * Test 14: Pipelined Asynchronous Client
+     * Verify that many in-flight operations complete and are correlated correctly
+     */
+    @Test
+    public void testPipelinedAsyncClient() throws Exception {
+        System.out.println("\n--- TEST 14: Pipelined Asynchronous Client ---");
+        
+        // Initialize network
+        service.initialize();
+        service.waitForProcessing(1000);
+        
+        StoreClient store = service.createStoreClient(3, 16);
+        
+        // More operations than the in-flight limit, all outstanding at once
+        List<CompletableFuture<DataItem>> updates = new ArrayList<>();
+        for (int key = 100; key < 200; key++) {
+            updates.add(store.update(key, "value" + key).toCompletableFuture());
+        }
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        for (int i = 0; i < updates.size(); i++) {
+            assertEquals("value" + (100 + i), updates.get(i).get().value().asString());
+        }
+        
+        // Each read must be answered with its own key's value
+        List<CompletableFuture<DataItem>> reads = new ArrayList<>();
+        for (int key = 100; key < 200; key++) {
+            reads.add(store.get(key).toCompletableFuture());
+        }
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        for (int i = 0; i < reads.size(); i++) {
+            assertEquals("value" + (100 + i), reads.get(i).get().value().asString());
+        }
+        
+        System.out.println("✓ Pipelined asynchronous client successful");
+    }
+
+    /**
+     * Test 15: Operations During Topology Change
+     * Verify that writes keep completing while a node joins, and are not lost in the handoff
+     */
+    @Test
+    public void testOperationsDuringJoin() throws Exception {
+        System.out.println("\n--- TEST 15: Operations During Topology Change ---");
+        
+        // Initialize network
+        service.initialize();
+        service.waitForProcessing(1000);
+        
+        StoreClient store = service.createStoreClient(3, 64);
+        
+        // Writes to keys owned by the joining node, issued before, during and after the join
+        List<CompletableFuture<DataItem>> updates = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int key = 21; key <= 25; key++) {
+                updates.add(store.update(key, "v" + round).toCompletableFuture());
+            }
+            if (round == 0) {
+                service.addNode(25);
+            }
+            service.waitForProcessing(300);
+        }
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        service.waitForProcessing(2000);
+        
+        // Every key holds the last round's value, including on the new node
+        for (int key = 21; key <= 25; key++) {
+            assertEquals("v2", store.get(key).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        }
+        
+        System.out.println("✓ Operations during topology change successful");
+    }
+
+    /**
+     * Test 16: Event-Driven Bootstrap
+     * Verify that initialization returns once the cluster is ready, without fixed sleeps
+     */
+    @Test
+    public void testEventDrivenBootstrap() throws Exception {
+        System.out.println("\n--- TEST 16: Event-Driven Bootstrap ---");
+        
+        long start = System.nanoTime();
+        service.initialize();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Initialization took " + elapsedMs + " ms");
+        
+        // Seed writes were acknowledged during initialize, so reads succeed immediately
+        StoreClient store = service.getStoreClient(2);
+        assertEquals("cat", store.get(5).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        assertEquals("frog", store.get(45).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        
+        // A joining node signals readiness once it has completed the join
+        service.addNode(35);
+        assertTrue("Node 35 should become ready", service.awaitReady(35, 10_000));
+        
+        System.out.println("✓ Event-driven bootstrap successful");
+    }
+
+    /**
+     * Test 17: Multi-Process Deployment
+     * Verify that nodes started as separate JVMs join through the seed and serve requests
+     */
+    @Test
+    public void testRemoteNodeProcesses() throws Exception {
+        System.out.println("\n--- TEST 17: Multi-Process Deployment ---");
+        
+        service.shutdown();
+        service = ManagementService.remote(0);
+        
+        for (int nodeId : new int[]{10, 20, 30}) {
+            assertTrue("Node " + nodeId + " process should join", service.launchNodeProcess(nodeId));
+            assertNotNull(service.getNode(nodeId));
+        }
+        
+        StoreClient store = service.createStoreClient(1, 64);
+        assertEquals("remote", store.update(15, "remote").toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        assertEquals("remote", store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        
+        // A large value crosses the processes compressed and comes back intact
+        String large = "remote payload ".repeat(1000);
+        store.update(16, large).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        DataItem item = store.get(16).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue(item.value().isCompressed());
+        assertEquals(large, item.value().asString());
+        
+        System.out.println("✓ Multi-process deployment successful");
+    }
+
+    /**
+     * Test 18: Leader-Lease Reads
+     * Verify that the range primary serves reads locally once it holds a lease, without losing writes
+     */
+    @Test
+    public void testLeaseReads() throws Exception {
+        System.out.println("\n--- TEST 18: Leader-Lease Reads ---");
+        
+        Settings.leaseReads = true;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 64);
+            service.waitForProcessing(1000);
+            
+            // Every read observes the write acknowledged just before it
+            for (int i = 0; i < 5; i++) {
+                store.update(15, "lease" + i).toCompletableFuture().get(10, TimeUnit.SECONDS);
+                assertEquals("lease" + i, store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            }
+            
+            // A lease read is one client round trip (~3 meanMs with scheduling), a quorum read two
+            int reads = 20;
+            long start = System.nanoTime();
+            for (int i = 0; i < reads; i++) {
+                store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            }
+            long meanMs = (System.nanoTime() - start) / 1_000_000 / reads;
+            System.out.println("Mean lease read latency: " + meanMs + " ms");
+            assertTrue("Lease reads should take a single round trip, took " + meanMs + " ms", meanMs < 4 * Settings.meanMs);
+        } finally {
+            Settings.leaseReads = false;
+        }
+        
+        System.out.println("✓ Leader-lease reads successful");
+    }
+
+    /**
+     * Test 19: Range Scans
+     * Verify that a scan streams every key of a range in order, across ring segments and pages
+     */
+    @Test
+    public void testRangeScan() throws Exception {
+        System.out.println("\n--- TEST 19: Range Scans ---");
+        
+        int pageSize = Settings.scanPageSize;
+        Settings.scanPageSize = 3;  // several pages per segment
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 64);
+            service.waitForProcessing(1000);
+            
+            // Keys on every segment, including past the highest node (wraps to node 10)
+            for (int key = 1; key <= 60; key += 2) {
+                store.update(key, "s" + key).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            }
+            
+            SortedMap<Integer, DataItem> all = store.scan(0, 100, 0).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            assertEquals(30, all.size());
+            for (Map.Entry<Integer, DataItem> entry : all.entrySet()) {
+                assertEquals("s" + entry.getKey(), entry.getValue().value().asString());
+            }
+            
+            // Batches arrive in key order and the limit cuts the stream short
+            List<Integer> streamed = new ArrayList<>();
+            int delivered = store.scan(12, 48, 10, batch -> streamed.addAll(batch.keySet()))
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+            assertEquals(10, delivered);
+            assertEquals(List.of(13, 15, 17, 19, 21, 23, 25, 27, 29, 31), streamed);
+            
+            assertTrue(store.scan(70, 90, 0).toCompletableFuture().get(10, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            Settings.scanPageSize = pageSize;
+        }
+        
+        System.out.println("✓ Range scans successful");
+    }
+
+    /**
+     * Test 20: TTL Expiry
+     * Verify that items written with a TTL stop being served once it elapsed, by reads and scans
+     */
+    @Test
+    public void testTtlExpiry() throws Exception {
+        System.out.println("\n--- TEST 20: TTL Expiry ---");
+        
+        service.initialize();
+        StoreClient store = service.createStoreClient(3, 64);
+        service.waitForProcessing(1000);
+        
+        long ttlMs = 1500;
+        DataItem written = store.update(15, "session", ttlMs).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue("Write should carry its deadline", written.expiresAt() > 0);
+        store.update(16, "forever").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals("session", store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        
+        Thread.sleep(Math.max(0, written.expiresAt() - System.currentTimeMillis()) + 2L * Settings.expiryTickMs);
+        
+        assertNull("Expired item should read as never written", store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS).value());
+        assertEquals("forever", store.get(16).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        SortedMap<Integer, DataItem> range = store.scan(14, 17, 0).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(16), new ArrayList<>(range.keySet()));
+        
+        // Rewriting without a TTL makes the key permanent again
+        store.update(15, "renewed").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals("renewed", store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        
+        System.out.println("✓ TTL expiry successful");
+    }
+
+    /**
+     * Test 21: Compare-and-Set
+     * Verify that concurrent read-modify-write loops built on compare-and-set lose no increment
+     */
+    @Test
+    public void testCompareAndSet() throws Exception {
+        System.out.println("\n--- TEST 21: Compare-and-Set ---");
+        
+        service.initialize();
+        StoreClient first = service.createStoreClient(3, 64);
+        StoreClient second = service.createStoreClient(4, 64);
+        service.waitForProcessing(1000);
+        
+        // Absent key: expected version 0 creates it, a stale expectation is rejected with the current item
+        CasResult created = first.compareAndSet(33, 0, "0").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertTrue(created.applied());
+        CasResult stale = second.compareAndSet(33, 0, "x").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertFalse(stale.applied());
+        assertEquals("0", stale.item().value().asString());
+        assertEquals(created.item().version(), stale.item().version());
+        
+        // Two clients increment the same counter concurrently, retrying on conflict
+        int increments = 10;
+        CompletableFuture<Void> a = CompletableFuture.runAsync(() -> increment(first, 33, increments));
+        CompletableFuture<Void> b = CompletableFuture.runAsync(() -> increment(second, 33, increments));
+        CompletableFuture.allOf(a, b).get(60, TimeUnit.SECONDS);
+        
+        assertEquals(String.valueOf(2 * increments), first.get(33).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        
+        System.out.println("✓ Compare-and-set successful");
+    }
+    
+    private static void increment(StoreClient store, int key, int times) {
+        try {
+            DataItem current = store.get(key).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            for (int done = 0; done < times; ) {
+                int next = Integer.parseInt(current.value().asString()) + 1;
+                CasResult result = store.compareAndSet(key, current.version(), String.valueOf(next))
+                    .toCompletableFuture().get(10, TimeUnit.SECONDS);
+                current = result.item();
+                if (result.applied()) {
+                    done++;
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Test 22: Client Near Cache
+     * Verify that cached reads are served locally or revalidated, and still observe other clients' writes
+     * and a crashed primary
+     */
+    @Test
+    public void testNearCache() throws Exception {
+        System.out.println("\n--- TEST 22: Client Near Cache ---");
+        
+        Settings.nearCacheEntries = 100;
+        Settings.nearCacheStalenessMs = 60_000;
+        try {
+            service.initialize();
+            StoreClient cached = service.createStoreClient(3, 64);
+            StoreClient writer = service.createStoreClient(4, 64);
+            service.waitForProcessing(1000);
+            
+            // Within the staleness bound: the client's own write is read back without a round trip
+            cached.update(35, "mine").toCompletableFuture().get(10, TimeUnit.SECONDS);
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                assertEquals("mine", cached.get(35).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue("Cached reads should be local, took " + elapsedMs + " ms", elapsedMs < Settings.meanMs);
+            assertEquals(10, cached.cacheStats().toCompletableFuture().get(10, TimeUnit.SECONDS).hits());
+            
+            // Always revalidated: an unchanged version is confirmed, a newer one is fetched
+            Settings.nearCacheStalenessMs = 0;
+            assertEquals("mine", cached.get(35).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            writer.update(35, "theirs").toCompletableFuture().get(10, TimeUnit.SECONDS);
+            service.waitForProcessing(500);
+            assertEquals("theirs", cached.get(35).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            
+            NearCache.Stats stats = cached.cacheStats().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            System.out.println("Near cache: " + stats + ", hit rate " + stats.hitRate());
+            assertEquals(1, stats.validatedHits());
+            assertEquals(1, stats.misses());
+            assertTrue(stats.hitRate() > 0.8);
+            
+            // A probe to a crashed primary (node 40 for key 35) goes unanswered: read from a quorum
+            service.crashNode(40);
+            service.waitForProcessing(200);
+            assertEquals("theirs", cached.get(35).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            assertEquals(2, cached.cacheStats().toCompletableFuture().get(10, TimeUnit.SECONDS).misses());
+        } finally {
+            Settings.nearCacheEntries = 0;
+            Settings.nearCacheStalenessMs = 0;
+        }
+        
+        System.out.println("✓ Near cache successful");
+    }
+
+    /**
+     * Test 23: Hot-Key Extra Replicas
+     * Verify that a hammered key is copied to extra nodes, stays readable and writable, and cools down
+     */
+    @Test
+    public void testHotKeyPromotion() throws Exception {
+        System.out.println("\n--- TEST 23: Hot-Key Extra Replicas ---");
+        
+        Settings.hotKeyThreshold = 20;
+        Settings.hotKeyWindowMs = 300;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 256);
+            service.waitForProcessing(1000);
+            
+            // Key 15 lives on 20, 30, 40; nodes 50 and 10 are its extra replicas
+            store.update(15, "hot").toCompletableFuture().get(10, TimeUnit.SECONDS);
+            assertNull(localCopy(50, 15));
+            
+            readBurst(store, 15, "hot");
+            service.waitForProcessing(2L * Settings.hotKeyWindowMs);
+            assertEquals("hot", localCopy(50, 15).value().asString());
+            assertEquals("hot", localCopy(10, 15).value().asString());
+            
+            // Writes reach the extra replicas while the key is hot
+            readBurst(store, 15, "hot");
+            store.update(15, "hotter").toCompletableFuture().get(10, TimeUnit.SECONDS);
+            service.waitForProcessing(500);
+            assertEquals("hotter", localCopy(50, 15).value().asString());
+            assertEquals("hotter", store.get(15).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            
+            // Without traffic the promotion lapses and the extra copies are dropped
+            service.waitForProcessing(10L * Settings.hotKeyWindowMs);
+            assertNull(localCopy(50, 15));
+            assertEquals("hotter", localCopy(20, 15).value().asString());
+        } finally {
+            Settings.hotKeyThreshold = 0;
+            Settings.hotKeyWindowMs = 1000;
+        }
+        
+        System.out.println("✓ Hot-key extra replicas successful");
+    }
+    
+    /**
+     * Test 24: Admission Control
+     * Verify that a flooded coordinator sheds excess requests at once instead of timing out
+     */
+    @Test
+    public void testAdmissionControl() throws Exception {
+        System.out.println("\n--- TEST 24: Admission Control ---");
+        
+        Settings.admissionControl = true;
+        Settings.admissionInitialLimit = 4;
+        Settings.admissionMinLimit = 2;
+        Settings.admissionMaxLimit = 8;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 1024);
+            service.waitForProcessing(1000);
+            
+            // A burst far beyond the limits: every request completes, excess ones rejected fast
+            List<CompletableFuture<DataItem>> reads = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                reads.add(store.get(25).toCompletableFuture());
+            }
+            int served = 0;
+            int rejected = 0;
+            for (CompletableFuture<DataItem> read : reads) {
+                try {
+                    assertEquals("dog", read.get(10, TimeUnit.SECONDS).value().asString());
+                    served++;
+                } catch (ExecutionException e) {
+                    assertTrue("Unexpected failure: " + e.getCause(), e.getCause() instanceof RejectedExecutionException);
+                    rejected++;
+                }
+            }
+            System.out.println("  - Served " + served + ", rejected " + rejected);
+            assertTrue(served > 0);
+            assertTrue(rejected > 0);
+            
+            // Once the burst is over the cluster serves normally
+            service.waitForProcessing(500);
+            store.update(25, "wolf").toCompletableFuture().get(10, TimeUnit.SECONDS);
+            assertEquals("wolf", store.get(25).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        } finally {
+            Settings.admissionControl = false;
+            Settings.admissionInitialLimit = 64;
+            Settings.admissionMinLimit = 4;
+            Settings.admissionMaxLimit = 1024;
+        }
+        
+        System.out.println("✓ Admission control successful");
+    }
+    
+    /**
+     * Test 25: Phi-Accrual Failure Detection
+     * Verify that suspected replicas are skipped, and that an unreachable quorum fails fast
+     */
+    @Test
+    public void testFailureDetection() throws Exception {
+        System.out.println("\n--- TEST 25: Phi-Accrual Failure Detection ---");
+        
+        Settings.failureDetection = true;
+        try {
+            service.initialize();
+            service.waitForProcessing(1500);
+            
+            // Key 25 lives on 30, 40 and 50; with one replica down node 50 still answers
+            service.crashNode(30);
+            service.waitForProcessing(1500);
+            assertEquals("dog", coordinate(50, new ClientGetRequest(25, 1L, 0L)).value().value().asString());
+            
+            // With two replicas down no read quorum is left: fail well before the timeout
+            service.crashNode(40);
+            service.waitForProcessing(1500);
+            long start = System.nanoTime();
+            Result failed = coordinate(50, new ClientGetRequest(25, 2L, 0L));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("  - Unreachable quorum reported in " + elapsedMs + " ms");
+            assertEquals(Result.Status.FAILED, failed.status());
+            assertTrue(elapsedMs < Settings.T / 2);
+            
+            // Recovered replicas are trusted again once their pings resume
+            service.recoverNode(30, 10);
+            service.recoverNode(40, 10);
+            service.waitForProcessing(1500);
+            assertEquals("dog", coordinate(50, new ClientGetRequest(25, 3L, 0L)).value().value().asString());
+        } finally {
+            Settings.failureDetection = false;
+        }
+        
+        System.out.println("✓ Phi-accrual failure detection successful");
+    }
+    
+    /**
+     * Test 26: Sloppy Quorum and Hinted Handoff
+     * Verify that W=N writes complete with a replica down and reach it once it recovers
+     */
+    @Test
+    public void testSloppyQuorum() throws Exception {
+        System.out.println("\n--- TEST 26: Sloppy Quorum and Hinted Handoff ---");
+        
+        Settings.failureDetection = true;
+        Settings.sloppyQuorum = true;
+        Settings.R = 1;
+        Settings.W = 3;
+        try {
+            service.initialize();
+            service.waitForProcessing(1500);
+            
+            // Key 25 lives on 30, 40 and 50; node 10 stands in for crashed 30
+            service.crashNode(30);
+            service.waitForProcessing(1500);
+            long start = System.nanoTime();
+            Result written = coordinate(50, new ClientUpdateRequest(25, Value.of("wolf"), 1L, 0L));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("  - W=N write with a replica down took " + elapsedMs + " ms");
+            assertEquals(Result.Status.OK, written.status());
+            assertTrue(elapsedMs < Settings.T / 2);
+            service.waitForProcessing(500);
+            assertEquals("wolf", localCopy(10, 25).value().asString());
+            assertEquals("wolf", coordinate(40, new ClientGetRequest(25, 2L, 0L)).value().value().asString());
+            
+            // Once 30 is back, the hint is handed over and the stand-in lets go of it
+            service.recoverNode(30, 10);
+            service.waitForProcessing(1500);
+            assertEquals("wolf", localCopy(30, 25).value().asString());
+            assertNull(localCopy(10, 25));
+        } finally {
+            Settings.failureDetection = false;
+            Settings.sloppyQuorum = false;
+            Settings.R = 2;
+            Settings.W = 2;
+        }
+        
+        System.out.println("✓ Sloppy quorum and hinted handoff successful");
+    }
+    
+    /**
+     * Test 27: Adaptive Timeouts
+     * Verify that a quorum that cannot complete is given up after a few round trips, not after T
+     */
+    @Test
+    public void testAdaptiveTimeouts() throws Exception {
+        System.out.println("\n--- TEST 27: Adaptive Timeouts ---");
+        
+        Settings.adaptiveTimeouts = true;
+        try {
+            service.initialize();
+            service.waitForProcessing(1000);
+            
+            // Warm up the round-trip estimates of node 50 towards the other replicas of key 25
+            for (long reqId = 1; reqId <= 20; reqId++) {
+                assertEquals("dog", coordinate(50, new ClientGetRequest(25, reqId, 0L)).value().value().asString());
+            }
+            
+            // With 30 and 40 down no read quorum forms; the handler gives up after ~srtt + 4 * rttvar
+            service.crashNode(30);
+            service.crashNode(40);
+            service.waitForProcessing(200);  // the crash messages are delayed like any other
+            long start = System.nanoTime();
+            Result failed = coordinate(50, new ClientGetRequest(25, 21L, 0L));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("  - Unanswered quorum given up after " + elapsedMs + " ms (T = " + Settings.T + " ms)");
+            assertEquals(Result.Status.FAILED, failed.status());
+            assertTrue(elapsedMs < Settings.T / 2);
+            
+            // Healthy operations still complete within their deadlines
+            service.recoverNode(30, 10);
+            service.recoverNode(40, 10);
+            service.waitForProcessing(1000);
+            assertEquals("dog", coordinate(50, new ClientGetRequest(25, 22L, 0L)).value().value().asString());
+        } finally {
+            Settings.adaptiveTimeouts = false;
+        }
+        
+        System.out.println("✓ Adaptive timeouts successful");
+    }
+    
+    /**
+     * Test 28: Multi-Source Join
+     * Verify that a joining node pulls exactly the ranges it will replicate, from several replicas,
+     * and asks another replica for a range whose source has crashed
+     */
+    @Test
+    public void testMultiSourceJoin() throws Exception {
+        System.out.println("\n--- TEST 28: Multi-Source Join ---");
+        
+        Settings.rangePullTimeoutMs = 500;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 64);
+            service.waitForProcessing(1000);
+            
+            // Keys spread over every range of the ring
+            int[] keys = {1, 8, 12, 18, 22, 28, 31, 34, 38, 42, 48, 55};
+            for (int key : keys) {
+                store.update(key, "v" + key).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            }
+            service.waitForProcessing(500);
+            
+            // Node 35 will replicate (30, 35], (20, 30] and (10, 20], held today by different nodes
+            service.addNode(35);
+            assertTrue(service.awaitReady(35, 10_000));
+            service.waitForProcessing(500);
+            for (int key : keys) {
+                DataItem copy = localCopy(35, key);
+                if (key > 10 && key <= 35) {
+                    assertNotNull("Key " + key + " missing on the joined node", copy);
+                    assertEquals("v" + key, copy.value().asString());
+                } else {
+                    assertNull("Key " + key + " should not be on the joined node", copy);
+                }
+            }
+            assertEquals("dog", store.get(25).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+            
+            // (40, 45] is first asked of node 50, its primary, which never answers
+            service.crashNode(50);
+            service.waitForProcessing(200);
+            service.addNode(45);
+            assertTrue("Node 45 should complete its join", service.awaitReady(45, 10_000));
+            for (int key : new int[]{34, 38, 42}) {
+                assertEquals("v" + key, localCopy(45, key).value().asString());
+            }
+        } finally {
+            Settings.rangePullTimeoutMs = 2000;
+        }
+        
+        System.out.println("✓ Multi-source join successful");
+    }
+    
+    /**
+     * Test 29: Gossip Membership
+     * Verify that a join and a leave reach every node through gossip alone
+     */
+    @Test
+    public void testGossipMembership() throws Exception {
+        System.out.println("\n--- TEST 29: Gossip Membership ---");
+        
+        Settings.gossipMembership = true;
+        Settings.gossipRingDelayMs = 500;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 64);
+            service.waitForProcessing(1000);
+            store.update(33, "kiwi").toCompletableFuture().get(10, TimeUnit.SECONDS);
+            
+            service.addNode(35);
+            assertTrue(service.awaitReady(35, 10_000));
+            assertTrue("Join did not spread", awaitMembers(35, true, 5000));
+            assertEquals("kiwi", localCopy(35, 33).value().asString());
+            
+            service.leaveNetwork(35);
+            assertTrue("Leave did not spread", awaitMembers(35, false, 5000));
+            assertEquals("kiwi", store.get(33).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        } finally {
+            Settings.gossipMembership = false;
+            Settings.gossipRingDelayMs = 1000;
+        }
+        
+        System.out.println("✓ Gossip membership successful");
+    }
+    
+    /**
+     * Test 30: Topology Deltas
+     * Verify that a node answers a requester that knows an older ring with the changes only
+     */
+    @Test
+    public void testTopologyDeltas() throws Exception {
+        System.out.println("\n--- TEST 30: Topology Deltas ---");
+        
+        service.initialize();
+        service.waitForProcessing(1000);
+        TopologyResponse initial = (TopologyResponse) Patterns.ask(service.getNode(10), new TopologyRequest(), Duration.ofSeconds(5))
+            .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(5, initial.peers().size());
+        
+        service.addNode(35);
+        assertTrue(service.awaitReady(35, 10_000));
+        service.waitForProcessing(500);
+        
+        Object reply = Patterns.ask(service.getNode(10), new TopologyRequest(initial.epoch()), Duration.ofSeconds(5))
+            .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        TopologyDelta delta = (TopologyDelta) reply;
+        assertEquals(Set.of(35), delta.joined().keySet());
+        assertTrue(delta.left().isEmpty());
+        assertEquals(6, delta.size());
+        assertTrue(delta.epoch() > initial.epoch());
+        
+        // A client refreshing through deltas ends up with the same ring
+        StoreClient store = service.createStoreClient(3, 64);
+        store.update(33, "plum").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals("plum", store.get(33).toCompletableFuture().get(10, TimeUnit.SECONDS).value().asString());
+        
+        System.out.println("✓ Topology deltas successful");
+    }
+    
+    /**
+     * Test 31: Snapshot Rebalancing
+     * Verify that ranges handed off in many small batches arrive whole, and that keys a node
+     * no longer replicates are dropped and handed back as the ring changes
+     */
+    @Test
+    public void testSnapshotRebalancing() throws Exception {
+        System.out.println("\n--- TEST 31: Snapshot Rebalancing ---");
+        
+        Settings.snapshotScanBatch = 8;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 64);
+            service.waitForProcessing(1000);
+            List<CompletableFuture<DataItem>> writes = new ArrayList<>();
+            for (int key = 11; key <= 35; key++) {
+                writes.add(store.update(key, "v" + key).toCompletableFuture());
+            }
+            for (CompletableFuture<DataItem> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+            service.waitForProcessing(500);
+            
+            // Node 35 takes (10, 35] in pages of 8; node 40 stops replicating (10, 20]
+            service.addNode(35);
+            assertTrue(service.awaitReady(35, 10_000));
+            service.waitForProcessing(1000);
+            for (int key = 11; key <= 35; key++) {
+                assertEquals("v" + key, localCopy(35, key).value().asString());
+            }
+            assertNull(localCopy(40, 15));
+            
+            // Leaving, node 35 hands (10, 20] back to node 40
+            service.leaveNetwork(35);
+            service.waitForProcessing(2000);
+            for (int key = 11; key <= 20; key++) {
+                assertEquals("v" + key, localCopy(40, key).value().asString());
+            }
+        } finally {
+            Settings.snapshotScanBatch = 256;
+        }
+        
+        System.out.println("✓ Snapshot rebalancing successful");
+    }
+    
+    /**
+     * Test 32: Reordered Range Pages
+     * Verify that a joining node waits for every page of a range, even when the last page
+     * overtakes the first one
+     */
+    @Test
+    public void testReorderedRangePages() throws Exception {
+        System.out.println("\n--- TEST 32: Reordered Range Pages ---");
+        
+        service.shutdown();
+        GaussianNetworkModel gaussian = new GaussianNetworkModel();
+        service = new ManagementService((sender, target, message) ->
+            message instanceof RangeItems page && page.page() == 0 ? 600 : gaussian.delayMs(sender, target, message));
+        Settings.snapshotScanBatch = 4;
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 64);
+            service.waitForProcessing(1000);
+            List<CompletableFuture<DataItem>> writes = new ArrayList<>();
+            for (int key = 11; key <= 35; key++) {
+                writes.add(store.update(key, "v" + key).toCompletableFuture());
+            }
+            for (CompletableFuture<DataItem> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+            service.waitForProcessing(500);
+            
+            service.addNode(35);
+            assertTrue(service.awaitReady(35, 10_000));
+            for (int key = 11; key <= 35; key++) {
+                DataItem item = localCopy(35, key);
+                assertNotNull("Node 35 should hold key " + key, item);
+                assertEquals("v" + key, item.value().asString());
+            }
+        } finally {
+            Settings.snapshotScanBatch = 256;
+        }
+        
+        System.out.println("✓ Reordered range pages successful");
+    }
+    
+    /**
+     * Test 33: Hot-Key Reads Stay Fresh
+     * Verify that a read of a hot key is not answered from extra replicas alone when they
+     * missed a write
+     */
+    @Test
+    public void testHotKeyReadsStayFresh() throws Exception {
+        System.out.println("\n--- TEST 33: Hot-Key Reads Stay Fresh ---");
+        
+        service.initialize();
+        StoreClient store = service.createStoreClient(3, 64);
+        service.waitForProcessing(1000);
+        store.update(15, "old").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        service.waitForProcessing(500);
+        
+        // Only the extra replicas 50 and 10 learn that key 15 is hot, so the next write,
+        // coordinated by one of its replicas 20, 30 and 40, does not reach them
+        PromoteHotKey promote = new PromoteHotKey(15, localCopy(20, 15), System.currentTimeMillis() + 60_000);
+        service.getNode(50).tell(promote, ActorRef.noSender());
+        service.getNode(10).tell(promote, ActorRef.noSender());
+        service.waitForProcessing(200);
+        store.update(15, "new").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        service.waitForProcessing(500);
+        assertEquals("old", localCopy(10, 15).value().asString());
+        
+        // Node 50 reads from at most R - 1 = 1 extra replica, itself, and from replicas otherwise
+        for (long reqId = 1; reqId <= 20; reqId++) {
+            assertEquals("new", coordinate(50, new ClientGetRequest(15, reqId, 0L)).value().value().asString());
+        }
+        
+        System.out.println("✓ Hot-key reads stay fresh");
+    }
+    
+    /**
+     * Test 34: Queued Compare-and-Sets and Admission
+     * Verify that compare-and-sets queued on one contended key do not shrink the coordinator's
+     * admission limit for other requests
+     */
+    @Test
+    public void testQueuedCasAdmission() throws Exception {
+        System.out.println("\n--- TEST 34: Queued Compare-and-Sets and Admission ---");
+        
+        Settings.admissionControl = true;
+        Settings.admissionTargetMs = 400;
+        Settings.T = 5000;  // clients wait 2T, long enough for the whole line
+        try {
+            service.initialize();
+            StoreClient store = service.createStoreClient(3, 1024);
+            service.waitForProcessing(1000);
+            
+            // Twenty-five compare-and-sets on key 25 wait in line at its primary, node 30, for seconds
+            List<CompletableFuture<CasResult>> swaps = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                swaps.add(store.compareAndSet(25, 0, "v" + i).toCompletableFuture());
+            }
+            for (CompletableFuture<CasResult> swap : swaps) {
+                swap.get(30, TimeUnit.SECONDS);
+            }
+            
+            // Each one was quick once started, so the limit stayed open for a burst of reads
+            List<CompletableFuture<DataItem>> reads = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                reads.add(store.get(25).toCompletableFuture());
+            }
+            for (CompletableFuture<DataItem> read : reads) {
+                assertNotNull(read.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            Settings.admissionControl = false;
+            Settings.admissionTargetMs = 500;
+            Settings.T = 1000;
+        }
+        
+        System.out.println("✓ Queued compare-and-sets successful");
+    }
+    
+    // Polls the initial nodes until all (or none) of them list nodeId as a peer
+    private boolean awaitMembers(int nodeId, boolean present, long timeoutMs) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            boolean converged = true;
+            for (int peer : new int[] {10, 20, 30, 40, 50}) {
+                TopologyResponse topology = (TopologyResponse) Patterns.ask(service.getNode(peer), new TopologyRequest(), Duration.ofSeconds(5))
+                    .toCompletableFuture().get(10, TimeUnit.SECONDS);
+                converged &= topology.peers().containsKey(nodeId) == present;
+            }
+            if (converged) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+    
+    private Result coordinate(int nodeId, Object request) throws Exception {
+        return (Result) Patterns.ask(service.getNode(nodeId), request, Duration.ofSeconds(5))
+            .toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+    
+    private static void readBurst(StoreClient store, int key, String expected) throws Exception {
+        List<CompletableFuture<DataItem>> reads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            reads.add(store.get(key).toCompletableFuture());
+        }
+        for (CompletableFuture<DataItem> read : reads) {
+            assertEquals(expected, read.get(10, TimeUnit.SECONDS).value().asString());
+        }
+    }
+    
+    private DataItem localCopy(int nodeId, int key) throws Exception {
+        Object reply = Patterns.ask(service.getNode(nodeId), new ReadDataRequest(key, 0), Duration.ofSeconds(5))
+            .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        return ((ReadDataResponse) reply).value();
+    }
 }
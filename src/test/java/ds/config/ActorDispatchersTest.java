@@ -0,0 +1,66 @@
+package ds.config;
+
+import ds.config.ActorDispatchers.Role;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Dispatchers;
+import akka.dispatch.Futures;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Actor Dispatchers Test
+ *
+ * Checks the role to dispatcher assignment from application.conf and that
+ * the virtual-thread executor runs tasks on any supported JVM.
+ */
+public class ActorDispatchersTest {
+
+    @Test
+    public void testRolesUseConfiguredDispatchers() {
+        ActorSystem system = ActorSystem.create("ActorDispatchersTest");
+        try {
+            assertEquals("ds.node-dispatcher", ActorDispatchers.of(system, Role.NODE));
+            assertEquals("ds.handler-dispatcher", ActorDispatchers.of(system, Role.HANDLER));
+            assertEquals("ds.blocking-io-dispatcher", ActorDispatchers.of(system, Role.BLOCKING_IO));
+            assertEquals(Dispatchers.DefaultDispatcherId(), ActorDispatchers.of(system, Role.MANAGEMENT));
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    public void testUnknownDispatcherFallsBackToDefault() {
+        Config config = ConfigFactory.parseString("ds.dispatcher-assignment.node = \"ds.missing-dispatcher\"")
+            .withFallback(ConfigFactory.load());
+        ActorSystem system = ActorSystem.create("ActorDispatchersTest", config);
+        try {
+            assertEquals(Dispatchers.DefaultDispatcherId(), ActorDispatchers.of(system, Role.NODE));
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadExecutorRunsTasks() throws Exception {
+        Config config = ConfigFactory.parseString(
+            "ds.blocking-io-dispatcher.executor = \"ds.config.VirtualThreadExecutorConfigurator\"")
+            .withFallback(ConfigFactory.load());
+        ActorSystem system = ActorSystem.create("ActorDispatchersTest", config);
+        try {
+            ExecutionContext executor = system.dispatchers().lookup(ActorDispatchers.of(system, Role.BLOCKING_IO));
+            Integer result = Await.result(Futures.future(() -> 6 * 7, executor), Duration.create(5, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(42), result);
+        } finally {
+            system.terminate();
+        }
+    }
+}
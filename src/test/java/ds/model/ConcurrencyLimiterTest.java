@@ -0,0 +1,82 @@
+package ds.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Concurrency Limiter Test
+ *
+ * Checks that requests beyond the limit are rejected, that the limit grows
+ * additively under fast saturated load and shrinks multiplicatively on
+ * timeouts or slow completions, always within its bounds.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final long FAST = 1_000_000L;         // 1 ms
+    private static final long SLOW = 1_000_000_000L;     // 1 s
+
+    @Test
+    public void testRejectsBeyondTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 2, 16, 100, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.rejected());
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testGrowsAdditivelyWhenSaturated() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 2, 16, 100, 0.5);
+        for (int round = 0; round < 20; round++) {
+            while (limiter.tryAcquire()) {
+                // fill the limit
+            }
+            while (limiter.inFlight() > 0) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertTrue(limiter.limit() > 4);
+        assertTrue(limiter.limit() <= 16);
+    }
+
+    @Test
+    public void testDoesNotGrowWhenIdle() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 2, 16, 100, 0.5);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+        }
+        assertEquals(8, limiter.limit());
+    }
+
+    @Test
+    public void testBacksOffOnDropsAndSlowCompletions() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(16, 2, 16, 100, 0.5);
+        limiter.tryAcquire();
+        limiter.release(FAST, true);
+        assertEquals(8, limiter.limit());
+        limiter.tryAcquire();
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.limit());
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW, false);
+        }
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    public void testCancelFreesASlot() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 4, 100, 0.5);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        assertFalse(limiter.tryAcquire());
+        limiter.cancel();
+        assertEquals(2, limiter.limit());
+        assertTrue(limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,99 @@
+package ds.model;
+
+import ds.model.Types.DataItem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Data Store Test
+ *
+ * Checks that a snapshot keeps seeing the store as it was when taken while
+ * writes go on, that ranges wrap around the key space, and that old versions
+ * are dropped once no snapshot can see them.
+ */
+public class DataStoreTest {
+
+    private static DataItem item(String value, long version) {
+        return new DataItem(value, version, 10);
+    }
+
+    private static List<Integer> keys(Iterable<Map.Entry<Integer, DataItem>> entries) {
+        List<Integer> keys = new ArrayList<>();
+        for (Map.Entry<Integer, DataItem> entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testSnapshotIgnoresLaterWrites() {
+        DataStore store = new DataStore();
+        store.put(5, item("cat", 1));
+        store.put(25, item("dog", 1));
+        DataStore.View snapshot = store.snapshot();
+        store.put(5, item("lynx", 2));
+        store.remove(25);
+        store.put(45, item("frog", 1));
+
+        assertEquals("cat", snapshot.get(5).value().asString());
+        assertEquals("dog", snapshot.get(25).value().asString());
+        assertNull(snapshot.get(45));
+        assertEquals(List.of(5, 25), keys(snapshot.all()));
+
+        assertEquals("lynx", store.get(5).value().asString());
+        assertNull(store.get(25));
+        assertEquals(List.of(5, 45), keys(store.latest().all()));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testRangesWrapAround() {
+        DataStore store = new DataStore();
+        for (int key = 0; key < 60; key += 10) {
+            store.put(key, item("v" + key, 1));
+        }
+        assertEquals(List.of(10, 20, 30), keys(store.latest().range(10, 30)));
+        assertEquals(List.of(40, 50, 0, 10), keys(store.latest().range(35, 15)));
+        assertTrue(keys(store.latest().range(31, 39)).isEmpty());
+    }
+
+    @Test
+    public void testOldVersionsAreDroppedOnRelease() {
+        DataStore store = new DataStore();
+        store.put(5, item("a", 1));
+        DataStore.View first = store.snapshot();
+        store.put(5, item("b", 2));
+        DataStore.View second = store.snapshot();
+        store.put(5, item("c", 3));
+        store.remove(7);
+        assertEquals(3, store.versionCount(5));
+
+        store.release(first);
+        assertEquals(2, store.versionCount(5));
+        assertEquals("b", second.get(5).value().asString());
+
+        store.put(9, item("x", 1));
+        store.remove(9);
+        store.release(second);
+        assertEquals(1, store.versionCount(5));
+        assertEquals(0, store.versionCount(9));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testWritesWithoutSnapshotsKeepOneVersion() {
+        DataStore store = new DataStore();
+        for (int i = 1; i <= 10; i++) {
+            store.put(5, item("v" + i, i));
+        }
+        assertEquals(1, store.versionCount(5));
+        store.remove(5);
+        assertEquals(0, store.versionCount(5));
+        assertTrue(store.isEmpty());
+    }
+}
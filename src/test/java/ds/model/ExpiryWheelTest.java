@@ -0,0 +1,62 @@
+package ds.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Expiry Wheel Test
+ *
+ * Checks that deadlines come due once their tick elapsed, across wheel
+ * revolutions, and that a sweep never returns more than its budget.
+ */
+public class ExpiryWheelTest {
+
+    @Test
+    public void testKeysComeDueAfterTheirDeadline() {
+        ExpiryWheel wheel = new ExpiryWheel(8, 10, 1000);
+        wheel.schedule(1, 1015);
+        wheel.schedule(2, 1042);
+        assertTrue(wheel.expired(1019, 100).isEmpty());
+        assertEquals(List.of(1), wheel.expired(1020, 100));
+        assertTrue(wheel.expired(1039, 100).isEmpty());
+        assertEquals(List.of(2), wheel.expired(1050, 100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneRevolutionWait() {
+        ExpiryWheel wheel = new ExpiryWheel(4, 10, 0);
+        wheel.schedule(1, 5);
+        wheel.schedule(2, 45);   // same slot, next revolution
+        assertEquals(List.of(1), wheel.expired(10, 100));
+        assertTrue(wheel.expired(40, 100).isEmpty());
+        assertEquals(List.of(2), wheel.expired(50, 100));
+    }
+
+    @Test
+    public void testPastDeadlinesAreDueOnTheNextSweep() {
+        ExpiryWheel wheel = new ExpiryWheel(8, 10, 1000);
+        wheel.schedule(7, 500);
+        assertEquals(List.of(7), wheel.expired(1010, 100));
+    }
+
+    @Test
+    public void testSweepRespectsBudget() {
+        ExpiryWheel wheel = new ExpiryWheel(16, 10, 0);
+        for (int key = 0; key < 25; key++) {
+            wheel.schedule(key, key % 3);
+        }
+        List<Integer> due = new ArrayList<>();
+        List<Integer> batch;
+        while (!(batch = wheel.expired(100, 10)).isEmpty()) {
+            assertTrue(batch.size() <= 10);
+            due.addAll(batch);
+        }
+        assertEquals(25, due.size());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,58 @@
+package ds.model;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Hot Key Tracker Test
+ *
+ * Checks that the sketch never underestimates, that the top-K heap
+ * keeps the hottest keys of a skewed stream, and that heat decays.
+ */
+public class HotKeyTrackerTest {
+
+    @Test
+    public void testEstimatesNeverUndercount() {
+        HotKeyTracker tracker = new HotKeyTracker(64, 8);
+        for (int key = 0; key < 500; key++) {
+            for (int i = 0; i <= key % 7; i++) {
+                tracker.record(key);
+            }
+        }
+        for (int key = 0; key < 500; key++) {
+            assertTrue(tracker.estimate(key) >= key % 7 + 1);
+        }
+    }
+
+    @Test
+    public void testTopKKeepsTheHottestKeys() {
+        HotKeyTracker tracker = new HotKeyTracker(1024, 3);
+        for (int round = 0; round < 100; round++) {
+            tracker.record(7);
+            tracker.record(7);
+            tracker.record(42);
+            tracker.record(1000 + round);  // long tail, one request each
+        }
+        assertEquals(List.of(7, 42), tracker.hotKeys(50));
+    }
+
+    @Test
+    public void testHeatDecays() {
+        HotKeyTracker tracker = new HotKeyTracker(1024, 4);
+        for (int i = 0; i < 100; i++) {
+            tracker.record(5);
+        }
+        assertEquals(List.of(5), tracker.hotKeys(100));
+        tracker.decay();
+        assertEquals(50, tracker.estimate(5));
+        assertTrue(tracker.hotKeys(100).isEmpty());
+        for (int i = 0; i < 8; i++) {
+            tracker.decay();
+        }
+        assertEquals(0, tracker.estimate(5));
+        assertTrue(tracker.hotKeys(1).isEmpty());
+    }
+}
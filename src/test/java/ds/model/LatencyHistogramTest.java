@@ -0,0 +1,67 @@
+package ds.model;
+
+import org.junit.Test;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+/**
+ * Latency Histogram Test
+ *
+ * Checks bucket precision and percentile reporting of the load
+ * generator's histogram, and the shape of the key distributions.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverValueWithinPrecision() {
+        for (long value : new long[] {0, 1, 31, 32, 33, 100, 1_000, 45_000, 1_000_000, 60_000_000}) {
+            int index = LatencyHistogram.indexFor(value);
+            long low = LatencyHistogram.lowerBound(index);
+            long high = LatencyHistogram.lowerBound(index + 1);
+            assertTrue("Value " + value + " below its bucket", value >= low);
+            assertTrue("Value " + value + " above its bucket", value < high);
+            assertTrue("Bucket too wide for " + value, (high - low) <= Math.max(1, value / 16));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 100L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000, histogram.percentile(50), 50_000 * 0.04);
+        assertEquals(99_000, histogram.percentile(99), 99_000 * 0.04);
+        assertEquals(100_000, histogram.percentile(100));
+    }
+
+    @Test
+    public void testKeyDistributionsStayInKeySpace() {
+        Random rnd = new Random(42);
+        for (KeyGenerator.Distribution distribution : KeyGenerator.Distribution.values()) {
+            KeyGenerator keys = new KeyGenerator(distribution, 100);
+            for (int i = 0; i < 10_000; i++) {
+                int key = keys.nextKey(rnd);
+                assertTrue(distribution + " produced " + key, key >= 0 && key < 100);
+            }
+        }
+    }
+
+    @Test
+    public void testZipfianIsSkewed() {
+        Random rnd = new Random(42);
+        KeyGenerator keys = new KeyGenerator(KeyGenerator.Distribution.ZIPFIAN, 1000);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100_000; i++) {
+            counts[keys.nextKey(rnd)]++;
+        }
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        // Uniform would give ~100 per key; the most popular zipfian key gets far more
+        assertTrue("Most popular key only hit " + max + " times", max > 5_000);
+    }
+}
@@ -0,0 +1,62 @@
+package ds.model;
+
+import ds.model.LinkNetworkModel.LinkProfile;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Link Network Model Test
+ *
+ * Checks the per-link behaviours of the simulated network without
+ * starting an actor system.
+ */
+public class LinkNetworkModelTest {
+
+    @Test
+    public void testPartitionDropsBothDirections() {
+        LinkNetworkModel network = new LinkNetworkModel(new LinkProfile(10, 0));
+        network.partition("node10", "node20");
+
+        assertEquals(NetworkModel.DROP, network.delayMs("node10", "node20", 100, 0));
+        assertEquals(NetworkModel.DROP, network.delayMs("node20", "node10", 100, 0));
+        assertEquals(10, network.delayMs("node10", "node30", 100, 0));
+
+        network.heal("node10", "node20");
+        assertEquals(10, network.delayMs("node10", "node20", 100, 0));
+    }
+
+    @Test
+    public void testLossyLinkDropsEverything() {
+        LinkNetworkModel network = new LinkNetworkModel(new LinkProfile(10, 0));
+        network.setLink("node10", "node20", new LinkProfile(10, 0, 0, 1.0, true));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(NetworkModel.DROP, network.delayMs("node10", "node20", 100, 0));
+        }
+        assertNotEquals(NetworkModel.DROP, network.delayMs("node20", "node10", 100, 0));
+    }
+
+    @Test
+    public void testBandwidthQueuesMessages() {
+        // 10 bytes/ms: a 1000 byte message takes 100ms to transmit
+        LinkNetworkModel network = new LinkNetworkModel(new LinkProfile(5, 0, 10, 0.0, true));
+
+        assertEquals(105, network.delayMs("node10", "node20", 1000, 0));
+        // Second message waits for the first one to leave the link
+        assertEquals(205, network.delayMs("node10", "node20", 1000, 0));
+        // Other links are not affected
+        assertEquals(105, network.delayMs("node20", "node10", 1000, 0));
+    }
+
+    @Test
+    public void testFifoLinkNeverReorders() {
+        LinkNetworkModel network = new LinkNetworkModel(new LinkProfile(40, 30, 0, 0.0, false));
+
+        long lastDelivery = 0;
+        for (int now = 0; now < 500; now++) {
+            long delivery = now + network.delayMs("node10", "node20", 64, now);
+            assertTrue("Delivery order must follow send order", delivery >= lastDelivery);
+            lastDelivery = delivery;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ds.model;
+
+import ds.model.Types.Member;
+import ds.model.Types.MemberStatus;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Membership Test
+ *
+ * Checks that merging keeps the newest state of every node in any order,
+ * that rumors are retransmitted a bounded number of times, and that a
+ * digest yields exactly the states its holder is missing.
+ */
+public class MembershipTest {
+
+    private static Member member(int nodeId, MemberStatus status, long version) {
+        return new Member(nodeId, null, status, version);
+    }
+
+    @Test
+    public void testNewestStateWins() {
+        Membership view = new Membership(1);
+        assertTrue(view.apply(member(10, MemberStatus.JOINING, 1)));
+        assertTrue(view.apply(member(10, MemberStatus.LEAVING, 3)));
+        assertFalse(view.apply(member(10, MemberStatus.UP, 2)));
+        assertEquals(MemberStatus.LEAVING, view.get(10).status());
+        // At equal versions the later status wins, so replicas agree whatever the order
+        assertTrue(view.apply(member(10, MemberStatus.LEFT, 3)));
+        assertFalse(view.apply(member(10, MemberStatus.LEAVING, 3)));
+        assertFalse(view.apply(member(10, MemberStatus.LEFT, 3)));
+    }
+
+    @Test
+    public void testSeedIsNotARumor() {
+        Membership view = new Membership(1);
+        view.seed(member(10, MemberStatus.UP, 0));
+        view.seed(member(10, MemberStatus.LEFT, 5));
+        assertEquals(MemberStatus.UP, view.get(10).status());
+        assertEquals(0, view.pendingRumors());
+    }
+
+    @Test
+    public void testRumorsExpire() {
+        Membership view = new Membership(2);
+        for (int nodeId = 10; nodeId <= 30; nodeId += 10) {
+            view.seed(member(nodeId, MemberStatus.UP, 0));
+        }
+        view.apply(member(40, MemberStatus.JOINING, 1));
+        int rounds = 0;
+        while (view.pendingRumors() > 0) {
+            assertEquals(List.of(member(40, MemberStatus.JOINING, 1)), view.nextRumors(8));
+            rounds++;
+        }
+        assertEquals(2 * 3, rounds);  // factor * ceil(log2(4 + 1))
+        assertTrue(view.nextRumors(8).isEmpty());
+    }
+
+    @Test
+    public void testRumorBatchesAreBounded() {
+        Membership view = new Membership(1);
+        for (int nodeId = 1; nodeId <= 5; nodeId++) {
+            view.apply(member(nodeId, MemberStatus.UP, 1));
+        }
+        assertEquals(2, view.nextRumors(2).size());
+    }
+
+    @Test
+    public void testNewerThanDigest() {
+        Membership view = new Membership(1);
+        view.apply(member(10, MemberStatus.UP, 4));
+        view.apply(member(20, MemberStatus.UP, 1));
+        view.apply(member(30, MemberStatus.LEFT, 2));
+        List<Member> missing = view.newerThan(Map.of(10, 4L, 20, 0L));
+        assertEquals(2, missing.size());
+        assertTrue(missing.contains(member(20, MemberStatus.UP, 1)));
+        assertTrue(missing.contains(member(30, MemberStatus.LEFT, 2)));
+        assertTrue(view.newerThan(view.versions()).isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package ds.model;
+
+import ds.model.Types.DataItem;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Near Cache Test
+ *
+ * Checks LRU eviction under the entry and byte bounds, that a lagging
+ * copy never replaces a newer cached version, and the hit-rate counters.
+ */
+public class NearCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        NearCache cache = new NearCache(2, Long.MAX_VALUE);
+        cache.put(1, new DataItem("a", 1, 10), 0);
+        cache.put(2, new DataItem("b", 1, 10), 0);
+        assertNotNull(cache.lookup(1, 0));
+        cache.put(3, new DataItem("c", 1, 10), 0);
+        assertNull(cache.lookup(2, 0));
+        assertNotNull(cache.lookup(1, 0));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    public void testByteBoundEvicts() {
+        NearCache cache = new NearCache(100, 300);
+        for (int key = 0; key < 10; key++) {
+            cache.put(key, new DataItem("x".repeat(50), 1, 10), 0);
+        }
+        assertTrue(cache.stats().bytes() <= 300);
+        assertEquals(2, cache.stats().entries());
+    }
+
+    @Test
+    public void testOlderCopyDoesNotRollBack() {
+        NearCache cache = new NearCache(10, Long.MAX_VALUE);
+        cache.put(1, new DataItem("new", 5, 10), 0);
+        cache.put(1, new DataItem("old", 4, 20), 100);
+        NearCache.Entry entry = cache.lookup(1, 100);
+        assertEquals("new", entry.item().value().asString());
+        assertEquals(100, entry.confirmedAtMs());
+    }
+
+    @Test
+    public void testExpiredEntriesAreDropped() {
+        NearCache cache = new NearCache(10, Long.MAX_VALUE);
+        cache.put(1, new DataItem(Value.of("s"), 1, 10, 500), 0);
+        assertNotNull(cache.lookup(1, 499));
+        assertNull(cache.lookup(1, 500));
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    public void testHitRate() {
+        NearCache cache = new NearCache(10, Long.MAX_VALUE);
+        cache.recordHit();
+        cache.recordValidatedHit();
+        cache.recordMiss();
+        cache.recordMiss();
+        assertEquals(0.5, cache.stats().hitRate(), 1e-9);
+        assertEquals(0.0, new NearCache(1, 1).stats().hitRate(), 1e-9);
+    }
+}
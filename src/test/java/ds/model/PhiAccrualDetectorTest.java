@@ -0,0 +1,66 @@
+package ds.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Phi Accrual Detector Test
+ *
+ * Checks that suspicion grows with the time since the last heartbeat,
+ * scaled by the observed intervals, and that a returning peer is trusted again.
+ */
+public class PhiAccrualDetectorTest {
+
+    private static PhiAccrualDetector regularHeartbeats(int peerId, long intervalMs, int count) {
+        PhiAccrualDetector detector = new PhiAccrualDetector(8.0, 32, 10, intervalMs);
+        for (int i = 0; i < count; i++) {
+            detector.heartbeat(peerId, i * intervalMs);
+        }
+        return detector;
+    }
+
+    @Test
+    public void testUnknownPeerIsNotSuspected() {
+        PhiAccrualDetector detector = new PhiAccrualDetector(8.0, 32, 10, 100);
+        assertEquals(0.0, detector.phi(7, 1_000_000), 0.0);
+        assertFalse(detector.isSuspected(7, 1_000_000));
+    }
+
+    @Test
+    public void testPhiGrowsWithSilence() {
+        PhiAccrualDetector detector = regularHeartbeats(1, 100, 20);
+        long last = 19 * 100;
+        assertFalse(detector.isSuspected(1, last + 100));
+        assertTrue(detector.phi(1, last + 130) > detector.phi(1, last + 100));
+        assertTrue(detector.isSuspected(1, last + 1000));
+    }
+
+    @Test
+    public void testJitteryPeersGetMoreSlack() {
+        PhiAccrualDetector steady = regularHeartbeats(1, 100, 20);
+        PhiAccrualDetector jittery = new PhiAccrualDetector(8.0, 32, 10, 100);
+        long now = 0;
+        for (int i = 0; i < 20; i++) {
+            now += i % 2 == 0 ? 40 : 160;
+            jittery.heartbeat(1, now);
+        }
+        assertTrue(jittery.phi(1, now + 200) < steady.phi(1, 19 * 100 + 200));
+    }
+
+    @Test
+    public void testReturningPeerIsTrustedAgain() {
+        PhiAccrualDetector detector = regularHeartbeats(1, 100, 20);
+        long back = 19 * 100 + 10_000;
+        assertTrue(detector.isSuspected(1, back));
+        detector.heartbeat(1, back);
+        assertFalse(detector.isSuspected(1, back + 100));
+    }
+
+    @Test
+    public void testRemoveForgetsPeer() {
+        PhiAccrualDetector detector = regularHeartbeats(1, 100, 20);
+        detector.remove(1);
+        assertFalse(detector.isSuspected(1, 1_000_000));
+    }
+}
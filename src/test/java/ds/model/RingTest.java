@@ -0,0 +1,72 @@
+package ds.model;
+
+import ds.model.Ring.Segment;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ring Test
+ *
+ * Checks replica placement and the split of key ranges into segments
+ * that each map to a single replica set.
+ */
+public class RingTest {
+
+    private static final List<Integer> NODES = List.of(30, 10, 20);
+
+    @Test
+    public void testReplicasWrapAroundTheRing() {
+        assertEquals(List.of(10, 20), Ring.findReplicaNodesIds(5, NODES, 2));
+        assertEquals(List.of(30, 10), Ring.findReplicaNodesIds(25, NODES, 2));
+        assertEquals(List.of(10, 20), Ring.findReplicaNodesIds(35, NODES, 2));
+    }
+
+    @Test
+    public void testSegmentsSplitAtNodePositions() {
+        assertEquals(List.of(new Segment(0, 10), new Segment(11, 20), new Segment(21, 30), new Segment(31, 100)),
+            Ring.segments(0, 100, NODES));
+        assertEquals(List.of(new Segment(12, 20), new Segment(21, 25)), Ring.segments(12, 25, NODES));
+        assertEquals(List.of(new Segment(35, 40)), Ring.segments(35, 40, NODES));
+        assertEquals(List.of(new Segment(20, 20)), Ring.segments(20, 20, NODES));
+    }
+
+    @Test
+    public void testSegmentsShareOneReplicaSet() {
+        for (Segment segment : Ring.segments(0, 100, NODES)) {
+            List<Integer> replicas = Ring.findReplicaNodesIds(segment.toKey(), NODES, 2);
+            assertEquals(replicas, Ring.findReplicaNodesIds(segment.fromKey(), NODES, 2));
+        }
+    }
+
+    @Test
+    public void testExtraReplicasFollowTheReplicas() {
+        assertEquals(List.of(30), Ring.extraReplicaIds(5, NODES, 2, 2));
+        assertTrue(Ring.extraReplicaIds(5, NODES, 3, 2).isEmpty());
+    }
+
+    @Test
+    public void testRingNeighborsLookBothWays() {
+        List<Integer> nodes = List.of(10, 20, 30, 40, 50);
+        assertEquals(List.of(40, 50, 20, 10), Ring.ringNeighborIds(30, nodes, 2));
+        assertEquals(List.of(20, 30, 50, 40), Ring.ringNeighborIds(10, nodes, 2));
+        assertEquals(List.of(20, 30), Ring.ringNeighborIds(10, NODES, 2));
+    }
+
+    @Test
+    public void testReplicatedRangesEndAtSelfAndPredecessors() {
+        List<Integer> nodes = List.of(10, 20, 30, 40, 50, 35);
+        assertEquals(List.of(new Segment(31, 35), new Segment(21, 30), new Segment(11, 20)),
+            Ring.replicatedRanges(35, nodes, 3));
+        assertEquals(List.of(new Segment(51, 10), new Segment(41, 50)), Ring.replicatedRanges(10, nodes, 2));
+        assertEquals(List.of(new Segment(11, 10)), Ring.replicatedRanges(10, List.of(10), 3));
+    }
+
+    @Test
+    public void testEmptyRange() {
+        assertTrue(Ring.segments(10, 5, NODES).isEmpty());
+        assertTrue(Ring.segments(0, 10, List.of()).isEmpty());
+    }
+}
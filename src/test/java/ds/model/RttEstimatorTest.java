@@ -0,0 +1,60 @@
+package ds.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * RTT Estimator Test
+ *
+ * Checks the smoothed round-trip time and its deviation, and that the
+ * derived timeout follows them within its floor and ceiling.
+ */
+public class RttEstimatorTest {
+
+    @Test
+    public void testCeilingUntilFirstSample() {
+        RttEstimator rtt = new RttEstimator();
+        assertFalse(rtt.hasSamples());
+        assertEquals(1000, rtt.timeoutMs(50, 1000));
+    }
+
+    @Test
+    public void testFirstSampleSeedsEstimate() {
+        RttEstimator rtt = new RttEstimator();
+        rtt.sample(80);
+        assertEquals(80, rtt.srttMs(), 1e-9);
+        assertEquals(40, rtt.rttvarMs(), 1e-9);
+        assertEquals(240, rtt.timeoutMs(50, 1000));
+    }
+
+    @Test
+    public void testSteadySamplesTightenTimeout() {
+        RttEstimator rtt = new RttEstimator();
+        for (int i = 0; i < 50; i++) {
+            rtt.sample(80);
+        }
+        assertEquals(80, rtt.srttMs(), 1e-6);
+        assertTrue(rtt.timeoutMs(50, 1000) < 90);
+    }
+
+    @Test
+    public void testJitterWidensTimeout() {
+        RttEstimator steady = new RttEstimator();
+        RttEstimator jittery = new RttEstimator();
+        for (int i = 0; i < 50; i++) {
+            steady.sample(80);
+            jittery.sample(i % 2 == 0 ? 40 : 120);
+        }
+        assertTrue(jittery.timeoutMs(1, 1000) > steady.timeoutMs(1, 1000) + 100);
+    }
+
+    @Test
+    public void testTimeoutIsClamped() {
+        RttEstimator rtt = new RttEstimator();
+        rtt.sample(1);
+        assertEquals(50, rtt.timeoutMs(50, 1000));
+        rtt.sample(5000);
+        assertEquals(1000, rtt.timeoutMs(50, 1000));
+    }
+}
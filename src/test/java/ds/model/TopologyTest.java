@@ -0,0 +1,98 @@
+package ds.model;
+
+import ds.model.Types.TopologyDelta;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Topology Test
+ *
+ * Checks that changes produce new snapshots without touching the old ones,
+ * that deltas carry exactly the changes since an epoch, and that late or
+ * reordered changes and deltas are ignored.
+ */
+public class TopologyTest {
+
+    private static ActorSystem system;
+    private static final Map<Integer, ActorRef> refs = new HashMap<>();
+
+    @BeforeClass
+    public static void setUp() {
+        system = ActorSystem.create("TopologyTest");
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        system.terminate();
+    }
+
+    @Test
+    public void testChangesLeaveSnapshotsIntact() {
+        Topology initial = Topology.initial(Map.of(10, ref(10)));
+        Topology joined = initial.with(20, ref(20), 1, 1);
+        assertEquals(Set.of(10), initial.nodes().keySet());
+        assertEquals(Set.of(10, 20), joined.nodes().keySet());
+        assertEquals(1, joined.epoch());
+        assertSame(joined, joined.with(20, ref(20), 2, 2));
+        assertThrows(UnsupportedOperationException.class, () -> joined.nodes().remove(10));
+    }
+
+    @Test
+    public void testDeltaSinceEpoch() {
+        Topology topology = Topology.initial(Map.of(10, ref(10), 20, ref(20)))
+            .with(30, ref(30), 1, 1)
+            .without(20, 3, 3)
+            .with(40, ref(40), 4, 5);
+        TopologyDelta delta = topology.delta(3, 6);
+        assertEquals(Map.of(40, ref(40)), delta.joined());
+        assertEquals(Set.of(20), delta.left());
+        assertEquals(3, delta.size());
+        assertEquals(6, delta.epoch());
+
+        Topology behind = Topology.of(Map.of(10, ref(10), 20, ref(20), 30, ref(30)), 3);
+        Topology caughtUp = behind.apply(delta);
+        assertEquals(topology.nodes(), caughtUp.nodes());
+        assertSame(caughtUp, caughtUp.apply(topology.delta(0, 2)));  // older than the snapshot
+    }
+
+    @Test
+    public void testNoDeltaBeyondTheLog() {
+        Topology received = Topology.of(Map.of(10, ref(10)), 5);
+        assertNull(received.delta(5, 5));
+        assertNull(received.delta(-1, 5));
+        assertNotNull(received.delta(6, 6));
+
+        Topology topology = Topology.initial(Map.of());
+        for (int i = 1; i <= Topology.LOG_SIZE + 1; i++) {
+            topology = topology.with(i, ref(i), i, i);
+        }
+        assertNull(topology.delta(1, 100));
+        assertEquals(Topology.LOG_SIZE, topology.delta(2, 100).joined().size());
+    }
+
+    @Test
+    public void testLateChangesAreIgnored() {
+        Topology topology = Topology.initial(Map.of(10, ref(10)));
+        Topology left = topology.without(20, 4, 4);  // the leave overtook the join
+        assertSame(left, left.with(20, ref(20), 2, 4));
+        assertFalse(left.nodes().containsKey(20));
+        Topology rejoined = left.with(20, ref(20), 6, 6);
+        assertTrue(rejoined.nodes().containsKey(20));
+        assertSame(rejoined, rejoined.without(20, 4, 6));
+    }
+
+    private static ActorRef ref(int nodeId) {
+        return refs.computeIfAbsent(nodeId, id -> system.actorOf(Props.create(TypesSerializerTest.Idle.class), "node" + id));
+    }
+}
@@ -0,0 +1,138 @@
+package ds.model;
+
+import ds.actors.Client;
+import ds.model.Types.*;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Props;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Types Serializer Test
+ *
+ * Round-trips every message through the binary serializer, both through
+ * byte arrays and through the ByteBuffer path used by Artery.
+ */
+public class TypesSerializerTest {
+
+    public static class Idle extends AbstractActor {
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().build();
+        }
+    }
+
+    private static ActorSystem system;
+    private static TypesSerializer serializer;
+    private static ActorRef node10;
+    private static ActorRef node20;
+
+    @BeforeClass
+    public static void setUp() {
+        system = ActorSystem.create("TypesSerializerTest");
+        serializer = new TypesSerializer((ExtendedActorSystem) system);
+        node10 = system.actorOf(Props.create(Idle.class), "node10");
+        node20 = system.actorOf(Props.create(Idle.class), "node20");
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        system.terminate();
+    }
+
+    private static List<Object> allMessages() {
+        Map<Integer, ActorRef> peers = new HashMap<>(Map.of(10, node10, 20, node20));
+        Map<Integer, DataItem> items = new HashMap<>(Map.of(5, new DataItem("cat", 3, 10), 25, new DataItem("ünïcödé", 1L << 40, 20)));
+        DataItem item = new DataItem("dog", 7, 20);
+        return List.of(
+            new ClientGetRequest(5, (3L << 32) | 17, 4), new ClientUpdateRequest(-5, Value.of("v"), 1, 0),
+            new ClientUpdateRequest(5, null, 0, 0), new ClientUpdateRequest(5, Value.of("s"), 9, 1, 30_000),
+            new SetPeers(peers), new AddPeer(30, node10, 2),
+            new ClientGetResponse(5, item), new ClientUpdateResponse(5, true),
+            new ReadDataRequest(5, 99), new WriteDataRequest(5, item),
+            new WriteDataRequest(7, new DataItem(Value.of("session"), 4, 20, 1_700_000_000_000L)), new ExpiryTick(),
+            new HintedWrite(25, new DataItem(Value.of("wolf"), 5, 10), 30), new PingTick(), new Ping(40, true),
+            new Ping(40, false, List.of(new Member(30, node10, MemberStatus.LEAVING, 3)), 2, 3, 1),
+            new GossipTick(),
+            new GossipDigest(10, 2, Map.of(10, 4L, 20, 0L), List.of(new Member(20, node20, MemberStatus.UP, 1))),
+            new GossipDelta(2, List.of(new Member(30, node10, MemberStatus.JOINING, 0), new Member(40, node20, MemberStatus.LEFT, 5))),
+            new JoinAnnounced(), new LeaveAnnounced(),
+            new HotKeyTick(), new PromoteHotKey(15, item, 1_700_000_000_000L), new PromoteHotKey(15, null, 1),
+            new VersionProbe(5, 3, 10, 45), new VersionProbeResponse(5, null, 45), new VersionProbeResponse(5, item, 46),
+            new WriteDataRequest(6, new DataItem(Value.of("compressible ".repeat(100)), 2, 10)), new ReadDataResponse(null, 3),
+            new Result(1, item, 42, 2), new Result(2, null), new Result(3, item, 43, 2, Result.Status.CONFLICT),
+            new ClientCasRequest(5, 7, Value.of("next"), 0, 44, 2), new OperationTimeout(),
+            new Crash(), new Recover(node20), new TopologyRequest(), new TopologyRequest(12), new TopologyResponse(peers, 6),
+            new TopologyDelta(4, 6, Map.of(30, node10), Set.of(20, 40), 5), new TopologyDelta(6, 6, Map.of(), Set.of(), 4),
+            new JoinRequest(30, node10), new RegisterPeers(peers, Map.of(), 3), new JoinStarted(30, node20, 4),
+            new GetRangeItems(30, 21, 30, 1), new RangeItems(51, 10, items, 1, 3, true), new RangeItems(0, 20, Map.of(), 2, 0, false),
+            new RangePullTimeout(51, 10, 2), new Leave(),
+            new LeaveStarted(20, 5), new LeaveAborted(20, 6), new AckRequest(), new AckResponse(20),
+            new LeaveNotify(20, 7), new LeaveComplete(20), new NodeReady(10), new NodeProcessStarted(10),
+            new ClientScanRequest(-3, 60, 10, 7, 2), new ScanPageRequest(1, 11, 20, 64),
+            new ScanPageResponse(1, 11, new TreeMap<>(items), true), new ScanBatch(7, new TreeMap<>(items), false, false),
+            new ScanBatch(7, new TreeMap<>(), true, true), new ScanAck(7),
+            new JoinCluster(3, 2, 2, 1000, null), new JoinCluster(3, 2, 2, 1000, node10),
+            new Print(), new PrintPeers(), new PrintNetwork(), new NetworkStatus(10, false, peers),
+            new Client.GetRequest(10, 5), new Client.UpdateRequest(10, 5, "x"),
+            new Client.RequestTimeout(Long.MAX_VALUE), new Client.RefreshTopology()
+        );
+    }
+
+    @Test
+    public void testRoundTripThroughByteArray() throws Exception {
+        for (Object message : allMessages()) {
+            byte[] bytes = serializer.toBinary(message);
+            assertEquals(message, serializer.fromBinary(bytes, serializer.manifest(message)));
+        }
+    }
+
+    @Test
+    public void testRoundTripThroughDirectBuffer() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        for (Object message : allMessages()) {
+            buffer.clear();
+            serializer.toBinary(message, buffer);
+            buffer.flip();
+            assertEquals(message, serializer.fromBinary(buffer, serializer.manifest(message)));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testBulkPayloadIsSmallerThanJavaSerialization() throws Exception {
+        Map<Integer, DataItem> items = new HashMap<>();
+        for (int key = 0; key < 1000; key++) {
+            items.put(key, new DataItem("value" + key, key, 10));
+        }
+        RangeItems message = new RangeItems(0, 999, items, 1, 0, true);
+
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(java)) {
+            out.writeObject(message);
+        }
+        byte[] binary = serializer.toBinary(message);
+        assertTrue("binary " + binary.length + " vs java " + java.size(), binary.length * 2 < java.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMessageIsRejected() {
+        serializer.toBinary("not a message");
+    }
+}
@@ -0,0 +1,55 @@
+package ds.model;
+
+import ds.config.Settings;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Value Test
+ *
+ * Checks that values are immutable and that compression above the
+ * threshold is transparent to readers.
+ */
+public class ValueTest {
+
+    @Test
+    public void testSmallValuesAreStoredRaw() {
+        Value value = Value.of("cat");
+        assertFalse(value.isCompressed());
+        assertEquals(3, value.length());
+        assertEquals("cat", value.asString());
+    }
+
+    @Test
+    public void testLargeValuesAreCompressedTransparently() {
+        String text = "mars rover telemetry ".repeat(200);
+        Value value = Value.of(text);
+        assertTrue(value.isCompressed());
+        assertTrue(value.storedSize() < value.length() / 4);
+        assertEquals(text, value.asString());
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), value.toBytes());
+    }
+
+    @Test
+    public void testIncompressibleValuesStayRaw() {
+        byte[] noise = new byte[Settings.compressionThreshold * 4];
+        new Random(42).nextBytes(noise);
+        Value value = Value.of(noise);
+        assertFalse(value.isCompressed());
+        assertArrayEquals(noise, value.toBytes());
+    }
+
+    @Test
+    public void testValuesAreImmutable() {
+        byte[] bytes = {1, 2, 3};
+        Value value = Value.of(bytes);
+        bytes[0] = 9;
+        value.toBytes()[1] = 9;
+        assertArrayEquals(new byte[]{1, 2, 3}, value.toBytes());
+        assertEquals(Value.of(new byte[]{1, 2, 3}), value);
+    }
+}